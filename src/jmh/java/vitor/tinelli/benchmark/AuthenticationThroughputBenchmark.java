@@ -0,0 +1,103 @@
+package vitor.tinelli.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import vitor.tinelli.domain.OnboardingUsers;
+import vitor.tinelli.repository.OnboardingUsersRepository;
+
+/**
+ * Requests per second against a running server for the same cached read, authenticated with
+ * HTTP Basic ({@code basic}, the default configuration) or with a bearer token ({@code token},
+ * {@code security.token.enabled=true}).
+ *
+ * <p>Both go through real HTTP so session handling is included: in the default configuration
+ * every Basic request that carries no session cookie creates a new {@code HttpSession}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(8)
+@Fork(1)
+public class AuthenticationThroughputBenchmark {
+
+  private static final String USERNAME = "benchmark";
+  private static final String PASSWORD = "benchmark";
+
+  @Param({"basic", "token"})
+  public String mode;
+
+  private ConfigurableApplicationContext context;
+  private HttpClient httpClient;
+  private HttpRequest request;
+
+  @Setup(Level.Trial)
+  public void startApplication() throws Exception {
+    context = "token".equals(mode)
+        ? BenchmarkContext.startWeb("security.token.enabled=true",
+            "security.token.secret=benchmark-secret-benchmark-secret")
+        : BenchmarkContext.startWeb();
+    context.getBean(OnboardingUsersRepository.class).save(OnboardingUsers.builder()
+        .username(USERNAME)
+        .password(PASSWORD)
+        .authorities("ROLE_USER")
+        .build());
+
+    httpClient = HttpClient.newHttpClient();
+    URI baseUri = URI.create("http://localhost:" + BenchmarkContext.port(context));
+    String basic = "Basic " + Base64.getEncoder()
+        .encodeToString((USERNAME + ":" + PASSWORD).getBytes(StandardCharsets.UTF_8));
+
+    String authorization = basic;
+    if ("token".equals(mode)) {
+      HttpResponse<String> tokenResponse = httpClient.send(HttpRequest.newBuilder(
+                  baseUri.resolve("/auth/token"))
+              .header("Authorization", basic)
+              .POST(HttpRequest.BodyPublishers.noBody())
+              .build(),
+          HttpResponse.BodyHandlers.ofString());
+      authorization = "Bearer " + new ObjectMapper().readTree(tokenResponse.body())
+          .get("token").asText();
+    }
+    request = HttpRequest.newBuilder(baseUri.resolve("/units"))
+        .header("Authorization", authorization)
+        .GET()
+        .build();
+  }
+
+  @TearDown(Level.Trial)
+  public void stopApplication() {
+    context.close();
+  }
+
+  @Benchmark
+  public int listUnits() throws Exception {
+    HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+    if (response.statusCode() != 200) {
+      throw new IllegalStateException("Unexpected status " + response.statusCode());
+    }
+    return response.statusCode();
+  }
+}
@@ -0,0 +1,124 @@
+package vitor.tinelli.benchmark;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.access.ConfigAttribute;
+import org.springframework.security.access.SecurityConfig;
+import org.springframework.security.access.vote.AffirmativeBased;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authorization.AuthenticatedAuthorizationManager;
+import org.springframework.security.authorization.AuthorityAuthorizationManager;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.access.expression.DefaultWebSecurityExpressionHandler;
+import org.springframework.security.web.access.expression.ExpressionBasedFilterInvocationSecurityMetadataSource;
+import org.springframework.security.web.access.expression.WebExpressionVoter;
+import org.springframework.security.web.access.intercept.AuthorizationFilter;
+import org.springframework.security.web.access.intercept.FilterSecurityInterceptor;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
+import org.springframework.security.web.access.intercept.RequestMatcherDelegatingAuthorizationManager;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.AnyRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import vitor.tinelli.domain.OnboardingUsers;
+import vitor.tinelli.security.RoleAuthorizationManager;
+
+/**
+ * One pass of the authorization filter for an administrator's request to an admin endpoint, the
+ * path where the role check runs, with the matchers from {@code SecurityConfig}:
+ * <ul>
+ *   <li>{@code expression}: {@code authorizeRequests} with SpEL, the previous configuration;</li>
+ *   <li>{@code authorityManager}: {@code authorizeHttpRequests} with Spring's stock manager;</li>
+ *   <li>{@code roleManager}: {@code authorizeHttpRequests} with {@link RoleAuthorizationManager},
+ *   the current configuration.</li>
+ * </ul>
+ * Run with {@code -Pjmh.args="-prof gc"} to see the allocation rate of each.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthorizationFilterBenchmark {
+
+  private static final String ALREADY_FILTERED = AuthorizationFilter.class.getName() + ".FILTERED";
+  private static final FilterChain NO_OP_CHAIN = (request, response) -> {
+  };
+
+  @Param({"expression", "authorityManager", "roleManager"})
+  public String mode;
+
+  private MockHttpServletRequest request;
+  private MockHttpServletResponse response;
+  private Filter filter;
+
+  @Setup
+  public void setUp() throws Exception {
+    OnboardingUsers user = new OnboardingUsers(1L, "admin", "password", "ROLE_USER,ROLE_ADMIN");
+    SecurityContextHolder.getContext().setAuthentication(
+        new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+
+    request = new MockHttpServletRequest("DELETE", "/units/admin/1");
+    request.setServletPath("/units/admin/1");
+    response = new MockHttpServletResponse();
+
+    switch (mode) {
+      case "expression":
+        filter = expressionFilter();
+        break;
+      case "authorityManager":
+        filter = new AuthorizationFilter(RequestMatcherDelegatingAuthorizationManager.builder()
+            .add(new AntPathRequestMatcher("/**/admin/**"), AuthorityAuthorizationManager.hasRole("ADMIN"))
+            .add(AnyRequestMatcher.INSTANCE, AuthenticatedAuthorizationManager.authenticated())
+            .build());
+        break;
+      default:
+        filter = new AuthorizationFilter(RequestMatcherDelegatingAuthorizationManager.builder()
+            .add(new AntPathRequestMatcher("/**/admin/**"), roleManager("ADMIN"))
+            .add(AnyRequestMatcher.INSTANCE, AuthenticatedAuthorizationManager.authenticated())
+            .build());
+    }
+  }
+
+  @Benchmark
+  public void authorize() throws Exception {
+    request.removeAttribute(ALREADY_FILTERED);
+    filter.doFilter(request, response, NO_OP_CHAIN);
+  }
+
+  private static AuthorizationManager<RequestAuthorizationContext> roleManager(String role) {
+    return RoleAuthorizationManager.hasRole(role);
+  }
+
+  private static FilterSecurityInterceptor expressionFilter() throws Exception {
+    LinkedHashMap<RequestMatcher, Collection<ConfigAttribute>> rules = new LinkedHashMap<>();
+    rules.put(new AntPathRequestMatcher("/**/admin/**"), SecurityConfig.createList("hasRole('ADMIN')"));
+    rules.put(AnyRequestMatcher.INSTANCE, SecurityConfig.createList("authenticated"));
+
+    FilterSecurityInterceptor interceptor = new FilterSecurityInterceptor();
+    interceptor.setSecurityMetadataSource(new ExpressionBasedFilterInvocationSecurityMetadataSource(
+        rules, new DefaultWebSecurityExpressionHandler()));
+    interceptor.setAccessDecisionManager(new AffirmativeBased(List.of(new WebExpressionVoter())));
+    interceptor.setObserveOncePerRequest(false);
+    interceptor.afterPropertiesSet();
+    return interceptor;
+  }
+}
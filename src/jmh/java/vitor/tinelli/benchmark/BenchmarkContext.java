@@ -0,0 +1,57 @@
+package vitor.tinelli.benchmark;
+
+import java.util.stream.Stream;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import vitor.tinelli.OnboardingApp;
+
+/**
+ * Boots the application against an in-memory H2 database so benchmarks measure this code and
+ * not a particular Postgres installation. Numbers are only comparable between runs on the same
+ * machine.
+ */
+public final class BenchmarkContext {
+
+  private BenchmarkContext() {
+  }
+
+  public static ConfigurableApplicationContext start(String... extraProperties) {
+    return new SpringApplicationBuilder(OnboardingApp.class)
+        .web(WebApplicationType.NONE)
+        .run(arguments(extraProperties));
+  }
+
+  /**
+   * Same as {@link #start} but with the embedded server listening on a random port, read it back
+   * with {@link #port}.
+   */
+  public static ConfigurableApplicationContext startWeb(String... extraProperties) {
+    return new SpringApplicationBuilder(OnboardingApp.class)
+        .web(WebApplicationType.SERVLET)
+        .run(arguments(Stream.concat(Stream.of("server.port=0"), Stream.of(extraProperties))
+            .toArray(String[]::new)));
+  }
+
+  public static int port(ConfigurableApplicationContext context) {
+    return ((WebServerApplicationContext) context).getWebServer().getPort();
+  }
+
+  // Passed as command line arguments: default properties would lose to application.properties.
+  private static String[] arguments(String... extraProperties) {
+    return Stream.concat(Stream.of(
+            "spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+            "spring.datasource.username=sa",
+            "spring.datasource.password=",
+            "spring.jpa.hibernate.ddl-auto=create-drop",
+            "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+            "spring.jpa.show-sql=false",
+            "spring.flyway.enabled=false",
+            "cache.invalidation.enabled=false",
+            "changes.sequencer-lock-enabled=false",
+            "logging.level.root=WARN"), Stream.of(extraProperties))
+        .map(property -> "--" + property)
+        .toArray(String[]::new);
+  }
+}
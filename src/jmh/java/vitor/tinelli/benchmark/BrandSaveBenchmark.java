@@ -0,0 +1,100 @@
+package vitor.tinelli.benchmark;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.support.TransactionTemplate;
+import vitor.tinelli.domain.Brand;
+
+/**
+ * Time per brand insert over 100k inserts, with ids from the pooled-lo sequence {@link Brand}
+ * uses ({@code sequence}) and with the {@code IDENTITY} column it used before ({@code identity},
+ * mapped by {@link IdentityBrand}). Both persist through the same {@link EntityManager}, so the id
+ * generation is the only difference.
+ *
+ * <p>{@code perCall} is one transaction per insert, as the REST endpoint does it.
+ * {@code sharedTransaction} runs the same inserts inside one transaction, which is where pooled
+ * sequence ids and {@code hibernate.jdbc.batch_size} pay off: inserts go out in batches and the
+ * sequence is hit once per 50 ids. Identity ids force one immediate insert per persist instead.
+ *
+ * <p>{@link vitor.tinelli.service.BrandService#save} is not called: it always saves {@link Brand},
+ * so the baseline could not go through it, and timing only one arm through the service would
+ * mix its change feed insert and cache invalidation into the comparison. Both are the same
+ * under either mapping, so the persist is the part that differs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class BrandSaveBenchmark {
+
+  private static final int BRANDS = 100_000;
+
+  @Param({"sequence", "identity"})
+  public String ids;
+
+  @Param({"perCall", "sharedTransaction"})
+  public String mode;
+
+  private ConfigurableApplicationContext context;
+  private EntityManager entityManager;
+  private TransactionTemplate transactionTemplate;
+
+  @Setup(Level.Trial)
+  public void startApplication() {
+    context = BenchmarkContext.start();
+    entityManager = SharedEntityManagerCreator.createSharedEntityManager(
+        context.getBean(EntityManagerFactory.class));
+    transactionTemplate = context.getBean(TransactionTemplate.class);
+  }
+
+  @Setup(Level.Iteration)
+  public void emptyTables() {
+    transactionTemplate.executeWithoutResult(status -> {
+      entityManager.createQuery("delete from Brand").executeUpdate();
+      entityManager.createQuery("delete from IdentityBrand").executeUpdate();
+    });
+  }
+
+  @TearDown(Level.Trial)
+  public void stopApplication() {
+    context.close();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BRANDS)
+  public void save100kBrands() {
+    if ("sharedTransaction".equals(mode)) {
+      transactionTemplate.executeWithoutResult(status -> saveAll());
+    } else {
+      saveAll();
+    }
+  }
+
+  private void saveAll() {
+    boolean identity = "identity".equals(ids);
+    for (int i = 0; i < BRANDS; i++) {
+      transactionTemplate.executeWithoutResult(status -> entityManager.persist(identity
+          ? new IdentityBrand("Benchmark Brand")
+          : Brand.builder().name("Benchmark Brand").build()));
+    }
+  }
+}
@@ -0,0 +1,37 @@
+package vitor.tinelli.benchmark;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import javax.persistence.Version;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * {@link vitor.tinelli.domain.Brand} as it was mapped before pooled sequences, so
+ * {@link BrandSaveBenchmark} can run the baseline next to it. Only the benchmark context creates
+ * its table.
+ */
+@Data
+@NoArgsConstructor
+@Entity
+@Table(name = "identity_brand")
+public class IdentityBrand {
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @Column(name = "brand_id")
+  private long id;
+
+  @Column(name = "brand_name", nullable = false)
+  private String name;
+
+  @Version
+  private long version;
+
+  public IdentityBrand(String name) {
+    this.name = name;
+  }
+}
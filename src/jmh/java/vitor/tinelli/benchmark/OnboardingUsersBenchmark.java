@@ -0,0 +1,44 @@
+package vitor.tinelli.benchmark;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.GrantedAuthority;
+import vitor.tinelli.domain.OnboardingUsers;
+
+/**
+ * {@link OnboardingUsers#getAuthorities()}, which Spring Security calls several times per request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OnboardingUsersBenchmark {
+
+  @Param({"ROLE_USER", "ROLE_USER,ROLE_ADMIN"})
+  public String authorities;
+
+  private OnboardingUsers user;
+
+  @Setup
+  public void setUp() {
+    user = new OnboardingUsers(1L, "user", "password", authorities);
+  }
+
+  @Benchmark
+  public Collection<? extends GrantedAuthority> getAuthorities() {
+    return user.getAuthorities();
+  }
+}
@@ -0,0 +1,73 @@
+package vitor.tinelli.benchmark;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import vitor.tinelli.dto.ProductSuggestion;
+import vitor.tinelli.suggest.ProductNameIndex;
+
+/**
+ * Autocomplete lookups against {@link ProductNameIndex}, with and without pending updates in the
+ * overlay.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductNameIndexBenchmark {
+
+  private static final String[] WORDS = {"coca", "cola", "zero", "light", "orange", "juice",
+      "water", "sparkling", "lemon", "tea", "coffee", "milk", "chocolate", "bar", "chips"};
+
+  @Param({"1000000"})
+  public int products;
+
+  @Param({"0", "1000"})
+  public int pendingUpdates;
+
+  private ProductNameIndex productNameIndex;
+  private String[] prefixes;
+  private int next;
+
+  @Setup
+  public void setUp() {
+    Random random = new Random(42);
+    productNameIndex = new ProductNameIndex();
+    productNameIndex.rebuild(LongStream.range(0, products)
+        .mapToObj(id -> new ProductSuggestion(id, name(random))));
+    for (int i = 0; i < pendingUpdates; i++) {
+      productNameIndex.put(products + i, name(random));
+    }
+    prefixes = new String[1024];
+    for (int i = 0; i < prefixes.length; i++) {
+      String word = WORDS[random.nextInt(WORDS.length)];
+      prefixes[i] = word.substring(0, 1 + random.nextInt(word.length()));
+    }
+    System.out.println("index memory bytes: " + productNameIndex.memoryFootprintBytes());
+  }
+
+  @Benchmark
+  public List<ProductSuggestion> suggest() {
+    next = (next + 1) & (prefixes.length - 1);
+    return productNameIndex.suggest(prefixes[next], 10);
+  }
+
+  private static String name(Random random) {
+    return WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " "
+        + random.nextInt(1000);
+  }
+}
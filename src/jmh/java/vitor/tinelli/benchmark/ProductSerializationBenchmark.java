@@ -0,0 +1,78 @@
+package vitor.tinelli.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import vitor.tinelli.domain.Brand;
+import vitor.tinelli.domain.Product;
+import vitor.tinelli.domain.ProductGroup;
+import vitor.tinelli.domain.Unit;
+import vitor.tinelli.dto.ProductSummary;
+
+/**
+ * Jackson serialization of what {@code GET /products} and {@code GET /products/summary} write:
+ * full {@link Product} graphs with their brand, unit and group against the flat
+ * {@link ProductSummary} projection. The mapper is built the way Spring Boot builds its own.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductSerializationBenchmark {
+
+  @Param({"1", "1000"})
+  public int products;
+
+  private ObjectWriter productWriter;
+  private ObjectWriter summaryWriter;
+  private List<Product> productGraphs;
+  private List<ProductSummary> summaries;
+
+  @Setup
+  public void setUp() {
+    ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    productWriter = objectMapper.writerFor(objectMapper.getTypeFactory()
+        .constructCollectionType(List.class, Product.class));
+    summaryWriter = objectMapper.writerFor(objectMapper.getTypeFactory()
+        .constructCollectionType(List.class, ProductSummary.class));
+
+    productGraphs = new ArrayList<>(products);
+    summaries = new ArrayList<>(products);
+    for (int i = 0; i < products; i++) {
+      Brand brand = Brand.builder().id(i % 10).name("Brand " + (i % 10)).build();
+      Unit unit = Unit.builder().id((long) (i % 5)).name("Unit " + (i % 5)).build();
+      ProductGroup productGroup = ProductGroup.builder().id((long) (i % 20))
+          .name("Group " + (i % 20)).build();
+      productGraphs.add(new Product(i, "Product " + i, unit, productGroup, brand));
+      summaries.add(new ProductSummary((long) i, "Product " + i, unit.getName(), brand.getName(),
+          productGroup.getName()));
+    }
+  }
+
+  @Benchmark
+  public byte[] productGraph() throws JsonProcessingException {
+    return productWriter.writeValueAsBytes(productGraphs);
+  }
+
+  @Benchmark
+  public byte[] productSummary() throws JsonProcessingException {
+    return summaryWriter.writeValueAsBytes(summaries);
+  }
+}
@@ -0,0 +1,129 @@
+package vitor.tinelli.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import vitor.tinelli.domain.Brand;
+import vitor.tinelli.domain.Product;
+import vitor.tinelli.domain.ProductGroup;
+import vitor.tinelli.domain.Unit;
+import vitor.tinelli.repository.BrandRepository;
+import vitor.tinelli.repository.ProductGroupRepository;
+import vitor.tinelli.repository.ProductRepository;
+import vitor.tinelli.repository.UnitRepository;
+import vitor.tinelli.requests.ProductPostRequestBody;
+import vitor.tinelli.requests.ProductPutRequestBody;
+import vitor.tinelli.service.ProductService;
+
+/**
+ * {@link ProductService} reads and writes against an embedded H2 catalog of {@code products}
+ * rows spread over a few brands, units and groups. The catalog is rebuilt before every iteration
+ * so {@code save} does not make later iterations slower.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductServiceBenchmark {
+
+  private static final int REFERENCES = 10;
+
+  @Param({"1000"})
+  public int products;
+
+  private ConfigurableApplicationContext context;
+  private ProductService productService;
+  private ProductRepository productRepository;
+  private List<Long> productIds;
+  private ProductPostRequestBody productPostRequestBody;
+  private ProductPutRequestBody productPutRequestBody;
+
+  @Setup(Level.Trial)
+  public void startApplication() {
+    context = BenchmarkContext.start();
+    productService = context.getBean(ProductService.class);
+    productRepository = context.getBean(ProductRepository.class);
+  }
+
+  @Setup(Level.Iteration)
+  public void seedCatalog() {
+    productRepository.deleteAllInBatch();
+    BrandRepository brandRepository = context.getBean(BrandRepository.class);
+    UnitRepository unitRepository = context.getBean(UnitRepository.class);
+    ProductGroupRepository productGroupRepository = context.getBean(ProductGroupRepository.class);
+
+    List<Brand> brands = new ArrayList<>();
+    List<Unit> units = new ArrayList<>();
+    List<ProductGroup> productGroups = new ArrayList<>();
+    for (int i = 0; i < REFERENCES; i++) {
+      brands.add(brandRepository.save(Brand.builder().name("Brand " + i).build()));
+      units.add(unitRepository.save(Unit.builder().name("Unit " + i).build()));
+      productGroups.add(productGroupRepository.save(ProductGroup.builder().name("Group " + i).build()));
+    }
+
+    List<Product> catalog = new ArrayList<>(products);
+    for (int i = 0; i < products; i++) {
+      catalog.add(Product.builder()
+          .name("Product " + (i % 100))
+          .brand(brands.get(i % REFERENCES))
+          .unit(units.get(i % REFERENCES))
+          .productGroup(productGroups.get(i % REFERENCES))
+          .build());
+    }
+    productIds = new ArrayList<>(products);
+    productRepository.saveAll(catalog).forEach(product -> productIds.add(product.getId()));
+
+    productPostRequestBody = new ProductPostRequestBody();
+    productPostRequestBody.setName("Benchmark Product");
+    productPostRequestBody.setBrand_id(brands.get(0).getId());
+    productPostRequestBody.setUnit_id(units.get(0).getId());
+    productPostRequestBody.setProductGroup_id(productGroups.get(0).getId());
+
+    productPutRequestBody = new ProductPutRequestBody();
+    productPutRequestBody.setName("Renamed Product");
+    productPutRequestBody.setBrand_id(brands.get(1).getId());
+  }
+
+  @TearDown(Level.Trial)
+  public void stopApplication() {
+    context.close();
+  }
+
+  @Benchmark
+  public List<Product> listAll() {
+    return productService.listAll();
+  }
+
+  @Benchmark
+  public List<Product> findByName() {
+    return productService.findByName("Product 42");
+  }
+
+  @Benchmark
+  public Product save() {
+    return productService.save(productPostRequestBody);
+  }
+
+  @Benchmark
+  public void replace() {
+    productPutRequestBody.setId(productIds.get(ThreadLocalRandom.current().nextInt(productIds.size())));
+    productService.replace(productPutRequestBody);
+  }
+}
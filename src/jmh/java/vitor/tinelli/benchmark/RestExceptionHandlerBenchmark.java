@@ -0,0 +1,67 @@
+package vitor.tinelli.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+import vitor.tinelli.exception.BadRequestException;
+import vitor.tinelli.exception.BadRequestExceptionDetails;
+import vitor.tinelli.exception.ValidationExceptionDetails;
+import vitor.tinelli.handler.RestExceptionHandler;
+import vitor.tinelli.requests.ProductPostRequestBody;
+
+/**
+ * Building the error bodies in {@link RestExceptionHandler}. The exceptions are created once up
+ * front, so stack trace capture is not part of the score.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RestExceptionHandlerBenchmark {
+
+  private RestExceptionHandler restExceptionHandler;
+  private BadRequestException badRequestException;
+  private MethodArgumentNotValidException methodArgumentNotValidException;
+
+  @Setup
+  public void setUp() throws NoSuchMethodException {
+    restExceptionHandler = new RestExceptionHandler();
+    badRequestException = new BadRequestException("Product not found, please verify the provided ID");
+
+    BeanPropertyBindingResult bindingResult =
+        new BeanPropertyBindingResult(new ProductPostRequestBody(), "productPostRequestBody");
+    bindingResult.rejectValue("name", "NotBlank", "The product name can't be empty");
+    bindingResult.rejectValue("brand_id", "NotNull", "The product brand can't be empty");
+    methodArgumentNotValidException = new MethodArgumentNotValidException(new MethodParameter(
+        RestExceptionHandlerBenchmark.class.getDeclaredMethod("target", ProductPostRequestBody.class), 0),
+        bindingResult);
+  }
+
+  @Benchmark
+  public ResponseEntity<BadRequestExceptionDetails> badRequest() {
+    return restExceptionHandler.handlerBadRequestException(badRequestException);
+  }
+
+  @Benchmark
+  public ResponseEntity<ValidationExceptionDetails> validation() {
+    return restExceptionHandler.handlerMethodArgumentNotValidException(methodArgumentNotValidException);
+  }
+
+  @SuppressWarnings("unused")
+  private static void target(ProductPostRequestBody productPostRequestBody) {
+  }
+}
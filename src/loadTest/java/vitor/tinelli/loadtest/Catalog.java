@@ -0,0 +1,106 @@
+package vitor.tinelli.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Function;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.jpa.repository.JpaRepository;
+import vitor.tinelli.domain.Brand;
+import vitor.tinelli.domain.OnboardingUsers;
+import vitor.tinelli.domain.Product;
+import vitor.tinelli.domain.ProductGroup;
+import vitor.tinelli.domain.Unit;
+import vitor.tinelli.repository.BrandRepository;
+import vitor.tinelli.repository.OnboardingUsersRepository;
+import vitor.tinelli.repository.ProductGroupRepository;
+import vitor.tinelli.repository.ProductRepository;
+import vitor.tinelli.repository.UnitRepository;
+
+/**
+ * Ids of the seeded rows, which reads and updates pick from, and of the rows created during the
+ * run, which are the only ones deleted so seeded references never disappear under a product.
+ */
+final class Catalog {
+
+  static final String USERNAME = "loadtest";
+  static final String PASSWORD = "loadtest";
+  static final int DISTINCT_PRODUCT_NAMES = 1000;
+
+  private static final int CHUNK_SIZE = 1000;
+
+  final long[] productIds;
+  final long[] brandIds;
+  final long[] unitIds;
+  final long[] productGroupIds;
+
+  final Queue<Long> createdProducts = new ConcurrentLinkedQueue<>();
+  final Queue<Long> createdBrands = new ConcurrentLinkedQueue<>();
+  final Queue<Long> createdUnits = new ConcurrentLinkedQueue<>();
+  final Queue<Long> createdProductGroups = new ConcurrentLinkedQueue<>();
+
+  private Catalog(long[] productIds, long[] brandIds, long[] unitIds, long[] productGroupIds) {
+    this.productIds = productIds;
+    this.brandIds = brandIds;
+    this.unitIds = unitIds;
+    this.productGroupIds = productGroupIds;
+  }
+
+  static Catalog seed(ConfigurableApplicationContext context, LoadTestSettings settings) {
+    context.getBean(OnboardingUsersRepository.class).save(OnboardingUsers.builder()
+        .username(USERNAME)
+        .password(PASSWORD)
+        .authorities("ROLE_USER,ROLE_ADMIN")
+        .build());
+
+    List<Brand> brands = saveInChunks(context.getBean(BrandRepository.class), settings.references,
+        i -> Brand.builder().name(brandName(i)).build());
+    List<Unit> units = saveInChunks(context.getBean(UnitRepository.class), settings.references,
+        i -> Unit.builder().name(unitName(i)).build());
+    List<ProductGroup> productGroups = saveInChunks(context.getBean(ProductGroupRepository.class),
+        settings.references, i -> ProductGroup.builder().name(productGroupName(i)).build());
+    List<Product> products = saveInChunks(context.getBean(ProductRepository.class), settings.products,
+        i -> Product.builder()
+            .name(productName(i))
+            .brand(brands.get(i % brands.size()))
+            .unit(units.get(i % units.size()))
+            .productGroup(productGroups.get(i % productGroups.size()))
+            .build());
+
+    return new Catalog(
+        products.stream().mapToLong(Product::getId).toArray(),
+        brands.stream().mapToLong(Brand::getId).toArray(),
+        units.stream().mapToLong(Unit::getId).toArray(),
+        productGroups.stream().mapToLong(ProductGroup::getId).toArray());
+  }
+
+  static String productName(int index) {
+    return "Product " + (index % DISTINCT_PRODUCT_NAMES);
+  }
+
+  static String brandName(int index) {
+    return "Brand " + index;
+  }
+
+  static String unitName(int index) {
+    return "Unit " + index;
+  }
+
+  static String productGroupName(int index) {
+    return "Group " + index;
+  }
+
+  private static <T> List<T> saveInChunks(JpaRepository<T, Long> repository, int count,
+      Function<Integer, T> factory) {
+    List<T> saved = new ArrayList<>(count);
+    for (int start = 0; start < count; start += CHUNK_SIZE) {
+      List<T> chunk = new ArrayList<>(CHUNK_SIZE);
+      for (int i = start; i < Math.min(count, start + CHUNK_SIZE); i++) {
+        chunk.add(factory.apply(i));
+      }
+      saved.addAll(repository.saveAll(chunk));
+    }
+    return saved;
+  }
+}
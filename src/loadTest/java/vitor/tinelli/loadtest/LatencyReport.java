@@ -0,0 +1,159 @@
+package vitor.tinelli.loadtest;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Per-endpoint HDR latency recorders. Recording is lock-free; {@link #reset()} drops what was
+ * recorded during warmup and {@link #snapshot} collects the measured interval.
+ */
+final class LatencyReport {
+
+  static final String ALL = "ALL";
+
+  private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+  private final Map<String, Recorder> recorders = new LinkedHashMap<>();
+  private final Map<String, LongAdder> errors = new LinkedHashMap<>();
+
+  LatencyReport(List<Operation> operations) {
+    for (Operation operation : operations) {
+      recorders.put(operation.name, new Recorder(3));
+      errors.put(operation.name, new LongAdder());
+    }
+  }
+
+  void record(Operation operation, long latencyNanos, boolean success) {
+    recorders.get(operation.name).recordValue(TimeUnit.NANOSECONDS.toMicros(latencyNanos));
+    if (!success) {
+      errors.get(operation.name).increment();
+    }
+  }
+
+  void reset() {
+    recorders.values().forEach(Recorder::reset);
+    errors.values().forEach(LongAdder::reset);
+  }
+
+  /**
+   * @return one result per endpoint followed by {@link #ALL}, which merges every endpoint
+   */
+  List<EndpointResult> snapshot(double seconds) {
+    List<EndpointResult> results = new ArrayList<>();
+    Histogram all = new Histogram(3);
+    long allErrors = 0;
+    for (Map.Entry<String, Recorder> entry : recorders.entrySet()) {
+      Histogram histogram = entry.getValue().getIntervalHistogram();
+      long endpointErrors = errors.get(entry.getKey()).sum();
+      all.add(histogram);
+      allErrors += endpointErrors;
+      results.add(result(entry.getKey(), histogram, endpointErrors, seconds));
+    }
+    results.add(result(ALL, all, allErrors, seconds));
+    return results;
+  }
+
+  private static EndpointResult result(String name, Histogram histogram, long errors,
+      double seconds) {
+    Map<String, Double> percentiles = new LinkedHashMap<>();
+    for (double percentile : PERCENTILES) {
+      percentiles.put(percentileKey(percentile), histogram.getValueAtPercentile(percentile) / 1000.0);
+    }
+    percentiles.put("max", histogram.getMaxValue() / 1000.0);
+    return new EndpointResult(name, histogram.getTotalCount(), errors,
+        histogram.getTotalCount() / seconds, percentiles);
+  }
+
+  static String percentileKey(double percentile) {
+    return "p" + BigDecimal.valueOf(percentile).stripTrailingZeros().toPlainString();
+  }
+
+  static void print(List<EndpointResult> results) {
+    System.out.printf("%-36s %9s %7s %9s %9s %9s %9s %9s %9s%n",
+        "endpoint", "requests", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+    for (EndpointResult result : results) {
+      System.out.printf("%-36s %9d %7d %9.1f", result.endpoint, result.requests, result.errors,
+          result.throughput);
+      result.latencyMillis.values().forEach(value -> System.out.printf(" %9.2f", value));
+      System.out.println();
+    }
+  }
+
+  static void write(LoadTestSettings settings, List<EndpointResult> results) throws IOException {
+    Map<String, Object> document = header(settings);
+    document.put("threads", settings.threads);
+    document.put("rate", settings.rate);
+    document.put("endpoints", results);
+    write(settings, document);
+  }
+
+  static void writeRamp(LoadTestSettings settings, List<StepResult> steps,
+      int maxSustainedConcurrency) throws IOException {
+    Map<String, Object> document = header(settings);
+    document.put("sloP99Millis", settings.sloP99Millis);
+    document.put("maxErrorRate", settings.maxErrorRate);
+    document.put("maxSustainedConcurrency", maxSustainedConcurrency);
+    document.put("steps", steps);
+    write(settings, document);
+  }
+
+  private static Map<String, Object> header(LoadTestSettings settings) {
+    Map<String, Object> document = new LinkedHashMap<>();
+    document.put("javaVersion", Runtime.version().toString());
+    document.put("auth", settings.auth);
+    document.put("resources", settings.resources);
+    document.put("products", settings.products);
+    document.put("references", settings.references);
+    document.put("durationSeconds", settings.durationSeconds);
+    return document;
+  }
+
+  private static void write(LoadTestSettings settings, Map<String, Object> document)
+      throws IOException {
+    Files.createDirectories(settings.resultsFile.toAbsolutePath().getParent());
+    new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT)
+        .writeValue(settings.resultsFile.toFile(), document);
+  }
+
+  static final class EndpointResult {
+
+    public final String endpoint;
+    public final long requests;
+    public final long errors;
+    public final double throughput;
+    public final Map<String, Double> latencyMillis;
+
+    EndpointResult(String endpoint, long requests, long errors, double throughput,
+        Map<String, Double> latencyMillis) {
+      this.endpoint = endpoint;
+      this.requests = requests;
+      this.errors = errors;
+      this.throughput = throughput;
+      this.latencyMillis = latencyMillis;
+    }
+  }
+
+  static final class StepResult {
+
+    public final int concurrency;
+    public final boolean sustained;
+    public final List<EndpointResult> endpoints;
+
+    StepResult(int concurrency, boolean sustained, List<EndpointResult> endpoints) {
+      this.concurrency = concurrency;
+      this.sustained = sustained;
+      this.endpoints = endpoints;
+    }
+  }
+}
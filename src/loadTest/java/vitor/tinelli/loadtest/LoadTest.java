@@ -0,0 +1,206 @@
+package vitor.tinelli.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.containers.PostgreSQLContainer;
+import vitor.tinelli.OnboardingApp;
+
+/**
+ * Boots the application on a random port against Postgres, seeds a catalog and runs the
+ * {@link Workload} mix from {@code threads} workers, or from each level of
+ * {@code concurrencySteps} in turn. After warmup the per-endpoint recorders are reset and the
+ * measured interval is printed and written as JSON.
+ */
+public final class LoadTest {
+
+  private LoadTest() {
+  }
+
+  public static void main(String[] args) throws Exception {
+    LoadTestSettings settings = new LoadTestSettings();
+    PostgreSQLContainer<?> postgres = null;
+    String jdbcUrl = settings.jdbcUrl;
+    String username = settings.username;
+    String password = settings.password;
+    if (jdbcUrl.isEmpty()) {
+      postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+      postgres.start();
+      jdbcUrl = postgres.getJdbcUrl();
+      username = postgres.getUsername();
+      password = postgres.getPassword();
+    }
+
+    try (ConfigurableApplicationContext context = new SpringApplicationBuilder(OnboardingApp.class)
+        .web(WebApplicationType.SERVLET)
+        .properties(
+            "server.port=0",
+            "spring.datasource.url=" + jdbcUrl,
+            "spring.datasource.username=" + username,
+            "spring.datasource.password=" + password,
+            "spring.jpa.show-sql=false",
+            "security.token.enabled=" + "token".equals(settings.auth),
+            "security.token.secret=loadtest-secret-loadtest-secret-loadtest",
+            "security.token.ttl=24h",
+            "logging.level.root=WARN")
+        .run(args)) {
+      Catalog catalog = Catalog.seed(context, settings);
+      URI baseUri = URI.create("http://localhost:"
+          + ((WebServerApplicationContext) context).getWebServer().getPort());
+      HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+      Workload workload = new Workload(baseUri, authorization(settings, httpClient, baseUri), catalog,
+          settings.resources);
+      LatencyReport report = new LatencyReport(workload.operations());
+      if (settings.concurrencySteps.length > 0) {
+        ramp(settings, httpClient, workload, report);
+      } else {
+        List<LatencyReport.EndpointResult> results = run(settings, httpClient, workload, report,
+            settings.threads, settings.rate);
+        LatencyReport.print(results);
+        LatencyReport.write(settings, results);
+        System.out.println("Results written to " + settings.resultsFile.toAbsolutePath());
+      }
+    } finally {
+      if (postgres != null) {
+        postgres.stop();
+      }
+    }
+  }
+
+  /**
+   * Runs the levels of {@code loadtest.concurrencySteps} one after the other and reports the
+   * highest one whose merged p99 and error rate stay within the limits. Running it on a
+   * {@code -Pjava21} build and on the default build compares virtual with platform threads.
+   */
+  private static void ramp(LoadTestSettings settings, HttpClient httpClient, Workload workload,
+      LatencyReport report) throws Exception {
+    List<LatencyReport.StepResult> steps = new ArrayList<>();
+    int maxSustained = 0;
+    for (int concurrency : settings.concurrencySteps) {
+      System.out.printf("Concurrency %d%n", concurrency);
+      List<LatencyReport.EndpointResult> results = run(settings, httpClient, workload, report,
+          concurrency, 0);
+      LatencyReport.EndpointResult all = results.get(results.size() - 1);
+      double errorRate = all.requests == 0 ? 1 : (double) all.errors / all.requests;
+      boolean sustained = errorRate <= settings.maxErrorRate
+          && all.latencyMillis.get(LatencyReport.percentileKey(99)) <= settings.sloP99Millis;
+      steps.add(new LatencyReport.StepResult(concurrency, sustained, results));
+      if (sustained) {
+        maxSustained = Math.max(maxSustained, concurrency);
+      }
+    }
+
+    System.out.printf("%n%-12s %10s %9s %9s %10s%n", "concurrency", "req/s", "p99 ms", "errors",
+        "sustained");
+    for (LatencyReport.StepResult step : steps) {
+      LatencyReport.EndpointResult all = step.endpoints.get(step.endpoints.size() - 1);
+      System.out.printf("%-12d %10.1f %9.2f %9d %10s%n", step.concurrency, all.throughput,
+          all.latencyMillis.get(LatencyReport.percentileKey(99)), all.errors, step.sustained);
+    }
+    System.out.printf("Max sustained concurrency on Java %d: %d (p99 <= %.0f ms, errors <= %.1f%%)%n",
+        Runtime.version().feature(), maxSustained, settings.sloP99Millis,
+        settings.maxErrorRate * 100);
+    LatencyReport.writeRamp(settings, steps, maxSustained);
+    System.out.println("Results written to " + settings.resultsFile.toAbsolutePath());
+  }
+
+  private static List<LatencyReport.EndpointResult> run(LoadTestSettings settings,
+      HttpClient httpClient, Workload workload, LatencyReport report, int threads, int rate)
+      throws Exception {
+    long start = System.nanoTime();
+    long measureFrom = start + TimeUnit.SECONDS.toNanos(settings.warmupSeconds);
+    long end = measureFrom + TimeUnit.SECONDS.toNanos(settings.durationSeconds);
+    long interval = rate > 0 ? TimeUnit.SECONDS.toNanos(threads) / rate : 0;
+
+    ExecutorService workers = Executors.newFixedThreadPool(threads);
+    List<Future<?>> running = new ArrayList<>();
+    for (int thread = 0; thread < threads; thread++) {
+      long firstSlot = start + interval * thread / threads;
+      running.add(workers.submit(() -> work(httpClient, workload, report, firstSlot, interval, end)));
+    }
+
+    LockSupport.parkNanos(measureFrom - System.nanoTime());
+    report.reset();
+    System.out.printf("Warmup done, measuring for %d s%n", settings.durationSeconds);
+    LockSupport.parkNanos(end - System.nanoTime());
+    List<LatencyReport.EndpointResult> results = report.snapshot(settings.durationSeconds);
+
+    for (Future<?> worker : running) {
+      worker.get();
+    }
+    workers.shutdown();
+    return results;
+  }
+
+  private static Void work(HttpClient httpClient, Workload workload, LatencyReport report,
+      long firstSlot, long interval, long end) throws Exception {
+    Random random = new Random();
+    long slot = firstSlot;
+    while (System.nanoTime() < end) {
+      Operation operation = workload.next(random);
+      HttpRequest request = operation.request(random);
+      if (request == null) {
+        continue;
+      }
+
+      long intendedStart;
+      if (interval > 0) {
+        // Open loop: latency counts from when the request should have gone out.
+        intendedStart = slot;
+        slot += interval;
+        LockSupport.parkNanos(intendedStart - System.nanoTime());
+      } else {
+        intendedStart = System.nanoTime();
+      }
+
+      boolean success;
+      try {
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        success = response.statusCode() / 100 == 2;
+        if (success) {
+          operation.succeeded(response.body());
+        }
+      } catch (IOException e) {
+        success = false;
+      }
+      report.record(operation, System.nanoTime() - intendedStart, success);
+    }
+    return null;
+  }
+
+  private static String authorization(LoadTestSettings settings, HttpClient httpClient, URI baseUri)
+      throws Exception {
+    String basic = "Basic " + Base64.getEncoder().encodeToString(
+        (Catalog.USERNAME + ":" + Catalog.PASSWORD).getBytes(StandardCharsets.UTF_8));
+    if (!"token".equals(settings.auth)) {
+      return basic;
+    }
+    HttpResponse<String> response = httpClient.send(HttpRequest.newBuilder(baseUri.resolve("/auth/token"))
+            .header("Authorization", basic)
+            .POST(HttpRequest.BodyPublishers.noBody())
+            .build(),
+        HttpResponse.BodyHandlers.ofString());
+    if (response.statusCode() != 200) {
+      throw new IllegalStateException("Could not get a token: " + response.statusCode());
+    }
+    return "Bearer " + new ObjectMapper().readTree(response.body()).get("token").asText();
+  }
+}
@@ -0,0 +1,59 @@
+package vitor.tinelli.loadtest;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Knobs of a load test run, read from {@code -Ploadtest.*} (system properties).
+ */
+final class LoadTestSettings {
+
+  /** Postgres to run against; empty starts a throwaway Testcontainers instance. */
+  final String jdbcUrl = System.getProperty("loadtest.jdbcUrl", "");
+  final String username = System.getProperty("loadtest.username", "postgres");
+  final String password = System.getProperty("loadtest.password", "postgres");
+
+  /** Catalog size; brands, units and groups are each seeded with {@code references} rows. */
+  final int products = Integer.getInteger("loadtest.products", 10_000);
+  final int references = Integer.getInteger("loadtest.references", 100);
+
+  final int threads = Integer.getInteger("loadtest.threads", 16);
+  final int warmupSeconds = Integer.getInteger("loadtest.warmupSeconds", 30);
+  final int durationSeconds = Integer.getInteger("loadtest.durationSeconds", 60);
+
+  /**
+   * Target requests per second over all threads. Zero runs closed-loop (every thread sends as fast
+   * as responses come back); a positive rate schedules requests up front and measures latency from
+   * the scheduled time, so a stall is not hidden by the requests it delayed.
+   */
+  final int rate = Integer.getInteger("loadtest.rate", 0);
+
+  /**
+   * Comma separated concurrency levels, e.g. {@code 50,100,200,400,800}. When set, the run is a
+   * closed-loop ramp: every level gets its own warmup and measured interval, and the highest level
+   * that still meets {@code sloP99Millis} and {@code maxErrorRate} is reported as the maximum
+   * sustained concurrency. Replaces {@code threads} and ignores {@code rate}.
+   */
+  final int[] concurrencySteps = Arrays.stream(System.getProperty("loadtest.concurrencySteps", "")
+          .split(","))
+      .map(String::trim)
+      .filter(step -> !step.isEmpty())
+      .mapToInt(Integer::parseInt)
+      .toArray();
+  final double sloP99Millis = Double.parseDouble(System.getProperty("loadtest.sloP99Millis", "500"));
+  final double maxErrorRate = Double.parseDouble(System.getProperty("loadtest.maxErrorRate", "0.01"));
+
+  /**
+   * Resources in the mix: {@code products}, {@code brands}, {@code units},
+   * {@code product/groups}.
+   */
+  final List<String> resources = List.of(System.getProperty("loadtest.resources",
+      "products,brands,units,product/groups").split(","));
+
+  /** {@code basic} sends credentials on every request, {@code token} uses a bearer token. */
+  final String auth = System.getProperty("loadtest.auth", "basic");
+
+  final Path resultsFile = Path.of(System.getProperty("loadtest.resultsFile",
+      "build/results/loadtest/results.json"));
+}
@@ -0,0 +1,42 @@
+package vitor.tinelli.loadtest;
+
+import java.net.http.HttpRequest;
+import java.util.Random;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * One endpoint of the mix, for example {@code GET /products/{id}}, and how often it is picked.
+ */
+final class Operation {
+
+  final String name;
+  final int weight;
+  private final Function<Random, HttpRequest> request;
+  private final Consumer<String> onSuccess;
+
+  Operation(String name, int weight, Function<Random, HttpRequest> request,
+      Consumer<String> onSuccess) {
+    this.name = name;
+    this.weight = weight;
+    this.request = request;
+    this.onSuccess = onSuccess;
+  }
+
+  Operation(String name, int weight, Function<Random, HttpRequest> request) {
+    this(name, weight, request, body -> {
+    });
+  }
+
+  /**
+   * @return the request to send, or {@code null} when the operation has nothing to act on yet
+   * (a delete before anything was created)
+   */
+  HttpRequest request(Random random) {
+    return request.apply(random);
+  }
+
+  void succeeded(String body) {
+    onSuccess.accept(body);
+  }
+}
@@ -0,0 +1,122 @@
+package vitor.tinelli.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Random;
+import java.util.function.IntFunction;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * The request mix. Every controller gets the same operations: list, find by name, get by id,
+ * create, put and delete. Lists are weighted low because they return the whole table.
+ */
+final class Workload {
+
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+  private static final String CSRF_TOKEN = "loadtest";
+
+  private final URI baseUri;
+  private final String authorization;
+  private final List<Operation> operations = new ArrayList<>();
+  private final List<String> resources;
+  private final int totalWeight;
+
+  Workload(URI baseUri, String authorization, Catalog catalog, List<String> resources) {
+    this.baseUri = baseUri;
+    this.authorization = authorization;
+    this.resources = resources;
+
+    addResource("products", catalog.productIds, catalog.createdProducts,
+        Catalog::productName,
+        (random, name) -> "{\"name\":\"" + name + "\",\"brand_id\":" + pick(random, catalog.brandIds)
+            + ",\"unit_id\":" + pick(random, catalog.unitIds)
+            + ",\"productGroup_id\":" + pick(random, catalog.productGroupIds) + "}");
+    addResource("brands", catalog.brandIds, catalog.createdBrands, Catalog::brandName,
+        (random, name) -> "{\"name\":\"" + name + "\"}");
+    addResource("units", catalog.unitIds, catalog.createdUnits, Catalog::unitName,
+        (random, name) -> "{\"name\":\"" + name + "\"}");
+    addResource("product/groups", catalog.productGroupIds, catalog.createdProductGroups,
+        Catalog::productGroupName, (random, name) -> "{\"name\":\"" + name + "\"}");
+
+    totalWeight = operations.stream().mapToInt(operation -> operation.weight).sum();
+  }
+
+  List<Operation> operations() {
+    return operations;
+  }
+
+  Operation next(Random random) {
+    int ticket = random.nextInt(totalWeight);
+    for (Operation operation : operations) {
+      ticket -= operation.weight;
+      if (ticket < 0) {
+        return operation;
+      }
+    }
+    throw new IllegalStateException("weights changed while running");
+  }
+
+  private HttpRequest.Builder newRequest(String path) {
+    // Any value works for the cookie CSRF repository as long as cookie and header agree.
+    return HttpRequest.newBuilder(baseUri.resolve(path))
+        .header("Authorization", authorization)
+        .header("Cookie", "XSRF-TOKEN=" + CSRF_TOKEN)
+        .header("X-XSRF-TOKEN", CSRF_TOKEN);
+  }
+
+  private void addResource(String resource, long[] seededIds, Queue<Long> createdIds,
+      IntFunction<String> name, BodyFactory body) {
+    if (!resources.contains(resource)) {
+      return;
+    }
+    String path = "/" + resource;
+    int names = Math.min(seededIds.length, Catalog.DISTINCT_PRODUCT_NAMES);
+
+    operations.add(new Operation("GET " + path, 1,
+        random -> newRequest(path).GET().build()));
+    operations.add(new Operation("GET " + path + "/find", 10,
+        random -> newRequest(path + "/find?name="
+            + name.apply(random.nextInt(names)).replace(" ", "%20")).GET().build()));
+    operations.add(new Operation("GET " + path + "/{id}", 20,
+        random -> newRequest(path + "/" + pick(random, seededIds)).GET().build()));
+    operations.add(new Operation("POST " + path, 4,
+        random -> newRequest(path).header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(body.create(random, "LoadTest " + random.nextInt())))
+            .build(),
+        response -> createdIds.add(readId(response))));
+    operations.add(new Operation("PUT " + path, 4, random -> {
+      // Keeps the seeded name, so find-by-name keeps hitting rows.
+      int index = random.nextInt(seededIds.length);
+      String json = body.create(random, name.apply(index));
+      return newRequest(path).header("Content-Type", "application/json")
+          .PUT(HttpRequest.BodyPublishers.ofString(
+              "{\"id\":" + seededIds[index] + "," + json.substring(1)))
+          .build();
+    }));
+    operations.add(new Operation("DELETE " + path + "/admin/{id}", 3, random -> {
+      Long id = createdIds.poll();
+      return id == null ? null : newRequest(path + "/admin/" + id).DELETE().build();
+    }));
+  }
+
+  private static long pick(Random random, long[] ids) {
+    return ids[random.nextInt(ids.length)];
+  }
+
+  private static long readId(String body) {
+    try {
+      return OBJECT_MAPPER.readTree(body).get("id").asLong();
+    } catch (Exception e) {
+      throw new IllegalStateException("Create returned no id: " + body, e);
+    }
+  }
+
+  @FunctionalInterface
+  interface BodyFactory {
+
+    String create(Random random, String name);
+  }
+}
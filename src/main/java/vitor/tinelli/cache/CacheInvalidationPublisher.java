@@ -0,0 +1,78 @@
+package vitor.tinelli.cache;
+
+import javax.annotation.PreDestroy;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import vitor.tinelli.config.CacheInvalidationProperties;
+
+/**
+ * Tells every node that reference data changed: a NOTIFY for the listeners, and an epoch bump so
+ * nodes that missed the notification notice on their next epoch check.
+ *
+ * <p>Both go out once the caller's transaction has committed, in one statement sent from a
+ * publisher thread of its own. The writer neither waits for it nor needs a second connection
+ * while its own is still bound, and the epoch row is locked for that statement only. Should the
+ * node die in between, the other nodes keep the old entries until they expire.
+ */
+@Slf4j
+@Component
+public class CacheInvalidationPublisher {
+
+  // Fixed because the onboarding_users trigger (V5) notifies it too and cannot read a property.
+  public static final String CHANNEL = "reference_data_invalidation";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final CacheInvalidationProperties cacheInvalidationProperties;
+  private final ExecutorService sender;
+
+  public CacheInvalidationPublisher(JdbcTemplate jdbcTemplate,
+      CacheInvalidationProperties cacheInvalidationProperties) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.cacheInvalidationProperties = cacheInvalidationProperties;
+    CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("cache-invalidation-");
+    threadFactory.setDaemon(true);
+    this.sender = Executors.newSingleThreadExecutor(threadFactory);
+  }
+
+  @PreDestroy
+  public void stop() {
+    sender.shutdown();
+  }
+
+  public void publish(Collection<String> cacheNames) {
+    if (!cacheInvalidationProperties.isEnabled()) {
+      return;
+    }
+    List<String> names = List.copyOf(cacheNames);
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      sender.execute(() -> send(names));
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        sender.execute(() -> send(names));
+      }
+    });
+  }
+
+  // Too late to roll back the write; the entries on other nodes still expire on their own.
+  private void send(List<String> cacheNames) {
+    try {
+      jdbcTemplate.queryForRowSet(
+          "WITH bumped AS (UPDATE cache_epoch SET epoch = epoch + 1 WHERE id = 1 RETURNING epoch)"
+              + " SELECT pg_notify(?, ?) FROM bumped",
+          CHANNEL, String.join(",", cacheNames));
+    } catch (RuntimeException e) {
+      log.warn("Publishing the invalidation of {} failed", cacheNames, e);
+    }
+  }
+}
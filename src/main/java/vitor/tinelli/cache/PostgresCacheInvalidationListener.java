@@ -0,0 +1,133 @@
+package vitor.tinelli.cache;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Collection;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import vitor.tinelli.config.CacheConfig;
+import vitor.tinelli.config.CacheInvalidationProperties;
+
+/**
+ * Evicts local reference-data and user caches when a change is published, either by another node
+ * or by the trigger on {@code onboarding_users}.
+ *
+ * <p>Notifications arrive on a dedicated connection opened outside the pool, so listening never
+ * takes a connection away from request handling. Whenever that connection is (re)established
+ * everything is evicted, because notifications sent while disconnected are lost. The epoch check
+ * is the backstop for anything else that slips through.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PostgresCacheInvalidationListener implements SmartLifecycle {
+
+  private static final int POLL_TIMEOUT_MS = 500;
+
+  private final CacheInvalidationProperties cacheInvalidationProperties;
+  private final DataSourceProperties dataSourceProperties;
+  private final CacheManager cacheManager;
+  private final JdbcTemplate jdbcTemplate;
+
+  private volatile boolean running;
+  private volatile long lastSeenEpoch = -1;
+  private Thread listenerThread;
+
+  @Override
+  public void start() {
+    if (!cacheInvalidationProperties.isEnabled()) {
+      return;
+    }
+    running = true;
+    listenerThread = new Thread(this::listen, "cache-invalidation-listener");
+    listenerThread.setDaemon(true);
+    listenerThread.start();
+  }
+
+  @Override
+  public void stop() {
+    running = false;
+    if (listenerThread != null) {
+      listenerThread.interrupt();
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  @Scheduled(fixedDelayString = "${cache.invalidation.epoch-check-interval-ms:5000}")
+  public void checkEpoch() {
+    if (!cacheInvalidationProperties.isEnabled()) {
+      return;
+    }
+    Long epoch = jdbcTemplate.queryForObject("SELECT epoch FROM cache_epoch WHERE id = 1", Long.class);
+    if (epoch != null && epoch != lastSeenEpoch) {
+      if (lastSeenEpoch != -1) {
+        evict(CacheConfig.INVALIDATED_CACHES);
+      }
+      lastSeenEpoch = epoch;
+    }
+  }
+
+  private void listen() {
+    while (running) {
+      try (Connection connection = DriverManager.getConnection(
+          dataSourceProperties.determineUrl(),
+          dataSourceProperties.determineUsername(),
+          dataSourceProperties.determinePassword())) {
+        try (Statement statement = connection.createStatement()) {
+          statement.execute("LISTEN " + CacheInvalidationPublisher.CHANNEL);
+        }
+        evict(CacheConfig.INVALIDATED_CACHES);
+
+        PGConnection pgConnection = connection.unwrap(PGConnection.class);
+        while (running) {
+          PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MS);
+          if (notifications != null) {
+            for (PGNotification notification : notifications) {
+              evict(Arrays.asList(notification.getParameter().split(",")));
+            }
+          }
+        }
+      } catch (SQLException | RuntimeException e) {
+        if (running) {
+          log.warn("Cache invalidation channel lost, reconnecting", e);
+          evict(CacheConfig.INVALIDATED_CACHES);
+          pause();
+        }
+      }
+    }
+  }
+
+  private void evict(Collection<String> cacheNames) {
+    for (String cacheName : cacheNames) {
+      Cache cache = cacheManager.getCache(cacheName);
+      if (cache != null) {
+        cache.clear();
+      }
+    }
+  }
+
+  private void pause() {
+    try {
+      Thread.sleep(cacheInvalidationProperties.getReconnectDelayMs());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      running = false;
+    }
+  }
+}
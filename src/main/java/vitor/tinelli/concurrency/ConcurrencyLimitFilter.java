@@ -0,0 +1,77 @@
+package vitor.tinelli.concurrency;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Caps how many requests run at once. On platform threads Tomcat's pool does this implicitly; on
+ * virtual threads nothing does. Without a cap every request would reach the connection pool and
+ * queue on its 30 s connection timeout, so the bottleneck only moves and gets slower to report.
+ * Excess requests wait on a fair semaphore, which is cheap for a virtual thread. Once
+ * {@code acquireTimeout} passes they are answered with 503 and Retry-After.
+ *
+ * <p>Publishes {@code http.server.requests.limit.available} and
+ * {@code http.server.requests.rejected}.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+  private final Semaphore permits;
+  private final long acquireTimeoutNanos;
+  private final List<String> excludedPaths;
+  private final AntPathMatcher pathMatcher = new AntPathMatcher();
+  private final Counter rejected;
+
+  public ConcurrencyLimitFilter(int maxConcurrentRequests, long acquireTimeoutNanos,
+      List<String> excludedPaths, MeterRegistry meterRegistry) {
+    this.permits = new Semaphore(maxConcurrentRequests, true);
+    this.acquireTimeoutNanos = acquireTimeoutNanos;
+    this.excludedPaths = excludedPaths;
+    this.rejected = Counter.builder("http.server.requests.rejected")
+        .description("Requests refused because the concurrency limit was reached")
+        .register(meterRegistry);
+    Gauge.builder("http.server.requests.limit.available", permits, Semaphore::availablePermits)
+        .description("Free slots under the request concurrency limit")
+        .register(meterRegistry);
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    String path = request.getRequestURI().substring(request.getContextPath().length());
+    return excludedPaths.stream().anyMatch(pattern -> pathMatcher.match(pattern, path));
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+      FilterChain filterChain) throws ServletException, IOException {
+    boolean acquired;
+    try {
+      acquired = permits.tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      acquired = false;
+    }
+    if (!acquired) {
+      rejected.increment();
+      response.setHeader("Retry-After", "1");
+      response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Too many concurrent requests");
+      return;
+    }
+    try {
+      filterChain.doFilter(request, response);
+    } finally {
+      permits.release();
+    }
+  }
+}
@@ -0,0 +1,42 @@
+package vitor.tinelli.concurrency;
+
+import vitor.tinelli.exception.BadRequestException;
+
+/**
+ * Reads the version a PUT is based on from its {@code If-Match} header. Only the strong ETags
+ * handed out by the GET endpoints are understood: {@code "3"} for brands, units and product
+ * groups, and {@code "3.1.0.2"} for products, whose first number is the product's own version.
+ */
+public final class IfMatch {
+
+  private IfMatch() {
+  }
+
+  /**
+   * @return the version in {@code ifMatch}, or {@code bodyVersion} when the header is absent or
+   * {@code *}
+   */
+  public static Long version(String ifMatch, Long bodyVersion) {
+    if (ifMatch == null || ifMatch.isBlank() || ifMatch.strip().equals("*")) {
+      return bodyVersion;
+    }
+    long version = parse(ifMatch.strip());
+    if (bodyVersion != null && bodyVersion != version) {
+      throw new BadRequestException("If-Match and the version field name different versions");
+    }
+    return version;
+  }
+
+  private static long parse(String entityTag) {
+    if (entityTag.length() < 2 || !entityTag.startsWith("\"") || !entityTag.endsWith("\"")) {
+      throw new BadRequestException("If-Match must be a single strong ETag");
+    }
+    String value = entityTag.substring(1, entityTag.length() - 1);
+    int dot = value.indexOf('.');
+    try {
+      return Long.parseLong(dot < 0 ? value : value.substring(0, dot));
+    } catch (NumberFormatException e) {
+      throw new BadRequestException("If-Match must be a single strong ETag");
+    }
+  }
+}
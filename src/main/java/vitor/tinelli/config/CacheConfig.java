@@ -0,0 +1,61 @@
+package vitor.tinelli.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.util.List;
+import org.springframework.boot.autoconfigure.cache.CacheManagerCustomizer;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Caches are Caffeine instances configured by {@code spring.cache.*}; every name used below must
+ * also be listed in {@code spring.cache.cache-names} so its hit/miss metrics are registered. The
+ * {@link #USERS} cache is the exception, it is registered with its own size and TTL below.
+ *
+ * <p>The caching advice wraps the transactional advice, so evictions run after the write has
+ * committed and a concurrent read cannot put the old row back into the cache.
+ */
+@Configuration
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 1)
+@EnableScheduling
+public class CacheConfig {
+
+  public static final String BRANDS = "brands";
+  public static final String BRAND_LIST = "brandList";
+  public static final String BRANDS_BY_NAME = "brandsByName";
+
+  public static final String UNITS = "units";
+  public static final String UNIT_LIST = "unitList";
+  public static final String UNITS_BY_NAME = "unitsByName";
+
+  public static final String PRODUCT_GROUPS = "productGroups";
+  public static final String PRODUCT_GROUP_LIST = "productGroupList";
+  public static final String PRODUCT_GROUPS_BY_NAME = "productGroupsByName";
+
+  public static final String USERS = "users";
+
+  public static final List<String> BRAND_CACHES = List.of(BRANDS, BRAND_LIST, BRANDS_BY_NAME);
+  public static final List<String> UNIT_CACHES = List.of(UNITS, UNIT_LIST, UNITS_BY_NAME);
+  public static final List<String> PRODUCT_GROUP_CACHES =
+      List.of(PRODUCT_GROUPS, PRODUCT_GROUP_LIST, PRODUCT_GROUPS_BY_NAME);
+  public static final List<String> INVALIDATED_CACHES = List.of(
+      BRANDS, BRAND_LIST, BRANDS_BY_NAME,
+      UNITS, UNIT_LIST, UNITS_BY_NAME,
+      PRODUCT_GROUPS, PRODUCT_GROUP_LIST, PRODUCT_GROUPS_BY_NAME,
+      USERS);
+
+  // Static and free of dependencies on other configurations: the entity manager factory depends
+  // on the cache manager, so anything reaching a repository from here would be a cycle.
+  @Bean
+  public static CacheManagerCustomizer<CaffeineCacheManager> userCacheCustomizer(
+      UserCacheProperties userCacheProperties) {
+    return cacheManager -> cacheManager.registerCustomCache(USERS, Caffeine.newBuilder()
+        .maximumSize(userCacheProperties.getMaximumSize())
+        .expireAfterWrite(userCacheProperties.getExpireAfterWrite())
+        .recordStats()
+        .build());
+  }
+}
@@ -0,0 +1,16 @@
+package vitor.tinelli.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "cache.invalidation")
+public class CacheInvalidationProperties {
+
+  // Requires Postgres (LISTEN/NOTIFY); turn off when running against another database.
+  private boolean enabled = true;
+  private long epochCheckIntervalMs = 5000;
+  private long reconnectDelayMs = 1000;
+}
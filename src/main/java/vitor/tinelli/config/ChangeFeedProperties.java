@@ -0,0 +1,43 @@
+package vitor.tinelli.config;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "changes")
+public class ChangeFeedProperties {
+
+  // Requires Postgres (pg_advisory_xact_lock); without it two nodes numbering changes at once can
+  // hand out the same sequence.
+  private boolean sequencerLockEnabled = true;
+  // Numbers changes whose writer stopped before asking for a run after its commit.
+  private long sequencerIntervalMs = 5000;
+  // Consumers that fall further behind than this must re-read the full catalog.
+  private Duration retention = Duration.ofDays(7);
+  private long purgeIntervalMs = 3600000;
+  private Stream stream = new Stream();
+
+  @Data
+  public static class Stream {
+
+    // Changes queued per subscriber, above the 500 changes fetched at a time; one that falls
+    // further behind catches up from the outbox.
+    private int bufferSize = 1024;
+    // Shared by every subscriber, so a subscriber costs a buffer rather than a thread.
+    private int senderThreads = 4;
+    // Runs resumes and catch-ups, which page through the outbox, apart from the live sends.
+    private int replayThreads = 2;
+    // A subscriber whose send blocks for longer is disconnected and resumes with Last-Event-ID.
+    private Duration sendTimeout = Duration.ofSeconds(10);
+    // Threads a pool may add for sends stuck past the send timeout, each returned once the
+    // connector times the write out (server.tomcat.connection-timeout).
+    private int maxSpareThreads = 4;
+    // Subscribers reconnect with Last-Event-ID once the stream times out.
+    private Duration timeout = Duration.ofMinutes(30);
+    // Keeps idle streams open through proxies and notices subscribers that went away.
+    private long heartbeatIntervalMs = 15000;
+  }
+}
@@ -0,0 +1,29 @@
+package vitor.tinelli.config;
+
+import java.time.Duration;
+import java.util.List;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "concurrency")
+public class ConcurrencyProperties {
+
+  // Only has an effect in a -Pjava21 build, see VirtualThreadConfig.
+  private boolean virtualThreads = true;
+  private Limit limit = new Limit();
+
+  @Data
+  public static class Limit {
+
+    // Zero derives the limit from the connection pool: twice
+    // spring.datasource.hikari.maximum-pool-size.
+    private int maxConcurrentRequests = 0;
+    // Kept well below Hikari's connection-timeout so overload is answered with 503, not 30 s waits.
+    private Duration acquireTimeout = Duration.ofSeconds(2);
+    // Requests that never touch the database.
+    private List<String> excludedPaths = List.of("/actuator/**", "/products/suggest");
+  }
+}
@@ -0,0 +1,14 @@
+package vitor.tinelli.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "ingestion")
+public class IngestionProperties {
+
+  // Items committed per transaction; keep it a multiple of hibernate.jdbc.batch_size.
+  private int chunkSize = 1000;
+}
@@ -0,0 +1,52 @@
+package vitor.tinelli.config;
+
+import javax.sql.DataSource;
+import lombok.RequiredArgsConstructor;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import vitor.tinelli.metrics.SqlStatsHandlerInterceptor;
+import vitor.tinelli.metrics.SqlStatsListener;
+
+/**
+ * Wires the custom meters into Spring MVC and the DataSource. Everything else on
+ * {@code /actuator/prometheus} (JVM, HikariCP pool, Hibernate statistics,
+ * {@code http.server.requests}) comes from Spring Boot's auto-configuration.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class MetricsConfig implements WebMvcConfigurer {
+
+  private final SqlStatsHandlerInterceptor sqlStatsHandlerInterceptor;
+
+  @Override
+  public void addInterceptors(InterceptorRegistry registry) {
+    registry.addInterceptor(sqlStatsHandlerInterceptor);
+  }
+
+  // Static so the post processor is registered before the DataSource is created; the listener is
+  // looked up lazily for the same reason.
+  @Bean
+  @ConditionalOnProperty(name = "sql.instrumentation.enabled", matchIfMissing = true)
+  public static BeanPostProcessor sqlStatsDataSourcePostProcessor(
+      ObjectProvider<SqlStatsListener> sqlStatsListener) {
+    return new BeanPostProcessor() {
+      @Override
+      public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof DataSource) || bean instanceof ProxyDataSource) {
+          return bean;
+        }
+        return ProxyDataSourceBuilder.create((DataSource) bean)
+            .name(beanName)
+            .listener(sqlStatsListener.getObject())
+            .build();
+      }
+    };
+  }
+}
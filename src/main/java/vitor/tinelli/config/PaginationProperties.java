@@ -0,0 +1,25 @@
+package vitor.tinelli.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import vitor.tinelli.exception.BadRequestException;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "pagination")
+public class PaginationProperties {
+
+  private int defaultPageSize = 100;
+  private int maxPageSize = 1000;
+
+  public int resolvePageSize(Integer requestedSize) {
+    if (requestedSize == null) {
+      return defaultPageSize;
+    }
+    if (requestedSize < 1) {
+      throw new BadRequestException("Page size must be greater than zero");
+    }
+    return Math.min(requestedSize, maxPageSize);
+  }
+}
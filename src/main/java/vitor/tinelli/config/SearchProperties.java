@@ -0,0 +1,27 @@
+package vitor.tinelli.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import vitor.tinelli.exception.BadRequestException;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "search")
+public class SearchProperties {
+
+  private int defaultLimit = 20;
+  private int maxLimit = 100;
+  // Shorter queries match most of the table and cannot use the trigram index.
+  private int minQueryLength = 2;
+
+  public int resolveLimit(Integer requestedLimit) {
+    if (requestedLimit == null) {
+      return defaultLimit;
+    }
+    if (requestedLimit < 1) {
+      throw new BadRequestException("Limit must be greater than zero");
+    }
+    return Math.min(requestedLimit, maxLimit);
+  }
+}
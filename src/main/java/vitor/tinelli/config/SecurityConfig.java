@@ -1,17 +1,32 @@
 package vitor.tinelli.config;
 
+import static vitor.tinelli.security.RoleAuthorizationManager.hasRole;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Clock;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.CacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.method.configuration.EnableGlobalMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.UserCache;
 import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.cache.SpringCacheBasedUserCache;
 import org.springframework.security.crypto.password.NoOpPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
 import org.springframework.security.web.csrf.CookieCsrfTokenRepository;
+import vitor.tinelli.security.MeteredAuthenticationProvider;
+import vitor.tinelli.security.TokenAuthenticationFilter;
+import vitor.tinelli.security.TokenService;
 
 @Configuration
 @EnableWebSecurity
@@ -21,26 +36,63 @@ public class SecurityConfig {
   private final UserDetailsService userDetailsService;
 
   @Bean
-  public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+  public SecurityFilterChain filterChain(HttpSecurity http,
+      MeteredAuthenticationProvider authenticationProvider,
+      ObjectProvider<TokenService> tokenService) throws Exception {
     http
-        .csrf().csrfTokenRepository(CookieCsrfTokenRepository.withHttpOnlyFalse())
-        .and()
-        .authorizeRequests(authorizeRequests ->
+        .csrf(csrf -> csrf
+            .csrfTokenRepository(CookieCsrfTokenRepository.withHttpOnlyFalse())
+            .ignoringRequestMatchers(TokenAuthenticationFilter::hasBearerToken))
+        .authorizeHttpRequests(authorizeRequests ->
             authorizeRequests
-                .antMatchers("**/admin/**").hasRole("ADMIN")
-                .antMatchers("**").hasRole("USER")
+                .antMatchers("/**/admin/**").access(hasRole("ADMIN"))
                 .anyRequest().authenticated()
         )
         .httpBasic(Customizer.withDefaults())
-        .userDetailsService(userDetailsService)
-        .formLogin(Customizer.withDefaults());
+        .authenticationManager(new ProviderManager(authenticationProvider));
+
+    TokenService tokens = tokenService.getIfAvailable();
+    if (tokens == null) {
+      http.formLogin(Customizer.withDefaults());
+    } else {
+      // Token mode: no form login and no HttpSession, so any node can serve any request.
+      http
+          .csrf(csrf -> csrf.ignoringAntMatchers("/auth/token"))
+          .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+          .addFilterBefore(new TokenAuthenticationFilter(tokens), BasicAuthenticationFilter.class);
+    }
     return http.build();
   }
 
+  @Bean
+  @ConditionalOnProperty(prefix = "security.token", name = "enabled", havingValue = "true")
+  public TokenService tokenService(TokenProperties tokenProperties) {
+    return new TokenService(tokenProperties, Clock.systemUTC());
+  }
+
+  /**
+   * HTTP Basic authenticates every request, so principals are served from the {@code users} cache
+   * and only a miss (or a password that does not match the cached copy) reaches the database.
+   */
+  @Bean
+  public MeteredAuthenticationProvider authenticationProvider(UserCache userCache,
+      MeterRegistry meterRegistry) {
+    DaoAuthenticationProvider daoAuthenticationProvider = new DaoAuthenticationProvider();
+    daoAuthenticationProvider.setUserDetailsService(userDetailsService);
+    daoAuthenticationProvider.setPasswordEncoder(passwordEncoder());
+    daoAuthenticationProvider.setUserCache(userCache);
+    return new MeteredAuthenticationProvider(daoAuthenticationProvider, meterRegistry);
+  }
+
+  @Bean
+  public UserCache userCache(CacheManager cacheManager) {
+    return new SpringCacheBasedUserCache(cacheManager.getCache(CacheConfig.USERS));
+  }
+
   @Bean
   public PasswordEncoder passwordEncoder() {
     return NoOpPasswordEncoder.getInstance();
   }
 
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,17 @@
+package vitor.tinelli.config;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "sql.instrumentation")
+public class SqlInstrumentationProperties {
+
+  private boolean enabled = true;
+  private Duration slowQueryThreshold = Duration.ofMillis(200);
+  // Throw instead of logging when a request goes over its @SqlBudget; meant for tests.
+  private boolean enforceBudgets = false;
+}
@@ -0,0 +1,27 @@
+package vitor.tinelli.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import vitor.tinelli.exception.BadRequestException;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "suggest")
+public class SuggestProperties {
+
+  private int defaultLimit = 10;
+  private int maxLimit = 50;
+  // Full reload from the database, which also picks up products changed by other nodes.
+  private long rebuildIntervalMs = 600_000;
+
+  public int resolveLimit(Integer requestedLimit) {
+    if (requestedLimit == null) {
+      return defaultLimit;
+    }
+    if (requestedLimit < 1) {
+      throw new BadRequestException("Limit must be greater than zero");
+    }
+    return Math.min(requestedLimit, maxLimit);
+  }
+}
@@ -0,0 +1,18 @@
+package vitor.tinelli.config;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "security.token")
+public class TokenProperties {
+
+  private boolean enabled = false;
+  // HMAC-SHA256 key, at least 32 bytes. Every node that accepts the tokens needs the same one.
+  private String secret;
+  // Roles are copied into the token, so this is also how long a revoked role keeps working.
+  private Duration ttl = Duration.ofMinutes(15);
+}
@@ -0,0 +1,16 @@
+package vitor.tinelli.config;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "security.user-cache")
+public class UserCacheProperties {
+
+  private long maximumSize = 10000;
+  // Upper bound on how long a changed password or role keeps working if every eviction was missed.
+  private Duration expireAfterWrite = Duration.ofMinutes(5);
+}
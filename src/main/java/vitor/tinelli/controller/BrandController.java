@@ -3,12 +3,19 @@ package vitor.tinelli.controller;
 import javax.validation.Valid;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import vitor.tinelli.concurrency.IfMatch;
 import vitor.tinelli.domain.Brand;
+import vitor.tinelli.dto.BulkResult;
+import vitor.tinelli.metrics.SqlBudget;
+import vitor.tinelli.pagination.KeysetPage;
 import vitor.tinelli.requests.BrandPostRequestBody;
 import vitor.tinelli.requests.BrandPutRequestBody;
+import vitor.tinelli.requests.BulkDeleteRequestBody;
 import vitor.tinelli.service.BrandService;
 
 @RestController
@@ -18,20 +25,43 @@ public class BrandController {
 
   private final BrandService brandService;
 
+  // Lists compare If-None-Match with the change feed first; checkNotModified then writes the
+  // ETag, and the 304 when it matches, before anything is loaded or serialized. Single brands
+  // are tagged with the version of the brand being returned.
   @GetMapping
-  public ResponseEntity<List<Brand>> listAll() {
+  public ResponseEntity<List<Brand>> listAll(WebRequest request) {
+    if (request.checkNotModified(brandService.listEntityTag())) {
+      return null;
+    }
     return ResponseEntity
         .ok(brandService.listAll());
   }
 
+  @GetMapping("/page")
+  public ResponseEntity<KeysetPage<Brand>> listPage(
+      @RequestParam(required = false) String next, @RequestParam(required = false) Integer size,
+      WebRequest request) {
+    if (request.checkNotModified(brandService.listEntityTag())) {
+      return null;
+    }
+    return ResponseEntity.ok(brandService.listPage(next, size));
+  }
+
   @GetMapping("/find")
-  public ResponseEntity<List<Brand>> findByName(@RequestParam String name) {
+  public ResponseEntity<List<Brand>> findByName(@RequestParam String name, WebRequest request) {
+    if (request.checkNotModified(brandService.listEntityTag())) {
+      return null;
+    }
     return ResponseEntity.ok(brandService.findByName(name));
   }
 
   @GetMapping(path = "/{id}")
-  public ResponseEntity<Brand> findById(@PathVariable long id) {
-    return ResponseEntity.ok(brandService.findByIdOrThrowBadRequestException(id));
+  public ResponseEntity<Brand> findById(@PathVariable long id, WebRequest request) {
+    Brand brand = brandService.findByIdOrThrowBadRequestException(id);
+    if (request.checkNotModified("\"" + brand.getVersion() + "\"")) {
+      return null;
+    }
+    return ResponseEntity.ok(brand);
   }
 
   @PostMapping
@@ -45,8 +75,20 @@ public class BrandController {
     return new ResponseEntity<>(HttpStatus.NO_CONTENT);
   }
 
+  // One statement deletes the brands and records them in the change feed; numbering the changes
+  // and the cache invalidation happen after the commit, on threads of their own.
+  @PostMapping(path = "admin/delete")
+  @SqlBudget(statements = 1)
+  public ResponseEntity<BulkResult> deleteAll(
+      @RequestBody @Valid BulkDeleteRequestBody bulkDeleteRequestBody) {
+    return ResponseEntity.ok(
+        new BulkResult(brandService.deleteAll(bulkDeleteRequestBody.getIds())));
+  }
+
   @PutMapping
-  public ResponseEntity<Void> replace(@RequestBody @Valid BrandPutRequestBody brandPutRequestBody) {
+  public ResponseEntity<Void> replace(@RequestBody @Valid BrandPutRequestBody brandPutRequestBody,
+      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+    brandPutRequestBody.setVersion(IfMatch.version(ifMatch, brandPutRequestBody.getVersion()));
     brandService.replace(brandPutRequestBody);
     return new ResponseEntity<>(HttpStatus.NO_CONTENT);
   }
@@ -0,0 +1,44 @@
+package vitor.tinelli.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import vitor.tinelli.dto.ChangeFeedPage;
+import vitor.tinelli.metrics.SqlBudget;
+import vitor.tinelli.service.CatalogChangeService;
+import vitor.tinelli.service.CatalogChangeStream;
+
+/**
+ * Incremental feed of catalog writes. Start with {@code since=0} (or omit it) and pass back
+ * {@code next} on every call; {@code more} tells whether to ask again right away. Consumers that
+ * want changes pushed as they commit subscribe to {@code /changes/stream} instead.
+ */
+@RestController
+@RequestMapping("changes")
+@RequiredArgsConstructor
+public class CatalogChangeController {
+
+  private final CatalogChangeService catalogChangeService;
+  private final CatalogChangeStream catalogChangeStream;
+
+  @GetMapping
+  @SqlBudget(statements = 1)
+  public ResponseEntity<ChangeFeedPage> changes(@RequestParam(defaultValue = "0") long since,
+      @RequestParam(required = false) Integer size) {
+    return ResponseEntity.ok(catalogChangeService.changesSince(since, size));
+  }
+
+  // EventSource sends Last-Event-ID by itself when it reconnects; since is for the first connect.
+  @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public SseEmitter stream(
+      @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId,
+      @RequestParam(required = false) Long since) {
+    return catalogChangeStream.subscribe(lastEventId != null ? lastEventId : since);
+  }
+}
@@ -1,15 +1,37 @@
 package vitor.tinelli.controller;
 
 import javax.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import vitor.tinelli.concurrency.IfMatch;
 import vitor.tinelli.domain.Product;
+import vitor.tinelli.dto.BulkResult;
+import vitor.tinelli.dto.ProductBatchResult;
+import vitor.tinelli.dto.ProductQueryResult;
+import vitor.tinelli.dto.ProductSuggestion;
+import vitor.tinelli.dto.ProductSummary;
+import vitor.tinelli.metrics.SqlBudget;
+import vitor.tinelli.pagination.KeysetPage;
+import vitor.tinelli.requests.BulkDeleteRequestBody;
+import vitor.tinelli.requests.ProductFilter;
+import vitor.tinelli.requests.ProductPatchRequestBody;
 import vitor.tinelli.requests.ProductPostRequestBody;
 import vitor.tinelli.requests.ProductPutRequestBody;
+import vitor.tinelli.requests.ProductReassignRequestBody;
+import vitor.tinelli.service.ProductBatchService;
+import vitor.tinelli.service.ProductExportService;
+import vitor.tinelli.service.ProductSearchService;
 import vitor.tinelli.service.ProductService;
+import vitor.tinelli.service.ProductSuggestService;
 
 @RestController
 @RequestMapping("products")
@@ -17,19 +39,87 @@ import vitor.tinelli.service.ProductService;
 public class ProductController {
 
   private final ProductService productService;
+  private final ProductExportService productExportService;
+  private final ProductBatchService productBatchService;
+  private final ProductSearchService productSearchService;
+  private final ProductSuggestService productSuggestService;
 
+  // Product tags also cover the embedded unit, group and brand, see ProductVersions.
   @GetMapping
-  public ResponseEntity<List<Product>> listAll(){
+  public ResponseEntity<List<Product>> listAll(WebRequest request){
+    if (request.checkNotModified(productService.listEntityTag())) {
+      return null;
+    }
     return ResponseEntity.ok(productService.listAll());
   }
 
+  @GetMapping(path = "/page")
+  public ResponseEntity<KeysetPage<Product>> listPage(
+      @RequestParam(required = false) String next, @RequestParam(required = false) Integer size,
+      WebRequest request){
+    if (request.checkNotModified(productService.listEntityTag())) {
+      return null;
+    }
+    return ResponseEntity.ok(productService.listPage(next, size));
+  }
+
+  @GetMapping(path = "/query")
+  @SqlBudget(statements = 2)
+  public ResponseEntity<ProductQueryResult> query(ProductFilter filter,
+      @RequestParam(required = false) String next, @RequestParam(required = false) Integer size,
+      @RequestParam(defaultValue = "false") boolean facets){
+    return ResponseEntity.ok(productService.query(filter, next, size, facets));
+  }
+
+  @GetMapping(path = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+  public ResponseEntity<StreamingResponseBody> export(
+      @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding){
+    boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+    ResponseEntity.BodyBuilder response = ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON);
+    if (gzip) {
+      response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+    }
+    return response.body(outputStream -> productExportService.writeNdjson(outputStream, gzip));
+  }
+
   @GetMapping(path = "/find")
-  public ResponseEntity<List<Product>> findByName(String name){
+  public ResponseEntity<List<Product>> findByName(String name, WebRequest request){
+    if (request.checkNotModified(productService.listEntityTag())) {
+      return null;
+    }
     return ResponseEntity.ok(productService.findByName(name));
   }
 
+  @GetMapping(path = "/summary")
+  public ResponseEntity<List<ProductSummary>> listSummaries(){
+    return ResponseEntity.ok(productService.listSummaries());
+  }
+
+  @GetMapping(path = "/summary/find")
+  public ResponseEntity<List<ProductSummary>> findSummariesByName(@RequestParam String name){
+    return ResponseEntity.ok(productService.findSummariesByName(name));
+  }
+
+  @GetMapping(path = "/search")
+  @SqlBudget(statements = 2)
+  public ResponseEntity<List<Product>> search(@RequestParam String q,
+      @RequestParam(required = false) Integer limit){
+    return ResponseEntity.ok(productSearchService.search(q, limit));
+  }
+
+  @GetMapping(path = "/suggest")
+  @SqlBudget(statements = 0)
+  public ResponseEntity<List<ProductSuggestion>> suggest(@RequestParam String prefix,
+      @RequestParam(required = false) Integer limit){
+    return ResponseEntity.ok(productSuggestService.suggest(prefix, limit));
+  }
+
   @GetMapping(path = "{id}")
-  public ResponseEntity<Product> findById(@PathVariable Long id){
+  @SqlBudget(statements = 2)
+  public ResponseEntity<Product> findById(@PathVariable Long id, WebRequest request){
+    if (request.checkNotModified(productService.entityTag(id))) {
+      return null;
+    }
     return ResponseEntity.ok(productService.findByIdOrThrowBadRequestException(id));
   }
 
@@ -38,18 +128,64 @@ public class ProductController {
     return new ResponseEntity<>(productService.save(productPostRequestBody), HttpStatus.CREATED);
   }
 
+  @PostMapping(path = "/batch",
+      consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+  public ResponseEntity<ProductBatchResult> saveBatch(InputStream inputStream) throws IOException {
+    return ResponseEntity.ok(productBatchService.ingest(inputStream));
+  }
+
   @DeleteMapping(path = "admin/{id}")
   public ResponseEntity<Void> delete(@PathVariable Long id){
     productService.delete(id);
     return new ResponseEntity<>(HttpStatus.NO_CONTENT);
   }
 
+  // Bulk operations run one set-based statement that also records the changes.
+  @PostMapping(path = "admin/delete")
+  @SqlBudget(statements = 1)
+  public ResponseEntity<BulkResult> deleteAll(
+      @RequestBody @Valid BulkDeleteRequestBody bulkDeleteRequestBody){
+    return ResponseEntity.ok(
+        new BulkResult(productService.deleteAll(bulkDeleteRequestBody.getIds())));
+  }
+
+  @DeleteMapping(path = "admin/brand/{brandId}")
+  @SqlBudget(statements = 1)
+  public ResponseEntity<BulkResult> deleteByBrand(@PathVariable long brandId){
+    return ResponseEntity.ok(new BulkResult(productService.deleteByBrand(brandId)));
+  }
+
+  @DeleteMapping(path = "admin/group/{productGroupId}")
+  @SqlBudget(statements = 1)
+  public ResponseEntity<BulkResult> deleteByProductGroup(@PathVariable long productGroupId){
+    return ResponseEntity.ok(new BulkResult(productService.deleteByProductGroup(productGroupId)));
+  }
+
+  @PostMapping(path = "admin/reassign")
+  @SqlBudget(statements = 1)
+  public ResponseEntity<BulkResult> reassign(
+      @RequestBody @Valid ProductReassignRequestBody productReassignRequestBody){
+    return ResponseEntity.ok(new BulkResult(productService.reassign(productReassignRequestBody)));
+  }
+
   @PutMapping
-  public ResponseEntity<Void> replace (@RequestBody ProductPutRequestBody productPutRequestBody){
+  public ResponseEntity<Void> replace (@RequestBody ProductPutRequestBody productPutRequestBody,
+      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch){
+    productPutRequestBody.setVersion(
+        IfMatch.version(ifMatch, productPutRequestBody.getVersion()));
     productService.replace(productPutRequestBody);
     return new ResponseEntity<>(HttpStatus.NO_CONTENT);
   }
 
+  // The UPDATE plus the change feed insert.
+  @PatchMapping(path = "{id}")
+  @SqlBudget(statements = 2)
+  public ResponseEntity<Void> patch(@PathVariable Long id,
+      @RequestBody @Valid ProductPatchRequestBody productPatchRequestBody){
+    productService.patch(id, productPatchRequestBody);
+    return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+  }
+
 
 
 }
@@ -3,10 +3,17 @@ package vitor.tinelli.controller;
 import javax.validation.Valid;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import vitor.tinelli.concurrency.IfMatch;
 import vitor.tinelli.domain.ProductGroup;
+import vitor.tinelli.dto.BulkResult;
+import vitor.tinelli.metrics.SqlBudget;
+import vitor.tinelli.pagination.KeysetPage;
+import vitor.tinelli.requests.BulkDeleteRequestBody;
 import vitor.tinelli.requests.ProductGroupPostRequestBody;
 import vitor.tinelli.requests.ProductGroupPutRequestBody;
 import vitor.tinelli.service.ProductGroupService;
@@ -19,18 +26,39 @@ public class ProductGroupController {
   private final ProductGroupService productGroupService;
 
   @GetMapping
-  public ResponseEntity<List<ProductGroup>> listAll() {
+  public ResponseEntity<List<ProductGroup>> listAll(WebRequest request) {
+    if (request.checkNotModified(productGroupService.listEntityTag())) {
+      return null;
+    }
     return ResponseEntity.ok(productGroupService.listAll());
   }
 
+  @GetMapping("/page")
+  public ResponseEntity<KeysetPage<ProductGroup>> listPage(
+      @RequestParam(required = false) String next, @RequestParam(required = false) Integer size,
+      WebRequest request) {
+    if (request.checkNotModified(productGroupService.listEntityTag())) {
+      return null;
+    }
+    return ResponseEntity.ok(productGroupService.listPage(next, size));
+  }
+
   @GetMapping("/find")
-  public ResponseEntity<List<ProductGroup>> findByName(@RequestParam @Valid String name) {
+  public ResponseEntity<List<ProductGroup>> findByName(@RequestParam @Valid String name,
+      WebRequest request) {
+    if (request.checkNotModified(productGroupService.listEntityTag())) {
+      return null;
+    }
     return ResponseEntity.ok(productGroupService.findByName(name));
   }
 
   @GetMapping(path = "/{id}")
-  public ResponseEntity<ProductGroup> findById(@PathVariable long id) {
-    return ResponseEntity.ok(productGroupService.findByIdOrThrowBadRequestException(id));
+  public ResponseEntity<ProductGroup> findById(@PathVariable long id, WebRequest request) {
+    ProductGroup productGroup = productGroupService.findByIdOrThrowBadRequestException(id);
+    if (request.checkNotModified("\"" + productGroup.getVersion() + "\"")) {
+      return null;
+    }
+    return ResponseEntity.ok(productGroup);
   }
 
   @PostMapping
@@ -46,8 +74,20 @@ public class ProductGroupController {
     return new ResponseEntity<>(HttpStatus.NO_CONTENT);
   }
 
+  @PostMapping(path = "admin/delete")
+  @SqlBudget(statements = 1)
+  public ResponseEntity<BulkResult> deleteAll(
+      @RequestBody @Valid BulkDeleteRequestBody bulkDeleteRequestBody) {
+    return ResponseEntity.ok(
+        new BulkResult(productGroupService.deleteAll(bulkDeleteRequestBody.getIds())));
+  }
+
   @PutMapping
-  public ResponseEntity<Void> replace(@RequestBody @Valid ProductGroupPutRequestBody productGroupPutRequestBody) {
+  public ResponseEntity<Void> replace(
+      @RequestBody @Valid ProductGroupPutRequestBody productGroupPutRequestBody,
+      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+    productGroupPutRequestBody.setVersion(
+        IfMatch.version(ifMatch, productGroupPutRequestBody.getVersion()));
     productGroupService.replace(productGroupPutRequestBody);
     return new ResponseEntity<>(HttpStatus.NO_CONTENT);
   }
@@ -0,0 +1,29 @@
+package vitor.tinelli.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.authentication.preauth.PreAuthenticatedAuthenticationToken;
+import org.springframework.web.bind.annotation.*;
+import vitor.tinelli.dto.TokenResponse;
+import vitor.tinelli.exception.BadRequestException;
+import vitor.tinelli.security.TokenService;
+
+@RestController
+@RequestMapping("auth")
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "security.token", name = "enabled", havingValue = "true")
+public class TokenController {
+
+  private final TokenService tokenService;
+
+  @PostMapping("/token")
+  public ResponseEntity<TokenResponse> issue(Authentication authentication) {
+    // A token must not be able to renew itself, otherwise it never really expires.
+    if (authentication instanceof PreAuthenticatedAuthenticationToken) {
+      throw new BadRequestException("Tokens are only issued for username and password credentials");
+    }
+    return ResponseEntity.ok(tokenService.issue(authentication));
+  }
+}
@@ -3,8 +3,15 @@ package vitor.tinelli.controller;
 import javax.validation.Valid;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import vitor.tinelli.concurrency.IfMatch;
 import vitor.tinelli.domain.Unit;
+import vitor.tinelli.dto.BulkResult;
+import vitor.tinelli.metrics.SqlBudget;
+import vitor.tinelli.pagination.KeysetPage;
+import vitor.tinelli.requests.BulkDeleteRequestBody;
 import vitor.tinelli.requests.UnitPostRequestBody;
 import vitor.tinelli.requests.UnitPutRequestBody;
 import vitor.tinelli.service.UnitService;
@@ -17,19 +24,38 @@ public class UnitController {
   private final UnitService unitService;
 
   @GetMapping
-  public List<Unit> listAll() {
-
+  public List<Unit> listAll(WebRequest request) {
+    if (request.checkNotModified(unitService.listEntityTag())) {
+      return null;
+    }
     return unitService.listAll();
   }
 
+  @GetMapping("/page")
+  public KeysetPage<Unit> listPage(
+      @RequestParam(required = false) String next, @RequestParam(required = false) Integer size,
+      WebRequest request) {
+    if (request.checkNotModified(unitService.listEntityTag())) {
+      return null;
+    }
+    return unitService.listPage(next, size);
+  }
+
   @GetMapping("/find")
-  public List<Unit> findByName(@RequestParam String name) {
+  public List<Unit> findByName(@RequestParam String name, WebRequest request) {
+    if (request.checkNotModified(unitService.listEntityTag())) {
+      return null;
+    }
     return unitService.findByName(name);
   }
 
   @GetMapping(path = "/{id}")
-  public Unit findById(@PathVariable long id) {
-    return unitService.findByIdOrThrowBadRequestException(id);
+  public Unit findById(@PathVariable long id, WebRequest request) {
+    Unit unit = unitService.findByIdOrThrowBadRequestException(id);
+    if (request.checkNotModified("\"" + unit.getVersion() + "\"")) {
+      return null;
+    }
+    return unit;
   }
 
   @PostMapping
@@ -42,8 +68,16 @@ public class UnitController {
     unitService.delete(id);
   }
 
+  @PostMapping(path = "/admin/delete")
+  @SqlBudget(statements = 1)
+  public BulkResult deleteAll(@RequestBody @Valid BulkDeleteRequestBody bulkDeleteRequestBody) {
+    return new BulkResult(unitService.deleteAll(bulkDeleteRequestBody.getIds()));
+  }
+
   @PutMapping
-  public void replace(@RequestBody @Valid UnitPutRequestBody unitPutRequestBody) {
+  public void replace(@RequestBody @Valid UnitPutRequestBody unitPutRequestBody,
+      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+    unitPutRequestBody.setVersion(IfMatch.version(ifMatch, unitPutRequestBody.getVersion()));
     unitService.replace(unitPutRequestBody);
   }
 
@@ -4,6 +4,8 @@ import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Version;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.AllArgsConstructor;
@@ -15,16 +17,25 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
-@Builder
+@Builder(toBuilder = true)
 public class Brand {
   @Id
-  @GeneratedValue(strategy = javax.persistence.GenerationType.IDENTITY)
+  @GeneratedValue(strategy = javax.persistence.GenerationType.SEQUENCE, generator = "brand_seq")
+  @SequenceGenerator(name = "brand_seq", sequenceName = "brand_seq", allocationSize = 50)
   @Column(name = "brand_id")
   private long id;
 
   @Column(name = "brand_name" , nullable = false)
   private String name;
 
+  @Version
+  private long version;
+
+  public Brand(long id, String name) {
+    this.id = id;
+    this.name = name;
+  }
+
   @JsonCreator
   public Brand(@JsonProperty("id") Long id) {
     this.id = id;
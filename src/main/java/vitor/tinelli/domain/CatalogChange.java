@@ -0,0 +1,61 @@
+package vitor.tinelli.domain;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import java.time.Instant;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One committed write to the catalog. Only the resource, id and kind of change are kept;
+ * consumers read the current state from the resource itself.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "catalog_change")
+public class CatalogChange {
+
+  public enum Resource {
+    PRODUCT, BRAND, UNIT, PRODUCT_GROUP
+  }
+
+  public enum Operation {
+    CREATED, UPDATED, DELETED
+  }
+
+  // Rows are written with plain JDBC, IDENTITY only describes the column.
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @JsonIgnore
+  private Long id;
+
+  // Null until CatalogChangeSequencer numbers the committed row.
+  @Column(unique = true)
+  private Long sequence;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false, length = 32)
+  private Resource resource;
+
+  @Column(name = "entity_id", nullable = false)
+  private Long entityId;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false, length = 16)
+  private Operation operation;
+
+  @Column(name = "changed_at", nullable = false)
+  private Instant changedAt;
+}
@@ -2,30 +2,33 @@ package vitor.tinelli.domain;
 
 
 import javax.persistence.Entity;
+import javax.persistence.EntityListeners;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.SequenceGenerator;
 import javax.validation.constraints.NotBlank;
-import java.util.Arrays;
 import java.util.Collection;
-import java.util.stream.Collectors;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import vitor.tinelli.security.Authorities;
+import vitor.tinelli.security.OnboardingUsersCacheEvictionListener;
 
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
+@EntityListeners(OnboardingUsersCacheEvictionListener.class)
 @Builder
 public class OnboardingUsers implements UserDetails {
 
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "onboarding_users_seq")
+  @SequenceGenerator(name = "onboarding_users_seq", sequenceName = "onboarding_users_seq", allocationSize = 50)
   private long id;
 
   @NotBlank
@@ -38,9 +41,7 @@ public class OnboardingUsers implements UserDetails {
   private String authorities;
   @Override
   public Collection<? extends GrantedAuthority> getAuthorities() {
-    return Arrays.stream(authorities.split(","))
-        .map(SimpleGrantedAuthority::new)
-        .collect(Collectors.toList());
+    return Authorities.of(authorities);
   }
 
   @Override
@@ -15,7 +15,8 @@ import lombok.NoArgsConstructor;
 public class Product {
 
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_seq")
+  @SequenceGenerator(name = "product_seq", sequenceName = "product_seq", allocationSize = 50)
   @Column(name = "product_id")
   private long id;
 
@@ -34,4 +35,14 @@ public class Product {
   @JoinColumn(name = "brand_id", referencedColumnName = "brand_id")
   private Brand brand;
 
+  @Version
+  private long version;
+
+  public Product(long id, String name, Unit unit, ProductGroup productGroup, Brand brand) {
+    this.id = id;
+    this.name = name;
+    this.unit = unit;
+    this.productGroup = productGroup;
+    this.brand = brand;
+  }
 }
@@ -5,6 +5,8 @@ import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Version;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.AllArgsConstructor;
@@ -16,11 +18,12 @@ import lombok.NoArgsConstructor;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 public class ProductGroup {
 
   @Id
-  @GeneratedValue(strategy = javax.persistence.GenerationType.IDENTITY)
+  @GeneratedValue(strategy = javax.persistence.GenerationType.SEQUENCE, generator = "product_group_seq")
+  @SequenceGenerator(name = "product_group_seq", sequenceName = "product_group_seq", allocationSize = 50)
   @Column(name = "productGroup_id")
   private Long id;
 
@@ -28,6 +31,14 @@ public class ProductGroup {
   private String name;
 
 
+  @Version
+  private long version;
+
+  public ProductGroup(Long id, String name) {
+    this.id = id;
+    this.name = name;
+  }
+
   @JsonCreator
   public ProductGroup(@JsonProperty("id") Long id) {
     this.id = id;
@@ -4,6 +4,8 @@ import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Version;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.AllArgsConstructor;
@@ -15,17 +17,26 @@ import lombok.NoArgsConstructor;
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 public class Unit {
 
   @Id
-  @GeneratedValue(strategy = javax.persistence.GenerationType.IDENTITY)
+  @GeneratedValue(strategy = javax.persistence.GenerationType.SEQUENCE, generator = "unit_seq")
+  @SequenceGenerator(name = "unit_seq", sequenceName = "unit_seq", allocationSize = 50)
   @Column(name = "unit_id")
   private Long id;
 
   @Column(nullable = false, name = "unit_name")
   private String name;
 
+  @Version
+  private long version;
+
+  public Unit(Long id, String name) {
+    this.id = id;
+    this.name = name;
+  }
+
   @JsonCreator
   public Unit(@JsonProperty("id") Long id) {
     this.id = id;
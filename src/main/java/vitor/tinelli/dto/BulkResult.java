@@ -0,0 +1,9 @@
+package vitor.tinelli.dto;
+
+import lombok.Value;
+
+@Value
+public class BulkResult {
+
+  int affected;
+}
@@ -0,0 +1,17 @@
+package vitor.tinelli.dto;
+
+import java.util.List;
+import lombok.Value;
+import vitor.tinelli.domain.CatalogChange;
+
+/**
+ * A page of the change feed. {@code next} is the {@code since} of the following request; it stays
+ * put when nothing new was committed, so consumers can keep polling with it.
+ */
+@Value
+public class ChangeFeedPage {
+
+  List<CatalogChange> changes;
+  long next;
+  boolean more;
+}
@@ -0,0 +1,11 @@
+package vitor.tinelli.dto;
+
+import lombok.Value;
+
+@Value
+public class FacetCount {
+
+  Long id;
+  String name;
+  long count;
+}
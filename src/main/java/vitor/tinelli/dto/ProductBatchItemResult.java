@@ -0,0 +1,24 @@
+package vitor.tinelli.dto;
+
+import lombok.Value;
+
+@Value
+public class ProductBatchItemResult {
+
+  public enum Status {
+    CREATED, FAILED
+  }
+
+  int index;
+  Status status;
+  Long id;
+  String error;
+
+  public static ProductBatchItemResult created(int index, long id) {
+    return new ProductBatchItemResult(index, Status.CREATED, id, null);
+  }
+
+  public static ProductBatchItemResult failed(int index, String error) {
+    return new ProductBatchItemResult(index, Status.FAILED, null, error);
+  }
+}
@@ -0,0 +1,22 @@
+package vitor.tinelli.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Getter;
+
+@Getter
+public class ProductBatchResult {
+
+  private int created;
+  private int failed;
+  private final List<ProductBatchItemResult> items = new ArrayList<>();
+
+  public void add(ProductBatchItemResult item) {
+    if (item.getStatus() == ProductBatchItemResult.Status.CREATED) {
+      created++;
+    } else {
+      failed++;
+    }
+    items.add(item);
+  }
+}
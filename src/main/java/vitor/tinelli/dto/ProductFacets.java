@@ -0,0 +1,11 @@
+package vitor.tinelli.dto;
+
+import java.util.List;
+import lombok.Value;
+
+@Value
+public class ProductFacets {
+
+  List<FacetCount> brands;
+  List<FacetCount> productGroups;
+}
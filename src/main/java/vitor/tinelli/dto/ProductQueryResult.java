@@ -0,0 +1,13 @@
+package vitor.tinelli.dto;
+
+import lombok.Value;
+import vitor.tinelli.domain.Product;
+import vitor.tinelli.pagination.KeysetPage;
+
+@Value
+public class ProductQueryResult {
+
+  KeysetPage<Product> page;
+  // Only computed when the client asks for it.
+  ProductFacets facets;
+}
@@ -0,0 +1,10 @@
+package vitor.tinelli.dto;
+
+import lombok.Value;
+
+@Value
+public class ProductSuggestion {
+
+  Long id;
+  String name;
+}
@@ -0,0 +1,18 @@
+package vitor.tinelli.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductSummary {
+
+  private Long id;
+  private String name;
+  private String unitName;
+  private String brandName;
+  private String groupName;
+
+}
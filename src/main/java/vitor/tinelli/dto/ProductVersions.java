@@ -0,0 +1,20 @@
+package vitor.tinelli.dto;
+
+import lombok.Value;
+
+/**
+ * Versions of a product and of the references it is serialized with. A missing reference is
+ * {@code null}.
+ */
+@Value
+public class ProductVersions {
+
+  Long product;
+  Long unit;
+  Long productGroup;
+  Long brand;
+
+  public String toETag() {
+    return "\"" + product + "." + unit + "." + productGroup + "." + brand + "\"";
+  }
+}
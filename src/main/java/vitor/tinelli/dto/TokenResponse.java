@@ -0,0 +1,11 @@
+package vitor.tinelli.dto;
+
+import java.time.Instant;
+import lombok.Value;
+
+@Value
+public class TokenResponse {
+
+  String token;
+  Instant expiresAt;
+}
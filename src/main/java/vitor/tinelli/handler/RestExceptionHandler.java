@@ -3,12 +3,17 @@ package vitor.tinelli.handler;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
+import org.springframework.boot.web.servlet.error.ErrorAttributes;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 import vitor.tinelli.exception.BadRequestException;
 import vitor.tinelli.exception.BadRequestExceptionDetails;
 import vitor.tinelli.exception.ValidationExceptionDetails;
@@ -18,6 +23,7 @@ public class RestExceptionHandler {
 
   @ExceptionHandler(BadRequestException.class)
   public ResponseEntity<BadRequestExceptionDetails> handlerBadRequestException(BadRequestException bre) {
+    exposeToMetrics(bre);
     return new ResponseEntity<>(
         BadRequestExceptionDetails.builder()
             .timestamp(LocalDateTime.now())
@@ -28,9 +34,42 @@ public class RestExceptionHandler {
             .build(), HttpStatus.BAD_REQUEST);
   }
 
+  // Writes that skip the lookups, like PATCH /products/{id}, learn about unknown ids from the
+  // foreign keys.
+  @ExceptionHandler(DataIntegrityViolationException.class)
+  public ResponseEntity<BadRequestExceptionDetails> handlerDataIntegrityViolationException(
+      DataIntegrityViolationException exception) {
+    exposeToMetrics(exception);
+    return new ResponseEntity<>(
+        BadRequestExceptionDetails.builder()
+            .timestamp(LocalDateTime.now())
+            .status(HttpStatus.BAD_REQUEST.value())
+            .title("Bad Request Exception, Check the Documentation")
+            .detail("A referenced ID does not exist or the entity is still referenced")
+            .developerMessage(exception.getClass().getName())
+            .build(), HttpStatus.BAD_REQUEST);
+  }
+
+  // Raised by a stale If-Match or version on PUT, and by the @Version check when another write
+  // commits between our read and our update.
+  @ExceptionHandler(OptimisticLockingFailureException.class)
+  public ResponseEntity<BadRequestExceptionDetails> handlerOptimisticLockingFailureException(
+      OptimisticLockingFailureException exception) {
+    exposeToMetrics(exception);
+    return new ResponseEntity<>(
+        BadRequestExceptionDetails.builder()
+            .timestamp(LocalDateTime.now())
+            .status(HttpStatus.CONFLICT.value())
+            .title("Conflict, the entity was changed by another request")
+            .detail("Fetch the entity again and retry with its current version")
+            .developerMessage(exception.getClass().getName())
+            .build(), HttpStatus.CONFLICT);
+  }
+
   @ExceptionHandler(MethodArgumentNotValidException.class)
   public ResponseEntity<ValidationExceptionDetails> handlerMethodArgumentNotValidException(
       MethodArgumentNotValidException exception) {
+    exposeToMetrics(exception);
     List<FieldError> fieldErrors = exception.getBindingResult().getFieldErrors();
 
     String fields = fieldErrors.stream().map(FieldError::getField).collect(Collectors.joining(", "));
@@ -47,4 +86,14 @@ public class RestExceptionHandler {
             .fieldsMessage(fieldsMessage)
             .build(), HttpStatus.BAD_REQUEST);
   }
-}
\ No newline at end of file
+
+  // Handled exceptions are invisible to the exception tag of http.server.requests unless the
+  // request carries them under this attribute.
+  private static void exposeToMetrics(Exception exception) {
+    RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+    if (attributes != null) {
+      attributes.setAttribute(ErrorAttributes.ERROR_ATTRIBUTE, exception,
+          RequestAttributes.SCOPE_REQUEST);
+    }
+  }
+}
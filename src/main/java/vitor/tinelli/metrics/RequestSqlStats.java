@@ -0,0 +1,70 @@
+package vitor.tinelli.metrics;
+
+/**
+ * SQL executed on behalf of the HTTP request bound to the current thread.
+ */
+public final class RequestSqlStats {
+
+  private static final ThreadLocal<RequestSqlStats> CURRENT = new ThreadLocal<>();
+
+  private int statements;
+  private long nanos;
+  private String handler = "none";
+  private int handlerStart;
+  private int budget = -1;
+
+  private RequestSqlStats() {
+  }
+
+  static RequestSqlStats begin() {
+    RequestSqlStats stats = new RequestSqlStats();
+    CURRENT.set(stats);
+    return stats;
+  }
+
+  /**
+   * @return the stats of the request on this thread, or {@code null} outside a request
+   */
+  static RequestSqlStats current() {
+    return CURRENT.get();
+  }
+
+  static void end() {
+    CURRENT.remove();
+  }
+
+  void record(long elapsedNanos) {
+    statements++;
+    nanos += elapsedNanos;
+  }
+
+  void enterHandler(String handler, int budget) {
+    this.handler = handler;
+    this.handlerStart = statements;
+    this.budget = budget;
+  }
+
+  int statements() {
+    return statements;
+  }
+
+  long nanos() {
+    return nanos;
+  }
+
+  String handler() {
+    return handler;
+  }
+
+  int handlerStatements() {
+    return statements - handlerStart;
+  }
+
+  boolean overBudget() {
+    return budget >= 0 && handlerStatements() > budget;
+  }
+
+  int budget() {
+    return budget;
+  }
+}
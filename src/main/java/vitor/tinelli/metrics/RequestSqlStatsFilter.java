@@ -0,0 +1,81 @@
+package vitor.tinelli.metrics;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import vitor.tinelli.config.SqlInstrumentationProperties;
+
+/**
+ * Opens a {@link RequestSqlStats} for every request, ahead of the security filters so the
+ * statements run by authentication are counted too, and when the request is done records them as
+ * {@code http.server.requests.statements} and {@code http.server.requests.db}, tagged like
+ * {@code http.server.requests}.
+ */
+@Slf4j(topic = "sql")
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class RequestSqlStatsFilter extends OncePerRequestFilter {
+
+  static final String STATEMENTS_METRIC = "http.server.requests.statements";
+  static final String DB_TIME_METRIC = "http.server.requests.db";
+
+  private final MeterRegistry meterRegistry;
+  private final SqlInstrumentationProperties sqlInstrumentationProperties;
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+      FilterChain filterChain) throws ServletException, IOException {
+    RequestSqlStats stats = RequestSqlStats.begin();
+    try {
+      filterChain.doFilter(request, response);
+    } finally {
+      RequestSqlStats.end();
+      record(request, response, stats);
+    }
+    if (stats.overBudget() && sqlInstrumentationProperties.isEnforceBudgets()) {
+      throw new SqlBudgetExceededException(stats.handler(), stats.handlerStatements(), stats.budget());
+    }
+  }
+
+  private void record(HttpServletRequest request, HttpServletResponse response,
+      RequestSqlStats stats) {
+    Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+    String uri = pattern == null ? "UNKNOWN" : pattern.toString();
+    Tags tags = Tags.of("method", request.getMethod(), "uri", uri,
+        "status", String.valueOf(response.getStatus()));
+    DistributionSummary.builder(STATEMENTS_METRIC)
+        .baseUnit("statements")
+        .tags(tags)
+        .register(meterRegistry)
+        .record(stats.statements());
+    Timer.builder(DB_TIME_METRIC)
+        .description("Time spent executing SQL per request")
+        .tags(tags)
+        .register(meterRegistry)
+        .record(stats.nanos(), TimeUnit.NANOSECONDS);
+
+    if (stats.overBudget()) {
+      log.warn("sql_budget_exceeded method={} uri={} handler={} statements={} budget={}",
+          request.getMethod(), uri, stats.handler(), stats.handlerStatements(), stats.budget());
+    } else {
+      log.debug("request_sql method={} uri={} handler={} statements={} db_ms={}",
+          request.getMethod(), uri, stats.handler(), stats.statements(),
+          TimeUnit.NANOSECONDS.toMillis(stats.nanos()));
+    }
+  }
+}
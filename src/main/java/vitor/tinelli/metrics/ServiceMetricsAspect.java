@@ -0,0 +1,71 @@
+package vitor.tinelli.metrics;
+
+import javax.servlet.http.HttpServletRequest;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+import vitor.tinelli.exception.BadRequestException;
+
+/**
+ * Times every public service call as {@code service.calls}, tagged with the service, method, the
+ * HTTP endpoint that triggered it and the outcome. Ordered outside caching and transactions, so
+ * cache hits are counted too and commit time is part of the call.
+ */
+@Aspect
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 2)
+@RequiredArgsConstructor
+public class ServiceMetricsAspect {
+
+  static final String METRIC_NAME = "service.calls";
+  private static final String NONE = "none";
+
+  private final MeterRegistry meterRegistry;
+
+  @Around("execution(public * vitor.tinelli.service.ProductService.*(..))"
+      + " || execution(public * vitor.tinelli.service.BrandService.*(..))"
+      + " || execution(public * vitor.tinelli.service.UnitService.*(..))"
+      + " || execution(public * vitor.tinelli.service.ProductGroupService.*(..))"
+      + " || execution(public * vitor.tinelli.service.OnboardingUsersDetailService.*(..))")
+  public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+    Timer.Sample sample = Timer.start(meterRegistry);
+    String outcome = "success";
+    String exception = NONE;
+    try {
+      return joinPoint.proceed();
+    } catch (Throwable e) {
+      outcome = e instanceof BadRequestException ? "bad_request" : "failure";
+      exception = e.getClass().getSimpleName();
+      throw e;
+    } finally {
+      sample.stop(Timer.builder(METRIC_NAME)
+          .tag("service", joinPoint.getSignature().getDeclaringType().getSimpleName())
+          .tag("method", joinPoint.getSignature().getName())
+          .tag("endpoint", endpoint())
+          .tag("outcome", outcome)
+          .tag("exception", exception)
+          .register(meterRegistry));
+    }
+  }
+
+  // The matched route template ("GET /products/{id}"), never the raw path, to keep cardinality low.
+  private static String endpoint() {
+    RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+    if (!(attributes instanceof ServletRequestAttributes)) {
+      return NONE;
+    }
+    HttpServletRequest request = ((ServletRequestAttributes) attributes).getRequest();
+    Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+    return pattern == null ? NONE : request.getMethod() + " " + pattern;
+  }
+}
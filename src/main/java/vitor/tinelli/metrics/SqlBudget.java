@@ -0,0 +1,18 @@
+package vitor.tinelli.metrics;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Most SQL statements a controller method may run per request, not counting authentication.
+ * Going over is logged, or fails the request when {@code sql.instrumentation.enforce-budgets} is
+ * on, which is how tests catch an N+1 sneaking into an endpoint.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface SqlBudget {
+
+  int statements();
+}
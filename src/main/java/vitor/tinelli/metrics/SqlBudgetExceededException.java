@@ -0,0 +1,12 @@
+package vitor.tinelli.metrics;
+
+/**
+ * Thrown after a request ran more statements than its handler's {@link SqlBudget} allows, only
+ * when budgets are enforced.
+ */
+public class SqlBudgetExceededException extends IllegalStateException {
+
+  public SqlBudgetExceededException(String handler, int statements, int budget) {
+    super(handler + " ran " + statements + " SQL statements, its budget is " + budget);
+  }
+}
@@ -0,0 +1,27 @@
+package vitor.tinelli.metrics;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Tells the current {@link RequestSqlStats} which controller method is running and what its
+ * {@link SqlBudget} is, so slow-query logs and budget checks can name it.
+ */
+@Component
+public class SqlStatsHandlerInterceptor implements HandlerInterceptor {
+
+  @Override
+  public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+    RequestSqlStats stats = RequestSqlStats.current();
+    if (stats != null && handler instanceof HandlerMethod) {
+      HandlerMethod handlerMethod = (HandlerMethod) handler;
+      SqlBudget budget = handlerMethod.getMethodAnnotation(SqlBudget.class);
+      stats.enterHandler(handlerMethod.getBeanType().getSimpleName() + "#"
+          + handlerMethod.getMethod().getName(), budget == null ? -1 : budget.statements());
+    }
+    return true;
+  }
+}
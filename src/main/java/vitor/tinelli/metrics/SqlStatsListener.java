@@ -0,0 +1,64 @@
+package vitor.tinelli.metrics;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.springframework.stereotype.Component;
+import vitor.tinelli.config.SqlInstrumentationProperties;
+
+/**
+ * Adds every statement to the current request's {@link RequestSqlStats} and logs the ones slower
+ * than {@code sql.instrumentation.slow-query-threshold}, with bind parameters and the controller
+ * method that issued them. The {@code sql} logger is asynchronous (see logback-spring.xml), so a
+ * burst of slow queries does not also slow down the requests that log them.
+ */
+@Slf4j(topic = "sql")
+@Component
+@RequiredArgsConstructor
+public class SqlStatsListener implements QueryExecutionListener {
+
+  private static final String START_NANOS = "startNanos";
+
+  private final SqlInstrumentationProperties sqlInstrumentationProperties;
+
+  @Override
+  public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    execInfo.addCustomValue(START_NANOS, System.nanoTime());
+  }
+
+  @Override
+  public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    long elapsedNanos = System.nanoTime() - execInfo.getCustomValue(START_NANOS, Long.class);
+    RequestSqlStats stats = RequestSqlStats.current();
+    if (stats != null) {
+      stats.record(elapsedNanos);
+    }
+    if (elapsedNanos >= sqlInstrumentationProperties.getSlowQueryThreshold().toNanos()) {
+      log.warn("slow_query elapsed_ms={} handler={} batch_size={} success={} sql=\"{}\" params={}",
+          elapsedNanos / 1_000_000, stats == null ? "none" : stats.handler(), execInfo.getBatchSize(),
+          execInfo.isSuccess(),
+          queryInfoList.stream().map(QueryInfo::getQuery).collect(Collectors.joining("; ")),
+          queryInfoList.stream().map(SqlStatsListener::parameters).collect(Collectors.toList()));
+    }
+  }
+
+  private static List<Map<Object, Object>> parameters(QueryInfo queryInfo) {
+    return queryInfo.getParametersList().stream()
+        .map(operations -> {
+          Map<Object, Object> byIndex = new TreeMap<>();
+          for (ParameterSetOperation operation : operations) {
+            Object[] args = operation.getArgs();
+            byIndex.put(args[0], args.length > 1 ? args[1] : null);
+          }
+          return byIndex;
+        })
+        .collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,39 @@
+package vitor.tinelli.pagination;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import vitor.tinelli.exception.BadRequestException;
+
+/**
+ * Opaque keyset cursor handed to clients. It wraps the last id of a page so callers never build
+ * it themselves and the encoding can change without breaking them.
+ */
+public final class ContinuationToken {
+
+  public static final long FIRST_PAGE = 0L;
+
+  private static final String PREFIX = "k1:";
+
+  private ContinuationToken() {
+  }
+
+  public static String encode(long lastId) {
+    return Base64.getUrlEncoder().withoutPadding()
+        .encodeToString((PREFIX + lastId).getBytes(StandardCharsets.UTF_8));
+  }
+
+  public static long decode(String token) {
+    if (token == null || token.isBlank()) {
+      return FIRST_PAGE;
+    }
+    try {
+      String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+      if (!decoded.startsWith(PREFIX)) {
+        throw new BadRequestException("Invalid continuation token");
+      }
+      return Long.parseLong(decoded.substring(PREFIX.length()));
+    } catch (IllegalArgumentException e) {
+      throw new BadRequestException("Invalid continuation token");
+    }
+  }
+}
@@ -0,0 +1,26 @@
+package vitor.tinelli.pagination;
+
+import java.util.List;
+import java.util.function.ToLongFunction;
+import lombok.Value;
+
+@Value
+public class KeysetPage<T> {
+
+  List<T> content;
+  int size;
+  String next;
+
+  /**
+   * Builds a page from rows fetched with a limit of {@code size + 1}; the extra row only tells us
+   * whether another page exists and is never returned.
+   */
+  public static <T> KeysetPage<T> of(List<T> rows, int size, ToLongFunction<T> idExtractor) {
+    if (rows.size() <= size) {
+      return new KeysetPage<>(rows, size, null);
+    }
+    List<T> content = rows.subList(0, size);
+    return new KeysetPage<>(List.copyOf(content), size,
+        ContinuationToken.encode(idExtractor.applyAsLong(content.get(size - 1))));
+  }
+}
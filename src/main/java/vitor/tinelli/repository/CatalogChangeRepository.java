@@ -0,0 +1,29 @@
+package vitor.tinelli.repository;
+
+import java.time.Instant;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import vitor.tinelli.domain.CatalogChange;
+import vitor.tinelli.domain.CatalogChange.Resource;
+
+public interface CatalogChangeRepository extends JpaRepository<CatalogChange, Long> {
+
+  List<CatalogChange> findBySequenceGreaterThanOrderBySequenceAsc(long sequence, Pageable pageable);
+
+  @Query("select coalesce(max(c.sequence), 0L) from CatalogChange c")
+  long maxSequence();
+
+  @Query("select coalesce(max(c.sequence), 0L) from CatalogChange c where c.resource = :resource")
+  long maxSequence(@Param("resource") Resource resource);
+
+  // Keeps the newest numbered change of each resource: list ETags are read from those, and the
+  // newest overall is where CatalogChangeSequencer carries on from.
+  @Modifying
+  @Query("delete from CatalogChange c where c.changedAt < :before and c.sequence <"
+      + " (select max(n.sequence) from CatalogChange n where n.resource = c.resource)")
+  int deleteChangedBefore(@Param("before") Instant before);
+}
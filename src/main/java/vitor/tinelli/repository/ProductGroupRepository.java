@@ -1,6 +1,7 @@
 package vitor.tinelli.repository;
 
 import java.util.List;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import vitor.tinelli.domain.ProductGroup;
 
@@ -8,4 +9,5 @@ public interface ProductGroupRepository extends JpaRepository<ProductGroup, Long
 
   List<ProductGroup> findByName(String name);
 
+  List<ProductGroup> findByIdGreaterThanOrderByIdAsc(long id, Pageable pageable);
 }
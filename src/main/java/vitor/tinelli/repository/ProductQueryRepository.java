@@ -0,0 +1,21 @@
+package vitor.tinelli.repository;
+
+import java.util.List;
+import vitor.tinelli.domain.Product;
+import vitor.tinelli.dto.ProductFacets;
+import vitor.tinelli.requests.ProductFilter;
+
+public interface ProductQueryRepository {
+
+  /**
+   * Products matching every non-null field of {@code filter} with an id above {@code afterId},
+   * in id order, with their references loaded in the same statement.
+   */
+  List<Product> findFiltered(ProductFilter filter, long afterId, int limit);
+
+  /**
+   * Product counts per brand and per group among the products matching {@code filter}, computed
+   * by the database in one statement.
+   */
+  ProductFacets countFacets(ProductFilter filter);
+}
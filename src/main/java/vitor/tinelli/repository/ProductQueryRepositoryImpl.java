@@ -0,0 +1,99 @@
+package vitor.tinelli.repository;
+
+import javax.persistence.EntityGraph;
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import vitor.tinelli.domain.Product;
+import vitor.tinelli.dto.FacetCount;
+import vitor.tinelli.dto.ProductFacets;
+import vitor.tinelli.requests.ProductFilter;
+
+/**
+ * Only the filters that are set become predicates, so every combination gets its own statement
+ * and the planner can pick the matching index from V7__product_filter_indexes.sql, which a single
+ * {@code (:id is null or ...)} query would prevent.
+ */
+@RequiredArgsConstructor
+public class ProductQueryRepositoryImpl implements ProductQueryRepository {
+
+  private static final String BRAND = "brand";
+  private static final String PRODUCT_GROUP = "productGroup";
+
+  private final EntityManager entityManager;
+
+  @Override
+  public List<Product> findFiltered(ProductFilter filter, long afterId, int limit) {
+    CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+    CriteriaQuery<Product> query = builder.createQuery(Product.class);
+    Root<Product> product = query.from(Product.class);
+
+    List<Predicate> predicates = new ArrayList<>();
+    predicates.add(builder.greaterThan(product.<Long>get("id"), afterId));
+    if (filter.getBrand_id() != null) {
+      predicates.add(builder.equal(product.get("brand").get("id"), filter.getBrand_id()));
+    }
+    if (filter.getUnit_id() != null) {
+      predicates.add(builder.equal(product.get("unit").get("id"), filter.getUnit_id()));
+    }
+    if (filter.getProductGroup_id() != null) {
+      predicates.add(builder.equal(product.get("productGroup").get("id"),
+          filter.getProductGroup_id()));
+    }
+    query.where(predicates.toArray(new Predicate[0])).orderBy(builder.asc(product.get("id")));
+
+    EntityGraph<Product> references = entityManager.createEntityGraph(Product.class);
+    references.addAttributeNodes("unit", "productGroup", "brand");
+    return entityManager.createQuery(query)
+        .setHint("javax.persistence.loadgraph", references)
+        .setMaxResults(limit)
+        .getResultList();
+  }
+
+  // Counts are aggregated on product alone and only the grouped rows are joined for names.
+  @Override
+  public ProductFacets countFacets(ProductFilter filter) {
+    String where = " where 1 = 1"
+        + (filter.getBrand_id() != null ? " and p.brand_id = :brandId" : "")
+        + (filter.getUnit_id() != null ? " and p.unit_id = :unitId" : "")
+        + (filter.getProductGroup_id() != null ? " and p.product_group_id = :productGroupId" : "");
+    Query query = entityManager.createNativeQuery(
+        "select '" + BRAND + "' as facet, b.brand_id as id, b.brand_name as name, c.total"
+            + " from (select p.brand_id, count(*) as total from product p" + where
+            + " group by p.brand_id) c"
+            + " join brand b on b.brand_id = c.brand_id"
+            + " union all"
+            + " select '" + PRODUCT_GROUP + "' as facet, g.product_group_id as id,"
+            + " g.product_group_name as name, c.total"
+            + " from (select p.product_group_id, count(*) as total from product p" + where
+            + " group by p.product_group_id) c"
+            + " join product_group g on g.product_group_id = c.product_group_id"
+            + " order by facet, total desc, id");
+    if (filter.getBrand_id() != null) {
+      query.setParameter("brandId", filter.getBrand_id());
+    }
+    if (filter.getUnit_id() != null) {
+      query.setParameter("unitId", filter.getUnit_id());
+    }
+    if (filter.getProductGroup_id() != null) {
+      query.setParameter("productGroupId", filter.getProductGroup_id());
+    }
+
+    List<FacetCount> brands = new ArrayList<>();
+    List<FacetCount> productGroups = new ArrayList<>();
+    for (Object row : query.getResultList()) {
+      Object[] columns = (Object[]) row;
+      FacetCount count = new FacetCount(((Number) columns[1]).longValue(), (String) columns[2],
+          ((Number) columns[3]).longValue());
+      // trimmed because some databases pad the union of two string literals to one length
+      (BRAND.equals(columns[0].toString().trim()) ? brands : productGroups).add(count);
+    }
+    return new ProductFacets(brands, productGroups);
+  }
+}
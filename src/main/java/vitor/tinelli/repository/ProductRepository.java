@@ -1,9 +1,96 @@
 package vitor.tinelli.repository;
 
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
+import javax.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import vitor.tinelli.domain.Product;
+import vitor.tinelli.dto.ProductSuggestion;
+import vitor.tinelli.dto.ProductSummary;
+import vitor.tinelli.dto.ProductVersions;
+
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductQueryRepository,
+    ProductUpdateRepository {
+
+  // Loading unit, productGroup and brand in the same statement avoids one extra
+  // select per distinct reference that the eager @ManyToOne mappings would issue.
+  @Override
+  @EntityGraph(attributePaths = {"unit", "productGroup", "brand"})
+  List<Product> findAll();
 
-public interface ProductRepository extends JpaRepository<Product, Long>{
+  @Override
+  @EntityGraph(attributePaths = {"unit", "productGroup", "brand"})
+  Optional<Product> findById(Long id);
+
+  @EntityGraph(attributePaths = {"unit", "productGroup", "brand"})
   List<Product> findByName(String name);
+
+  @EntityGraph(attributePaths = {"unit", "productGroup", "brand"})
+  List<Product> findByIdGreaterThanOrderByIdAsc(long id, Pageable pageable);
+
+  @EntityGraph(attributePaths = {"unit", "productGroup", "brand"})
+  List<Product> findByIdIn(Collection<Long> ids);
+
+  /**
+   * Ranks products whose name contains {@code contains} or whose words start with the terms of
+   * {@code tsQuery}: exact names first, then names starting with {@code prefix}, then by text rank
+   * and trigram similarity. Only ids are returned so the limit is applied before any joins. Both
+   * predicates are served by the GIN indexes of V6__search_indexes.sql, Postgres only. Hibernate
+   * returns native bigint columns as BigInteger, hence {@code Number}.
+   */
+  @Query(nativeQuery = true, value = "select p.product_id from product p"
+      + " where lower(p.product_name) like :contains"
+      + " or to_tsvector('simple', coalesce(p.product_name, '')) @@ to_tsquery('simple', :tsQuery)"
+      + " order by case when lower(p.product_name) = :term then 0"
+      + " when lower(p.product_name) like :prefix then 1 else 2 end,"
+      + " ts_rank(to_tsvector('simple', coalesce(p.product_name, '')),"
+      + " to_tsquery('simple', :tsQuery)) desc,"
+      + " similarity(lower(p.product_name), :term) desc, p.product_id"
+      + " limit :limit")
+  List<Number> searchIds(@Param("term") String term, @Param("prefix") String prefix,
+      @Param("contains") String contains, @Param("tsQuery") String tsQuery,
+      @Param("limit") int limit);
+
+  @Query("select new vitor.tinelli.dto.ProductVersions(p.version, u.version, g.version, b.version)"
+      + " from Product p left join p.unit u left join p.productGroup g left join p.brand b"
+      + " where p.id = :id")
+  Optional<ProductVersions> findVersionsById(@Param("id") Long id);
+
+  @Query("select new vitor.tinelli.dto.ProductSummary(p.id, p.name, u.name, b.name, g.name)"
+      + " from Product p left join p.unit u left join p.brand b left join p.productGroup g"
+      + " order by p.id")
+  List<ProductSummary> findAllSummaries();
+
+  @Query("select new vitor.tinelli.dto.ProductSummary(p.id, p.name, u.name, b.name, g.name)"
+      + " from Product p left join p.unit u left join p.brand b left join p.productGroup g"
+      + " where p.name = :name")
+  List<ProductSummary> findSummariesByName(@Param("name") String name);
+
+  // Postgres only honours the fetch size (server-side cursor) inside a transaction.
+  @QueryHints({
+      @QueryHint(name = HINT_FETCH_SIZE, value = "1000"),
+      @QueryHint(name = HINT_READONLY, value = "true")
+  })
+  @Query("select p from Product p"
+      + " left join fetch p.unit left join fetch p.productGroup left join fetch p.brand"
+      + " order by p.id")
+  Stream<Product> streamAll();
+
+  @QueryHints({
+      @QueryHint(name = HINT_FETCH_SIZE, value = "1000"),
+      @QueryHint(name = HINT_READONLY, value = "true")
+  })
+  @Query("select new vitor.tinelli.dto.ProductSuggestion(p.id, p.name) from Product p"
+      + " where p.name is not null")
+  Stream<ProductSuggestion> streamSuggestions();
 }
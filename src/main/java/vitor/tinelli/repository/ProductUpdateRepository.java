@@ -0,0 +1,14 @@
+package vitor.tinelli.repository;
+
+import vitor.tinelli.requests.ProductPatchRequestBody;
+
+public interface ProductUpdateRepository {
+
+  /**
+   * Sets the non-null fields of {@code patch} on product {@code id} and bumps its version, in one
+   * {@code UPDATE} that reads nothing first. Unknown reference ids fail on their foreign key.
+   *
+   * @return the number of updated rows, zero when the product does not exist
+   */
+  int patch(long id, ProductPatchRequestBody patch);
+}
@@ -0,0 +1,48 @@
+package vitor.tinelli.repository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaUpdate;
+import javax.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+import vitor.tinelli.domain.Brand;
+import vitor.tinelli.domain.Product;
+import vitor.tinelli.domain.ProductGroup;
+import vitor.tinelli.domain.Unit;
+import vitor.tinelli.requests.ProductPatchRequestBody;
+
+/**
+ * References are bound as {@code getReference} proxies, which only carry the id. A bulk update
+ * skips Hibernate's version check, so the version is incremented explicitly to keep ETags moving.
+ */
+@RequiredArgsConstructor
+public class ProductUpdateRepositoryImpl implements ProductUpdateRepository {
+
+  private final EntityManager entityManager;
+
+  @Override
+  public int patch(long id, ProductPatchRequestBody patch) {
+    CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+    CriteriaUpdate<Product> update = builder.createCriteriaUpdate(Product.class);
+    Root<Product> product = update.from(Product.class);
+
+    if (patch.getName() != null) {
+      update.set(product.<String>get("name"), patch.getName());
+    }
+    if (patch.getBrand_id() != null) {
+      update.set(product.<Brand>get("brand"),
+          entityManager.getReference(Brand.class, patch.getBrand_id()));
+    }
+    if (patch.getProductGroup_id() != null) {
+      update.set(product.<ProductGroup>get("productGroup"),
+          entityManager.getReference(ProductGroup.class, patch.getProductGroup_id()));
+    }
+    if (patch.getUnit_id() != null) {
+      update.set(product.<Unit>get("unit"),
+          entityManager.getReference(Unit.class, patch.getUnit_id()));
+    }
+    update.set(product.<Long>get("version"), builder.sum(product.<Long>get("version"), 1L));
+    update.where(builder.equal(product.get("id"), id));
+    return entityManager.createQuery(update).executeUpdate();
+  }
+}
@@ -17,4 +17,7 @@ public class BrandPutRequestBody {
   @NotBlank(message = "The brand name can't be empty")
   @Schema(description = "This is the brand's name", example = "Coca-Cola")
   private String name;
+
+  @Schema(description = "This is the brand's version the change is based on", example = "3")
+  private Long version;
 }
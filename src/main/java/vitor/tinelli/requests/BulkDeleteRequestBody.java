@@ -0,0 +1,15 @@
+package vitor.tinelli.requests;
+
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import java.util.List;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+@Data
+public class BulkDeleteRequestBody {
+
+  @NotEmpty(message = "The ids can't be empty")
+  @Schema(description = "These are the ids to delete", example = "[1, 2]")
+  private List<@NotNull Long> ids;
+}
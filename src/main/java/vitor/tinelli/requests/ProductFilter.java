@@ -0,0 +1,21 @@
+package vitor.tinelli.requests;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductFilter {
+
+  @Schema(description = "Only products of this brand", example = "1")
+  private Long brand_id;
+
+  @Schema(description = "Only products of this unit", example = "2")
+  private Long unit_id;
+
+  @Schema(description = "Only products of this group", example = "1")
+  private Long productGroup_id;
+}
@@ -16,4 +16,6 @@ public class ProductGroupPutRequestBody {
   @Schema(description = "This is the product group's name", example = "Sucos")
   private String name;
 
+  @Schema(description = "This is the product group's version the change is based on", example = "3")
+  private Long version;
 }
@@ -0,0 +1,25 @@
+package vitor.tinelli.requests;
+
+import javax.validation.constraints.Pattern;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+/**
+ * Fields left out (or null) keep their current value.
+ */
+@Data
+public class ProductPatchRequestBody {
+
+  @Pattern(regexp = ".*\\S.*", message = "The product name can't be blank")
+  @Schema(description = "This is the product's new name", example = "Pepsi Black")
+  private String name;
+
+  @Schema(description = "This is the product's new brand id", example = "1")
+  private Long brand_id;
+
+  @Schema(description = "This is the product's new group id", example = "1")
+  private Long productGroup_id;
+
+  @Schema(description = "This is the product's new unit id", example = "2")
+  private Long unit_id;
+}
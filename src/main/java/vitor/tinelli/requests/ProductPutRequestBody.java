@@ -26,5 +26,6 @@ public class ProductPutRequestBody {
   @Schema(description = "This is the product's unit id", example = "2")
   private Long unit_id;
 
-
+  @Schema(description = "This is the product's version the change is based on", example = "3")
+  private Long version;
 }
@@ -0,0 +1,25 @@
+package vitor.tinelli.requests;
+
+import javax.validation.constraints.NotNull;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+@Data
+public class ProductReassignRequestBody {
+
+  public enum Reference {
+    BRAND, PRODUCT_GROUP, UNIT
+  }
+
+  @NotNull(message = "The reference can't be empty")
+  @Schema(description = "This is the reference to move the products between", example = "BRAND")
+  private Reference reference;
+
+  @NotNull(message = "The current reference id can't be empty")
+  @Schema(description = "Products with this reference id are reassigned", example = "1")
+  private Long from;
+
+  @NotNull(message = "The new reference id can't be empty")
+  @Schema(description = "This is the reference id they get instead", example = "2")
+  private Long to;
+}
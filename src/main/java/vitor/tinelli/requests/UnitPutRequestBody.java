@@ -17,4 +17,6 @@ public class UnitPutRequestBody {
   @Schema(description = "This is the unit's name", example = "Metros")
   private String name;
 
+  @Schema(description = "This is the unit's version the change is based on", example = "3")
+  private Long version;
 }
@@ -0,0 +1,48 @@
+package vitor.tinelli.security;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+/**
+ * Parses the comma separated {@code authorities} column once per distinct value. Accounts share a
+ * handful of role combinations, so every user with {@code "ROLE_USER,ROLE_ADMIN"} gets the same
+ * immutable list back and nothing is allocated on later calls.
+ */
+public final class Authorities {
+
+  // Only a few combinations exist in practice; the cap keeps a bad import from growing it forever.
+  private static final int MAX_CACHED = 256;
+  private static final Map<String, List<GrantedAuthority>> PARSED = new ConcurrentHashMap<>();
+
+  private Authorities() {
+  }
+
+  public static List<GrantedAuthority> of(String authorities) {
+    if (authorities == null) {
+      return List.of();
+    }
+    List<GrantedAuthority> parsed = PARSED.get(authorities);
+    if (parsed != null) {
+      return parsed;
+    }
+    parsed = parse(authorities);
+    if (PARSED.size() < MAX_CACHED) {
+      PARSED.putIfAbsent(authorities, parsed);
+    }
+    return parsed;
+  }
+
+  private static List<GrantedAuthority> parse(String authorities) {
+    return Arrays.stream(authorities.split(","))
+        .map(String::trim)
+        .filter(authority -> !authority.isEmpty())
+        .distinct()
+        .map(SimpleGrantedAuthority::new)
+        .collect(Collectors.toUnmodifiableList());
+  }
+}
@@ -0,0 +1,38 @@
+package vitor.tinelli.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.core.Authentication;
+
+/**
+ * Records how long authentication takes, tagged by outcome, as {@code security.authentication}.
+ * Hit ratio of the principal cache is reported separately by the {@code users} cache metrics.
+ */
+@RequiredArgsConstructor
+public class MeteredAuthenticationProvider implements AuthenticationProvider {
+
+  static final String TIMER_NAME = "security.authentication";
+
+  private final AuthenticationProvider delegate;
+  private final MeterRegistry meterRegistry;
+
+  @Override
+  public Authentication authenticate(Authentication authentication) {
+    Timer.Sample sample = Timer.start(meterRegistry);
+    String result = "failure";
+    try {
+      Authentication authenticated = delegate.authenticate(authentication);
+      result = authenticated != null ? "success" : "skipped";
+      return authenticated;
+    } finally {
+      sample.stop(meterRegistry.timer(TIMER_NAME, "result", result));
+    }
+  }
+
+  @Override
+  public boolean supports(Class<?> authentication) {
+    return delegate.supports(authentication);
+  }
+}
@@ -0,0 +1,39 @@
+package vitor.tinelli.security;
+
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import vitor.tinelli.domain.OnboardingUsers;
+
+/**
+ * Drops a cached principal as soon as this node changes the account. Renames and changes made
+ * outside the application are covered by the {@code onboarding_users} trigger instead.
+ */
+@Component
+@RequiredArgsConstructor
+public class OnboardingUsersCacheEvictionListener {
+
+  // Resolved lazily: Hibernate creates entity listeners while the context is still starting.
+  private final ObjectProvider<UserCache> userCache;
+
+  @PostUpdate
+  @PostRemove
+  public void evict(OnboardingUsers onboardingUsers) {
+    String username = onboardingUsers.getUsername();
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          userCache.ifAvailable(cache -> cache.removeUserFromCache(username));
+        }
+      });
+    } else {
+      userCache.ifAvailable(cache -> cache.removeUserFromCache(username));
+    }
+  }
+}
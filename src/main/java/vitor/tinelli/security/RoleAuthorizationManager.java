@@ -0,0 +1,56 @@
+package vitor.tinelli.security;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.function.Supplier;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+
+/**
+ * Role check for the request matchers that allocates nothing per request: no SpEL evaluation
+ * context, no authority set, and the two possible decisions are shared constants.
+ */
+public final class RoleAuthorizationManager<T> implements AuthorizationManager<T> {
+
+  private static final AuthorizationDecision GRANTED = new AuthorizationDecision(true);
+  private static final AuthorizationDecision DENIED = new AuthorizationDecision(false);
+
+  private final String authority;
+
+  private RoleAuthorizationManager(String authority) {
+    this.authority = authority;
+  }
+
+  public static <T> RoleAuthorizationManager<T> hasRole(String role) {
+    return new RoleAuthorizationManager<>("ROLE_" + role);
+  }
+
+  @Override
+  public AuthorizationDecision check(Supplier<Authentication> authentication, T object) {
+    Authentication current = authentication.get();
+    return current != null && current.isAuthenticated() && hasAuthority(current.getAuthorities())
+        ? GRANTED
+        : DENIED;
+  }
+
+  private boolean hasAuthority(Collection<? extends GrantedAuthority> authorities) {
+    if (authorities instanceof List && authorities instanceof RandomAccess) {
+      List<? extends GrantedAuthority> list = (List<? extends GrantedAuthority>) authorities;
+      for (int i = 0; i < list.size(); i++) {
+        if (authority.equals(list.get(i).getAuthority())) {
+          return true;
+        }
+      }
+      return false;
+    }
+    for (GrantedAuthority grantedAuthority : authorities) {
+      if (authority.equals(grantedAuthority.getAuthority())) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
@@ -0,0 +1,50 @@
+package vitor.tinelli.security;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Optional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Authenticates {@code Authorization: Bearer} requests from the token alone. Requests without a
+ * bearer token fall through to HTTP Basic; a bearer token that does not verify is rejected
+ * outright instead of being treated as anonymous.
+ */
+@RequiredArgsConstructor
+public class TokenAuthenticationFilter extends OncePerRequestFilter {
+
+  private static final String BEARER_PREFIX = "Bearer ";
+
+  private final TokenService tokenService;
+
+  public static boolean hasBearerToken(HttpServletRequest request) {
+    String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+    return header != null && header.regionMatches(true, 0, BEARER_PREFIX, 0, BEARER_PREFIX.length());
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+      FilterChain filterChain) throws ServletException, IOException {
+    if (hasBearerToken(request)) {
+      Optional<Authentication> authentication = tokenService.authenticate(
+          request.getHeader(HttpHeaders.AUTHORIZATION).substring(BEARER_PREFIX.length()).trim());
+      if (authentication.isEmpty()) {
+        response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer error=\"invalid_token\"");
+        response.sendError(HttpServletResponse.SC_UNAUTHORIZED);
+        return;
+      }
+      SecurityContext context = SecurityContextHolder.createEmptyContext();
+      context.setAuthentication(authentication.get());
+      SecurityContextHolder.setContext(context);
+    }
+    filterChain.doFilter(request, response);
+  }
+}
@@ -0,0 +1,117 @@
+package vitor.tinelli.security;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.web.authentication.preauth.PreAuthenticatedAuthenticationToken;
+import vitor.tinelli.config.TokenProperties;
+import vitor.tinelli.dto.TokenResponse;
+
+/**
+ * Issues and verifies short-lived HMAC-signed tokens of the form
+ * {@code base64(username).base64(authorities).expiry.base64(signature)}. Everything needed to
+ * authorize a request is in the token, so verifying one touches neither the database nor a session.
+ */
+public class TokenService {
+
+  private static final String ALGORITHM = "HmacSHA256";
+  private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+  private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+  private final TokenProperties tokenProperties;
+  private final Clock clock;
+  private final SecretKeySpec key;
+  // Initialized once; each signature works on a clone, which skips the provider lookup and key
+  // setup and, unlike a per-thread instance, is not thrown away with every virtual thread.
+  private final Mac prototype;
+
+  public TokenService(TokenProperties tokenProperties, Clock clock) {
+    String secret = tokenProperties.getSecret();
+    if (secret == null || secret.getBytes(StandardCharsets.UTF_8).length < 32) {
+      throw new IllegalStateException("security.token.secret must be at least 32 bytes long");
+    }
+    this.tokenProperties = tokenProperties;
+    this.clock = clock;
+    this.key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+    this.prototype = newMac();
+  }
+
+  public TokenResponse issue(Authentication authentication) {
+    Instant expiresAt = clock.instant().plus(tokenProperties.getTtl());
+    String authorities = authentication.getAuthorities().stream()
+        .map(GrantedAuthority::getAuthority)
+        .collect(Collectors.joining(","));
+    String payload = encode(authentication.getName()) + "." + encode(authorities) + "."
+        + expiresAt.getEpochSecond();
+    return new TokenResponse(payload + "." + ENCODER.encodeToString(sign(payload)), expiresAt);
+  }
+
+  /**
+   * @return the authentication carried by the token, or empty when it is malformed, forged or
+   * expired
+   */
+  public Optional<Authentication> authenticate(String token) {
+    int signatureStart = token.lastIndexOf('.');
+    if (signatureStart < 0) {
+      return Optional.empty();
+    }
+    String payload = token.substring(0, signatureStart);
+    String[] parts = payload.split("\\.", -1);
+    if (parts.length != 3) {
+      return Optional.empty();
+    }
+    try {
+      byte[] signature = DECODER.decode(token.substring(signatureStart + 1));
+      if (!MessageDigest.isEqual(sign(payload), signature)
+          || clock.instant().getEpochSecond() >= Long.parseLong(parts[2])) {
+        return Optional.empty();
+      }
+      List<GrantedAuthority> authorities =
+          AuthorityUtils.commaSeparatedStringToAuthorityList(decode(parts[1]));
+      return Optional.of(new PreAuthenticatedAuthenticationToken(decode(parts[0]), token, authorities));
+    } catch (IllegalArgumentException e) {
+      return Optional.empty();
+    }
+  }
+
+  private byte[] sign(String payload) {
+    return mac().doFinal(payload.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private Mac mac() {
+    try {
+      return (Mac) prototype.clone();
+    } catch (CloneNotSupportedException e) {
+      return newMac();
+    }
+  }
+
+  private Mac newMac() {
+    try {
+      Mac instance = Mac.getInstance(ALGORITHM);
+      instance.init(key);
+      return instance;
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static String encode(String value) {
+    return ENCODER.encodeToString(value.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static String decode(String value) {
+    return new String(DECODER.decode(value), StandardCharsets.UTF_8);
+  }
+}
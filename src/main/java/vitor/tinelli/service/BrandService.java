@@ -1,11 +1,24 @@
 package vitor.tinelli.service;
 
+import java.util.Collection;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import vitor.tinelli.cache.CacheInvalidationPublisher;
+import vitor.tinelli.config.CacheConfig;
+import vitor.tinelli.config.PaginationProperties;
 import vitor.tinelli.domain.Brand;
+import vitor.tinelli.domain.CatalogChange.Operation;
+import vitor.tinelli.domain.CatalogChange.Resource;
 import vitor.tinelli.exception.BadRequestException;
+import vitor.tinelli.pagination.ContinuationToken;
+import vitor.tinelli.pagination.KeysetPage;
 import vitor.tinelli.repository.BrandRepository;
 import vitor.tinelli.requests.BrandPostRequestBody;
 import vitor.tinelli.requests.BrandPutRequestBody;
@@ -15,41 +28,104 @@ import vitor.tinelli.requests.BrandPutRequestBody;
 public class BrandService {
 
   private final BrandRepository brandRepository;
+  private final PaginationProperties paginationProperties;
+  private final CacheInvalidationPublisher cacheInvalidationPublisher;
+  private final CatalogChangeService catalogChangeService;
 
+  @Cacheable(CacheConfig.BRAND_LIST)
   public List<Brand> listAll() {
     return brandRepository.findAll();
   }
 
+  public KeysetPage<Brand> listPage(String continuationToken, Integer size) {
+    int pageSize = paginationProperties.resolvePageSize(size);
+    return KeysetPage.of(brandRepository.findByIdGreaterThanOrderByIdAsc(
+            ContinuationToken.decode(continuationToken), PageRequest.of(0, pageSize + 1)),
+        pageSize, Brand::getId);
+  }
+
+  @Cacheable(CacheConfig.BRANDS_BY_NAME)
   public List<Brand> findByName(String name) {
     return brandRepository.findByName(name);
   }
 
+  public String listEntityTag() {
+    return catalogChangeService.listEntityTag(Resource.BRAND);
+  }
 
+  @Cacheable(CacheConfig.BRANDS)
   public Brand findByIdOrThrowBadRequestException(long id) {
+    // Cached and shared across requests, so never the instance a persistence context tracks.
     return brandRepository.findById(id)
+        .map(brand -> brand.toBuilder().build())
         .orElseThrow(() -> new BadRequestException(
             "Brand not Found, Please verify the provided ID"));
   }
 
+  @CacheEvict(cacheNames = {CacheConfig.BRAND_LIST, CacheConfig.BRANDS_BY_NAME}, allEntries = true)
   @Transactional
   public Brand save(BrandPostRequestBody brandPostRequestBody) {
-    return brandRepository.save(Brand.builder()
+    Brand brand = brandRepository.save(Brand.builder()
         .name(brandPostRequestBody.getName())
         .build());
+    catalogChangeService.record(Resource.BRAND, Operation.CREATED, brand.getId());
+    cacheInvalidationPublisher.publish(CacheConfig.BRAND_CACHES);
+    return brand;
   }
 
+  @Caching(evict = {
+      @CacheEvict(cacheNames = CacheConfig.BRANDS, key = "#id"),
+      @CacheEvict(cacheNames = {CacheConfig.BRAND_LIST, CacheConfig.BRANDS_BY_NAME}, allEntries = true)
+  })
+  @Transactional
   public void delete(long id) {
     brandRepository.delete(findByIdOrThrowBadRequestException(id));
+    catalogChangeService.record(Resource.BRAND, Operation.DELETED, id);
+    cacheInvalidationPublisher.publish(CacheConfig.BRAND_CACHES);
   }
 
+  @Caching(evict = {
+      @CacheEvict(cacheNames = CacheConfig.BRANDS, key = "#brandPutRequestBody.id"),
+      @CacheEvict(cacheNames = {CacheConfig.BRAND_LIST, CacheConfig.BRANDS_BY_NAME}, allEntries = true)
+  })
   @Transactional
   public void replace(BrandPutRequestBody brandPutRequestBody) {
-    Brand savedBrand = findByIdOrThrowBadRequestException(brandPutRequestBody.getId());
+    long id = brandPutRequestBody.getId();
+    // Not the cached copy: its version may already be behind the row's.
+    Brand savedBrand = brandRepository.findById(id)
+        .orElseThrow(() -> new BadRequestException(
+            "Brand not Found, Please verify the provided ID"));
+    Long expectedVersion = brandPutRequestBody.getVersion();
+    if (expectedVersion != null && expectedVersion != savedBrand.getVersion()) {
+      throw new ObjectOptimisticLockingFailureException(Brand.class, savedBrand.getId());
+    }
     Brand brand = Brand.builder()
         .id(savedBrand.getId())
         .name(brandPutRequestBody.getName())
+        .version(savedBrand.getVersion())
         .build();
 
     brandRepository.save(brand);
+    catalogChangeService.record(Resource.BRAND, Operation.UPDATED, savedBrand.getId());
+    cacheInvalidationPublisher.publish(CacheConfig.BRAND_CACHES);
+  }
+
+  /**
+   * Deletes the brands in {@code ids} with one statement; unknown ids are skipped. Fails as a
+   * whole while any of them is still referenced by a product.
+   *
+   * @return how many were deleted
+   */
+  @CacheEvict(cacheNames = {CacheConfig.BRANDS, CacheConfig.BRAND_LIST,
+      CacheConfig.BRANDS_BY_NAME}, allEntries = true)
+  @Transactional
+  public int deleteAll(Collection<Long> ids) {
+    List<Long> deleted = catalogChangeService.recordReturning(Resource.BRAND, Operation.DELETED,
+        "DELETE FROM brand WHERE brand_id = ANY (?) RETURNING brand_id AS id",
+        (Object) ids.toArray(new Long[0]));
+    if (!deleted.isEmpty()) {
+      cacheInvalidationPublisher.publish(CacheConfig.BRAND_CACHES);
+    }
+    return deleted.size();
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,121 @@
+package vitor.tinelli.service;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import vitor.tinelli.config.ChangeFeedProperties;
+
+/**
+ * Gives committed catalog changes their feed sequence. Writers insert changes without one, so an
+ * open transaction holds nothing a reader could skip past; uncommitted rows are invisible here and
+ * get numbered by a later run, after everything committed before them.
+ *
+ * <p>Runs happen on one thread of their own, in short transactions serialized across nodes by an
+ * advisory lock that is held until the numbers are committed. Writers only ask for a run after
+ * they commit ({@link #requestRun}) and never wait for it, and requests made while a run is
+ * queued are folded into it. A scheduled run picks up changes whose writer went away before it
+ * could ask. Every run that numbered something wakes {@link CatalogChangeStream}.
+ */
+@Slf4j
+@Component
+public class CatalogChangeSequencer {
+
+  // Arbitrary key for pg_advisory_xact_lock, shared by every node.
+  private static final long SEQUENCER_LOCK_KEY = 0x636174616c6f67L;
+  private static final int BATCH_SIZE = 1000;
+
+  private final JdbcTemplate jdbcTemplate;
+  private final ChangeFeedProperties changeFeedProperties;
+  private final TransactionTemplate transactionTemplate;
+  private final CatalogChangeStream catalogChangeStream;
+  private final AtomicBoolean runRequested = new AtomicBoolean();
+  private final ExecutorService runner;
+
+  public CatalogChangeSequencer(JdbcTemplate jdbcTemplate,
+      ChangeFeedProperties changeFeedProperties, PlatformTransactionManager transactionManager,
+      CatalogChangeStream catalogChangeStream) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.changeFeedProperties = changeFeedProperties;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.catalogChangeStream = catalogChangeStream;
+    CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("change-sequencer-");
+    threadFactory.setDaemon(true);
+    this.runner = Executors.newSingleThreadExecutor(threadFactory);
+  }
+
+  @PreDestroy
+  public void stop() {
+    runner.shutdownNow();
+  }
+
+  /** Queues a run on the sequencer thread, unless one is queued already, and returns at once. */
+  public void requestRun() {
+    if (runRequested.compareAndSet(false, true)) {
+      runner.execute(this::run);
+    }
+  }
+
+  @Scheduled(fixedDelayString = "${changes.sequencer-interval-ms:5000}")
+  public void sequenceAbandoned() {
+    requestRun();
+  }
+
+  private void run() {
+    runRequested.set(false);
+    try {
+      if (sequencePending() > 0) {
+        catalogChangeStream.committed();
+      }
+    } catch (RuntimeException e) {
+      log.warn("Numbering catalog changes failed, retrying on the next run", e);
+    }
+  }
+
+  /**
+   * Numbers every committed change that has no sequence yet, in the order they were recorded.
+   * Only the sequencer thread calls this, so on H2, where the advisory lock is disabled, runs still
+   * never overlap.
+   *
+   * @return how many changes were numbered
+   */
+  int sequencePending() {
+    int total = 0;
+    int batch;
+    do {
+      batch = transactionTemplate.execute(status -> sequenceBatch());
+      total += batch;
+    } while (batch == BATCH_SIZE);
+    return total;
+  }
+
+  private int sequenceBatch() {
+    if (changeFeedProperties.isSequencerLockEnabled()) {
+      jdbcTemplate.queryForRowSet("SELECT pg_advisory_xact_lock(?)", SEQUENCER_LOCK_KEY);
+    }
+    List<Long> ids = jdbcTemplate.queryForList(
+        "SELECT id FROM catalog_change WHERE sequence IS NULL ORDER BY id LIMIT ?", Long.class,
+        BATCH_SIZE);
+    if (ids.isEmpty()) {
+      return 0;
+    }
+    // The purge keeps the newest row, so numbering never restarts below a consumer's cursor.
+    long sequence = jdbcTemplate.queryForObject(
+        "SELECT coalesce(max(sequence), 0) FROM catalog_change", Long.class);
+    List<Object[]> arguments = new ArrayList<>(ids.size());
+    for (Long id : ids) {
+      arguments.add(new Object[]{++sequence, id});
+    }
+    jdbcTemplate.batchUpdate("UPDATE catalog_change SET sequence = ? WHERE id = ?", arguments);
+    return ids.size();
+  }
+}
@@ -0,0 +1,138 @@
+package vitor.tinelli.service;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import vitor.tinelli.config.ChangeFeedProperties;
+import vitor.tinelli.config.PaginationProperties;
+import vitor.tinelli.domain.CatalogChange;
+import vitor.tinelli.domain.CatalogChange.Operation;
+import vitor.tinelli.domain.CatalogChange.Resource;
+import vitor.tinelli.dto.ChangeFeedPage;
+import vitor.tinelli.exception.BadRequestException;
+import vitor.tinelli.repository.CatalogChangeRepository;
+
+/**
+ * Transactional outbox behind {@code GET /changes}. Services record their writes in the same
+ * transaction, so a change is in the feed exactly when it is committed.
+ *
+ * <p>Changes are recorded without a sequence and take no lock. Once the transaction commits,
+ * {@link CatalogChangeSequencer} is asked to number them in commit order on its own thread, which
+ * then wakes {@link CatalogChangeStream} to push them to its subscribers.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CatalogChangeService {
+
+  private final CatalogChangeRepository catalogChangeRepository;
+  private final JdbcTemplate jdbcTemplate;
+  private final ChangeFeedProperties changeFeedProperties;
+  private final PaginationProperties paginationProperties;
+  private final CatalogChangeSequencer catalogChangeSequencer;
+
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void record(Resource resource, Operation operation, long id) {
+    record(resource, operation, List.of(id));
+  }
+
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void record(Resource resource, Operation operation, Collection<Long> ids) {
+    if (ids.isEmpty()) {
+      return;
+    }
+    jdbcTemplate.batchUpdate("INSERT INTO catalog_change"
+            + " (resource, entity_id, operation, changed_at) VALUES (?, ?, ?, CURRENT_TIMESTAMP)",
+        ids.stream()
+            .map(id -> new Object[]{resource.name(), id, operation.name()})
+            .collect(Collectors.toList()));
+    sequenceAfterCommit();
+  }
+
+  /**
+   * Runs {@code modifyingSql}, an {@code UPDATE} or {@code DELETE} ending in
+   * {@code RETURNING <id column> AS id}, and records a change for every row it returns. Both
+   * happen in one statement, so a set-based write and its feed entries cannot drift apart.
+   * Postgres only (data-modifying {@code WITH}).
+   *
+   * @return ids of the rows the statement changed
+   */
+  @Transactional(propagation = Propagation.MANDATORY)
+  public List<Long> recordReturning(Resource resource, Operation operation, String modifyingSql,
+      Object... args) {
+    Object[] parameters = Arrays.copyOf(args, args.length + 2);
+    parameters[args.length] = resource.name();
+    parameters[args.length + 1] = operation.name();
+    List<Long> ids = jdbcTemplate.queryForList("WITH changed AS (" + modifyingSql + "),"
+        + " recorded AS (INSERT INTO catalog_change (resource, entity_id, operation, changed_at)"
+        + " SELECT ?, id, ?, CURRENT_TIMESTAMP FROM changed)"
+        + " SELECT id FROM changed ORDER BY id", Long.class, parameters);
+    if (!ids.isEmpty()) {
+      sequenceAfterCommit();
+    }
+    return ids;
+  }
+
+  private void sequenceAfterCommit() {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          catalogChangeSequencer.requestRun();
+        }
+      });
+    }
+  }
+
+  /**
+   * ETag for every list of {@code resource}: the newest change recorded for it. Changes are
+   * numbered after they commit, so a read in between gets the new rows under the previous tag and
+   * is sent them again once the tag moves, never the other way around.
+   */
+  public String listEntityTag(Resource resource) {
+    return "\"" + catalogChangeRepository.maxSequence(resource) + "\"";
+  }
+
+  /** Same as {@link #listEntityTag(Resource)}, over the changes of every resource. */
+  public String listEntityTag() {
+    return "\"" + catalogChangeRepository.maxSequence() + "\"";
+  }
+
+  public ChangeFeedPage changesSince(long since, Integer size) {
+    if (since < 0) {
+      throw new BadRequestException("since must not be negative");
+    }
+    int pageSize = paginationProperties.resolvePageSize(size);
+    List<CatalogChange> rows = catalogChangeRepository.findBySequenceGreaterThanOrderBySequenceAsc(
+        since, PageRequest.of(0, pageSize + 1));
+    if (rows.size() <= pageSize) {
+      long next = rows.isEmpty() ? since : rows.get(rows.size() - 1).getSequence();
+      return new ChangeFeedPage(rows, next, false);
+    }
+    List<CatalogChange> changes = List.copyOf(rows.subList(0, pageSize));
+    return new ChangeFeedPage(changes, changes.get(pageSize - 1).getSequence(), true);
+  }
+
+  @Scheduled(fixedDelayString = "${changes.purge-interval-ms:3600000}")
+  @Transactional
+  public void purge() {
+    int purged = catalogChangeRepository.deleteChangedBefore(
+        Instant.now().minus(changeFeedProperties.getRetention()));
+    if (purged > 0) {
+      log.info("Purged {} catalog changes older than {}", purged,
+          changeFeedProperties.getRetention());
+    }
+  }
+}
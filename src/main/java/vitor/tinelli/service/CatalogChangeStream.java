@@ -0,0 +1,348 @@
+package vitor.tinelli.service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import vitor.tinelli.config.ChangeFeedProperties;
+import vitor.tinelli.domain.CatalogChange;
+import vitor.tinelli.exception.BadRequestException;
+import vitor.tinelli.repository.CatalogChangeRepository;
+
+/**
+ * Pushes committed catalog changes to {@code GET /changes/stream} subscribers as server-sent
+ * events, using the change sequence as the event id.
+ *
+ * <p>{@link CatalogChangeSequencer} wakes the stream whenever it has numbered new changes. One
+ * query then reads everything numbered since the previous one and hands it to every subscriber,
+ * however many there are. Each subscriber only has a bounded buffer, drained by a shared pool of
+ * sender threads. A subscriber whose buffer fills up stops buffering and catches up from the
+ * outbox instead, on a separate replay pool, so a burst never costs anyone their connection.
+ *
+ * <p>A subscriber whose send is still blocked after {@code changes.stream.send-timeout} is
+ * disconnected, and reconnects with {@code Last-Event-ID}. Neither completing the emitter, which
+ * waits for the write, nor completing the async context fails a blocked write; only the
+ * connector's write timeout, {@code server.tomcat.connection-timeout}, does. Until then its pool
+ * gets a spare thread, up to {@code changes.stream.max-spare-threads} per pool. Sends are checked
+ * on every heartbeat, which also wakes the stream, so commits made on other nodes arrive within
+ * {@code changes.stream.heartbeat-interval-ms}.
+ *
+ * <p>Publishes {@code changes.stream.subscribers}, {@code changes.stream.replays} and
+ * {@code changes.stream.disconnected}.
+ */
+@Slf4j
+@Service
+public class CatalogChangeStream {
+
+  private static final int PAGE_SIZE = 500;
+
+  private final CatalogChangeRepository catalogChangeRepository;
+  private final ChangeFeedProperties.Stream properties;
+  private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+  private final AtomicBoolean fetchScheduled = new AtomicBoolean();
+  private final ExecutorService fetcher;
+  private final ThreadPoolExecutor senders;
+  private final ThreadPoolExecutor replayers;
+  private final Counter laggingConsumers;
+  private final Counter slowConsumers;
+
+  // Only written by the fetcher thread once initialized.
+  private volatile long lastFetched;
+
+  public CatalogChangeStream(CatalogChangeRepository catalogChangeRepository,
+      ChangeFeedProperties changeFeedProperties, MeterRegistry meterRegistry) {
+    this.catalogChangeRepository = catalogChangeRepository;
+    this.properties = changeFeedProperties.getStream();
+    this.fetcher = Executors.newSingleThreadExecutor(daemonThreads("change-stream-fetch-"));
+    this.senders = pool(properties.getSenderThreads(), "change-stream-send-");
+    this.replayers = pool(properties.getReplayThreads(), "change-stream-replay-");
+    this.laggingConsumers = Counter.builder("changes.stream.replays")
+        .description("Times a subscriber's buffer was full and it caught up from the outbox")
+        .register(meterRegistry);
+    this.slowConsumers = Counter.builder("changes.stream.disconnected")
+        .description("Subscribers disconnected because a send took longer than the timeout")
+        .register(meterRegistry);
+    Gauge.builder("changes.stream.subscribers", subscribers, Set::size)
+        .description("Open change stream subscriptions")
+        .register(meterRegistry);
+  }
+
+  // Before the web server starts, so no commit can slip in between.
+  @PostConstruct
+  public void start() {
+    lastFetched = catalogChangeRepository.maxSequence();
+  }
+
+  @PreDestroy
+  public void stop() {
+    fetcher.shutdownNow();
+    senders.shutdownNow();
+    replayers.shutdownNow();
+    subscribers.forEach(Subscriber::complete);
+  }
+
+  /**
+   * Opens a subscription. With {@code since}, changes after that sequence are replayed from the
+   * outbox before live ones; without it, only changes committed from now on are sent.
+   */
+  public SseEmitter subscribe(Long since) {
+    if (since != null && since < 0) {
+      throw new BadRequestException("since must not be negative");
+    }
+    SseEmitter emitter = new SseEmitter(properties.getTimeout().toMillis());
+    Subscriber subscriber = new Subscriber(emitter, since);
+    emitter.onCompletion(subscriber::close);
+    emitter.onTimeout(() -> {
+      subscriber.close();
+      subscriber.complete();
+    });
+    emitter.onError(error -> subscriber.close());
+    // Joining before the replay starts means any change is either replayed or buffered.
+    subscribers.add(subscriber);
+    if (since != null) {
+      subscriber.schedule();
+    }
+    return emitter;
+  }
+
+  /**
+   * Reads and fans out whatever was committed since the last call. Runs on the fetcher thread and
+   * calls made while a read is already queued are folded into it.
+   */
+  public void committed() {
+    if (fetchScheduled.compareAndSet(false, true)) {
+      fetcher.execute(this::fetch);
+    }
+  }
+
+  @Scheduled(fixedDelayString = "${changes.stream.heartbeat-interval-ms:15000}")
+  public void heartbeat() {
+    if (subscribers.isEmpty()) {
+      return;
+    }
+    committed();
+    long now = System.nanoTime();
+    subscribers.forEach(subscriber -> subscriber.heartbeat(now));
+  }
+
+  private void fetch() {
+    fetchScheduled.set(false);
+    try {
+      List<CatalogChange> changes;
+      do {
+        changes = catalogChangeRepository.findBySequenceGreaterThanOrderBySequenceAsc(lastFetched,
+            PageRequest.of(0, PAGE_SIZE));
+        for (CatalogChange change : changes) {
+          lastFetched = change.getSequence();
+          subscribers.forEach(subscriber -> subscriber.offer(change));
+        }
+      } while (changes.size() == PAGE_SIZE);
+    } catch (RuntimeException e) {
+      log.warn("Reading committed catalog changes failed, retrying on the next wake-up", e);
+    }
+  }
+
+  private static ThreadPoolExecutor pool(int threads, String prefix) {
+    return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+        new LinkedBlockingQueue<>(), daemonThreads(prefix));
+  }
+
+  // Growing the core size starts a thread for the queued tasks right away. Returns false, leaving
+  // the pool as it is, once it already runs maxSpareThreads threads above its own.
+  static boolean addSpare(ThreadPoolExecutor pool, int threads, int maxSpareThreads) {
+    synchronized (pool) {
+      if (pool.getCorePoolSize() >= threads + maxSpareThreads) {
+        return false;
+      }
+      pool.setMaximumPoolSize(pool.getMaximumPoolSize() + 1);
+      pool.setCorePoolSize(pool.getCorePoolSize() + 1);
+      return true;
+    }
+  }
+
+  static void removeSpare(ThreadPoolExecutor pool) {
+    synchronized (pool) {
+      pool.setCorePoolSize(pool.getCorePoolSize() - 1);
+      pool.setMaximumPoolSize(pool.getMaximumPoolSize() - 1);
+    }
+  }
+
+  private static CustomizableThreadFactory daemonThreads(String prefix) {
+    CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(prefix);
+    threadFactory.setDaemon(true);
+    return threadFactory;
+  }
+
+  private final class Subscriber {
+
+    private final SseEmitter emitter;
+    private final BlockingQueue<CatalogChange> buffer;
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final AtomicBoolean completed = new AtomicBoolean();
+    private volatile boolean closed;
+    private volatile boolean heartbeatDue;
+    // Set while the outbox holds changes this subscriber has neither buffered nor sent.
+    private volatile boolean replayDue;
+    // The pool running the sender task; only reassigned while no task is scheduled.
+    private volatile ThreadPoolExecutor pool;
+
+    // Only touched by the sender task, which never runs twice at once for a subscriber.
+    private long lastSent;
+
+    // Guarded by this, shared between the sender task and the heartbeat.
+    private boolean sending;
+    private long sendStarted;
+    private boolean stalled;
+    private boolean spare;
+
+    private Subscriber(SseEmitter emitter, Long since) {
+      this.emitter = emitter;
+      this.buffer = new ArrayBlockingQueue<>(properties.getBufferSize());
+      this.replayDue = since != null;
+      this.lastSent = since == null ? 0 : since;
+    }
+
+    private void offer(CatalogChange change) {
+      if (closed || replayDue) {
+        return;
+      }
+      if (!buffer.offer(change)) {
+        laggingConsumers.increment();
+        replayDue = true;
+      }
+      schedule();
+    }
+
+    private void heartbeat(long now) {
+      if (stalledSince(now)) {
+        slowConsumers.increment();
+        close();
+        return;
+      }
+      heartbeatDue = true;
+      schedule();
+    }
+
+    private synchronized boolean stalledSince(long now) {
+      if (!sending || stalled || now - sendStarted < properties.getSendTimeout().toNanos()) {
+        return false;
+      }
+      stalled = true;
+      int threads = pool == senders ? properties.getSenderThreads() : properties.getReplayThreads();
+      spare = addSpare(pool, threads, properties.getMaxSpareThreads());
+      return true;
+    }
+
+    private void schedule() {
+      if (scheduled.compareAndSet(false, true)) {
+        pool = replayDue ? replayers : senders;
+        pool.execute(this::send);
+      }
+    }
+
+    // Completing waits for a write in progress, so it is left to the sender task; whoever
+    // closes a subscriber never blocks on it.
+    private void close() {
+      closed = true;
+      subscribers.remove(this);
+      buffer.clear();
+    }
+
+    private void complete() {
+      if (completed.compareAndSet(false, true)) {
+        emitter.complete();
+      }
+    }
+
+    private void send() {
+      try {
+        if (replayDue) {
+          replay();
+        }
+        CatalogChange change;
+        while (!closed && !replayDue && (change = buffer.poll()) != null) {
+          if (change.getSequence() > lastSent) {
+            emit(change);
+          }
+        }
+        if (heartbeatDue && !closed) {
+          heartbeatDue = false;
+          write(SseEmitter.event().comment("heartbeat"));
+        }
+      } catch (IOException | RuntimeException e) {
+        close();
+      } finally {
+        if (closed) {
+          complete();
+        }
+        scheduled.set(false);
+        if (!closed && (!buffer.isEmpty() || heartbeatDue || replayDue)) {
+          schedule();
+        }
+      }
+    }
+
+    // Whatever the fetcher hands over from here on is either read below or buffered after it;
+    // buffered duplicates are skipped by sequence.
+    private void replay() throws IOException {
+      replayDue = false;
+      buffer.clear();
+      long from = lastSent;
+      List<CatalogChange> changes;
+      do {
+        changes = catalogChangeRepository.findBySequenceGreaterThanOrderBySequenceAsc(from,
+            PageRequest.of(0, PAGE_SIZE));
+        for (CatalogChange change : changes) {
+          emit(change);
+          from = change.getSequence();
+        }
+      } while (changes.size() == PAGE_SIZE && !closed);
+    }
+
+    private void emit(CatalogChange change) throws IOException {
+      write(SseEmitter.event()
+          .id(String.valueOf(change.getSequence()))
+          .data(change, MediaType.APPLICATION_JSON));
+      lastSent = change.getSequence();
+    }
+
+    private void write(SseEmitter.SseEventBuilder event) throws IOException {
+      synchronized (this) {
+        sending = true;
+        sendStarted = System.nanoTime();
+      }
+      try {
+        emitter.send(event);
+      } finally {
+        synchronized (this) {
+          sending = false;
+          if (spare) {
+            removeSpare(pool);
+          }
+          stalled = false;
+          spare = false;
+        }
+      }
+    }
+  }
+}
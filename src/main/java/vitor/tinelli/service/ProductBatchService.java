@@ -0,0 +1,98 @@
+package vitor.tinelli.service;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import vitor.tinelli.config.IngestionProperties;
+import vitor.tinelli.dto.ProductBatchItemResult;
+import vitor.tinelli.dto.ProductBatchResult;
+import vitor.tinelli.requests.ProductPostRequestBody;
+
+/**
+ * Reads a JSON array or newline-delimited JSON stream of products item by item and commits them
+ * in chunks, so neither the request nor a single transaction has to hold the whole feed.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductBatchService {
+
+  private final ProductService productService;
+  private final ObjectMapper objectMapper;
+  private final Validator validator;
+  private final IngestionProperties ingestionProperties;
+
+  public ProductBatchResult ingest(InputStream inputStream) throws IOException {
+    ProductBatchResult result = new ProductBatchResult();
+    Map<Integer, ProductPostRequestBody> chunk = new LinkedHashMap<>();
+    int index = 0;
+
+    try (MappingIterator<ProductPostRequestBody> items = objectMapper
+        .readerFor(ProductPostRequestBody.class)
+        .readValues(inputStream)) {
+      while (items.hasNextValue()) {
+        ProductPostRequestBody item = items.nextValue();
+        String error = validate(item);
+        if (error == null) {
+          chunk.put(index, item);
+        } else {
+          result.add(ProductBatchItemResult.failed(index, error));
+        }
+        index++;
+
+        if (chunk.size() == ingestionProperties.getChunkSize()) {
+          save(chunk, result);
+          chunk = new LinkedHashMap<>();
+        }
+      }
+    } catch (JsonProcessingException e) {
+      // The stream cannot be resynchronised after malformed input; report it and keep what we have.
+      result.add(ProductBatchItemResult.failed(index, "Malformed item: " + e.getOriginalMessage()));
+    }
+
+    if (!chunk.isEmpty()) {
+      save(chunk, result);
+    }
+    result.getItems().sort(Comparator.comparingInt(ProductBatchItemResult::getIndex));
+    return result;
+  }
+
+  // Earlier chunks are committed already, so a failing chunk is reported item by item rather than
+  // aborting the ingest; the client can resend exactly the items that failed.
+  private void save(Map<Integer, ProductPostRequestBody> chunk, ProductBatchResult result) {
+    try {
+      productService.saveBatch(chunk).forEach(result::add);
+    } catch (RuntimeException e) {
+      log.warn("Saving a chunk of {} products from item {} failed, it was rolled back",
+          chunk.size(), chunk.keySet().iterator().next(), e);
+      String error = e instanceof DataIntegrityViolationException
+          ? "Not saved, its chunk was rolled back: a referenced ID does not exist"
+          : "Not saved, its chunk was rolled back";
+      chunk.keySet().forEach(index -> result.add(ProductBatchItemResult.failed(index, error)));
+    }
+  }
+
+  private String validate(ProductPostRequestBody item) {
+    Set<ConstraintViolation<ProductPostRequestBody>> violations = validator.validate(item);
+    if (violations.isEmpty()) {
+      return null;
+    }
+    return violations.stream()
+        .map(ConstraintViolation::getMessage)
+        .sorted()
+        .collect(Collectors.joining(", "));
+  }
+}
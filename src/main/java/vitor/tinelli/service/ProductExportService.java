@@ -0,0 +1,48 @@
+package vitor.tinelli.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPOutputStream;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import vitor.tinelli.domain.Product;
+
+@Service
+@RequiredArgsConstructor
+public class ProductExportService {
+
+  private static final int GZIP_BUFFER_SIZE = 8192;
+
+  private final ProductService productService;
+  private final ObjectMapper objectMapper;
+
+  public void writeNdjson(OutputStream outputStream, boolean gzip) throws IOException {
+    GZIPOutputStream gzipStream = gzip ? new GZIPOutputStream(outputStream, GZIP_BUFFER_SIZE) : null;
+    ObjectWriter writer = objectMapper.writerFor(Product.class)
+        .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+    try (JsonGenerator generator = objectMapper.getFactory()
+        .createGenerator(gzip ? gzipStream : outputStream)) {
+      generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+      generator.setRootValueSeparator(null);
+
+      productService.exportAll(product -> {
+        try {
+          writer.writeValue(generator, product);
+          generator.writeRaw('\n');
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      });
+    }
+
+    if (gzipStream != null) {
+      gzipStream.finish();
+    }
+  }
+}
@@ -1,11 +1,24 @@
 package vitor.tinelli.service;
 
+import java.util.Collection;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import vitor.tinelli.cache.CacheInvalidationPublisher;
+import vitor.tinelli.config.CacheConfig;
+import vitor.tinelli.config.PaginationProperties;
+import vitor.tinelli.domain.CatalogChange.Operation;
+import vitor.tinelli.domain.CatalogChange.Resource;
 import vitor.tinelli.domain.ProductGroup;
 import vitor.tinelli.exception.BadRequestException;
+import vitor.tinelli.pagination.ContinuationToken;
+import vitor.tinelli.pagination.KeysetPage;
 import vitor.tinelli.repository.ProductGroupRepository;
 import vitor.tinelli.requests.ProductGroupPostRequestBody;
 import vitor.tinelli.requests.ProductGroupPutRequestBody;
@@ -15,41 +28,102 @@ import vitor.tinelli.requests.ProductGroupPutRequestBody;
 public class ProductGroupService {
 
   private final ProductGroupRepository productGroupRepository;
+  private final PaginationProperties paginationProperties;
+  private final CacheInvalidationPublisher cacheInvalidationPublisher;
+  private final CatalogChangeService catalogChangeService;
 
+  @Cacheable(CacheConfig.PRODUCT_GROUP_LIST)
   public List<ProductGroup> listAll() {
     return productGroupRepository.findAll();
   }
 
+  public KeysetPage<ProductGroup> listPage(String continuationToken, Integer size) {
+    int pageSize = paginationProperties.resolvePageSize(size);
+    return KeysetPage.of(productGroupRepository.findByIdGreaterThanOrderByIdAsc(
+            ContinuationToken.decode(continuationToken), PageRequest.of(0, pageSize + 1)),
+        pageSize, ProductGroup::getId);
+  }
+
+  @Cacheable(CacheConfig.PRODUCT_GROUPS_BY_NAME)
   public List<ProductGroup> findByName(String name) {
     return productGroupRepository.findByName(name);
   }
 
+  public String listEntityTag() {
+    return catalogChangeService.listEntityTag(Resource.PRODUCT_GROUP);
+  }
 
+  @Cacheable(CacheConfig.PRODUCT_GROUPS)
   public ProductGroup findByIdOrThrowBadRequestException(long id) {
     return productGroupRepository.findById(id)
+        .map(productGroup -> productGroup.toBuilder().build())
         .orElseThrow(() -> new BadRequestException(
             "Product group not Found, Please verify the provided ID"));
   }
 
+  @CacheEvict(cacheNames = {CacheConfig.PRODUCT_GROUP_LIST, CacheConfig.PRODUCT_GROUPS_BY_NAME},
+      allEntries = true)
   @Transactional
   public ProductGroup save(ProductGroupPostRequestBody productGroupPostRequestBody) {
-    return productGroupRepository.save(ProductGroup.builder()
+    ProductGroup productGroup = productGroupRepository.save(ProductGroup.builder()
         .name(productGroupPostRequestBody.getName())
         .build());
+    catalogChangeService.record(Resource.PRODUCT_GROUP, Operation.CREATED, productGroup.getId());
+    cacheInvalidationPublisher.publish(CacheConfig.PRODUCT_GROUP_CACHES);
+    return productGroup;
   }
 
+  @Caching(evict = {
+      @CacheEvict(cacheNames = CacheConfig.PRODUCT_GROUPS, key = "#id"),
+      @CacheEvict(cacheNames = {CacheConfig.PRODUCT_GROUP_LIST, CacheConfig.PRODUCT_GROUPS_BY_NAME},
+          allEntries = true)
+  })
+  @Transactional
   public void delete(long id) {
     productGroupRepository.delete(findByIdOrThrowBadRequestException(id));
+    catalogChangeService.record(Resource.PRODUCT_GROUP, Operation.DELETED, id);
+    cacheInvalidationPublisher.publish(CacheConfig.PRODUCT_GROUP_CACHES);
   }
 
+  @Caching(evict = {
+      @CacheEvict(cacheNames = CacheConfig.PRODUCT_GROUPS, key = "#productGroupPutRequestBody.id"),
+      @CacheEvict(cacheNames = {CacheConfig.PRODUCT_GROUP_LIST, CacheConfig.PRODUCT_GROUPS_BY_NAME},
+          allEntries = true)
+  })
   @Transactional
   public void replace(ProductGroupPutRequestBody productGroupPutRequestBody) {
-    ProductGroup savedProductGroup = findByIdOrThrowBadRequestException(productGroupPutRequestBody.getId());
+    long id = productGroupPutRequestBody.getId();
+    ProductGroup savedProductGroup = productGroupRepository.findById(id)
+        .orElseThrow(() -> new BadRequestException(
+            "Product group not Found, Please verify the provided ID"));
+    Long expectedVersion = productGroupPutRequestBody.getVersion();
+    if (expectedVersion != null && expectedVersion != savedProductGroup.getVersion()) {
+      throw new ObjectOptimisticLockingFailureException(ProductGroup.class,
+          savedProductGroup.getId());
+    }
     ProductGroup productGroup = ProductGroup.builder()
         .id(savedProductGroup.getId())
         .name(productGroupPutRequestBody.getName())
+        .version(savedProductGroup.getVersion())
         .build();
 
     productGroupRepository.save(productGroup);
+    catalogChangeService.record(Resource.PRODUCT_GROUP, Operation.UPDATED,
+        savedProductGroup.getId());
+    cacheInvalidationPublisher.publish(CacheConfig.PRODUCT_GROUP_CACHES);
+  }
+
+  @CacheEvict(cacheNames = {CacheConfig.PRODUCT_GROUPS, CacheConfig.PRODUCT_GROUP_LIST,
+      CacheConfig.PRODUCT_GROUPS_BY_NAME}, allEntries = true)
+  @Transactional
+  public int deleteAll(Collection<Long> ids) {
+    List<Long> deleted = catalogChangeService.recordReturning(Resource.PRODUCT_GROUP,
+        Operation.DELETED, "DELETE FROM product_group WHERE product_group_id = ANY (?)"
+            + " RETURNING product_group_id AS id",
+        (Object) ids.toArray(new Long[0]));
+    if (!deleted.isEmpty()) {
+      cacheInvalidationPublisher.publish(CacheConfig.PRODUCT_GROUP_CACHES);
+    }
+    return deleted.size();
   }
-}
\ No newline at end of file
+}
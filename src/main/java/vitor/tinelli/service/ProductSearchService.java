@@ -0,0 +1,72 @@
+package vitor.tinelli.service;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import vitor.tinelli.config.SearchProperties;
+import vitor.tinelli.domain.Product;
+import vitor.tinelli.exception.BadRequestException;
+import vitor.tinelli.repository.ProductRepository;
+
+@Service
+@RequiredArgsConstructor
+public class ProductSearchService {
+
+  private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+  private final ProductRepository productRepository;
+  private final SearchProperties searchProperties;
+
+  /**
+   * Case-insensitive search over product names, best matches first: exact name, then prefix, then
+   * any word starting with every term (so "cola ze" finds "Coca-Cola Zero"), then substring.
+   * Ranked ids come from the index first and the page is loaded afterwards, in two statements.
+   */
+  @Transactional(readOnly = true)
+  public List<Product> search(String query, Integer limit) {
+    String term = query == null ? "" : query.trim().toLowerCase(Locale.ROOT);
+    if (term.length() < searchProperties.getMinQueryLength()) {
+      throw new BadRequestException("Search query must have at least "
+          + searchProperties.getMinQueryLength() + " characters");
+    }
+    String tsQuery = toPrefixTsQuery(term);
+    if (tsQuery.isEmpty()) {
+      throw new BadRequestException("Search query must contain letters or digits");
+    }
+    String escaped = escapeLike(term);
+    List<Long> ids = productRepository.searchIds(term, escaped + "%", "%" + escaped + "%",
+            tsQuery, searchProperties.resolveLimit(limit)).stream()
+        .map(Number::longValue)
+        .collect(Collectors.toList());
+    if (ids.isEmpty()) {
+      return List.of();
+    }
+    Map<Long, Integer> rank = new HashMap<>();
+    for (int i = 0; i < ids.size(); i++) {
+      rank.put(ids.get(i), i);
+    }
+    return productRepository.findByIdIn(ids).stream()
+        .sorted(Comparator.comparing(product -> rank.get(product.getId())))
+        .collect(Collectors.toList());
+  }
+
+  // Only letters and digits reach to_tsquery, so user input can never inject tsquery operators.
+  static String toPrefixTsQuery(String term) {
+    return Arrays.stream(NON_WORD.split(term))
+        .filter(word -> !word.isEmpty())
+        .map(word -> word + ":*")
+        .collect(Collectors.joining(" & "));
+  }
+
+  static String escapeLike(String term) {
+    return term.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+  }
+}
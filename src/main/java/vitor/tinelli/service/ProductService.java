@@ -1,20 +1,45 @@
 package vitor.tinelli.service;
 
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import vitor.tinelli.config.PaginationProperties;
 import vitor.tinelli.domain.Brand;
+import vitor.tinelli.domain.CatalogChange.Operation;
+import vitor.tinelli.domain.CatalogChange.Resource;
 import vitor.tinelli.domain.Product;
 import vitor.tinelli.domain.ProductGroup;
 import vitor.tinelli.domain.Unit;
+import vitor.tinelli.dto.ProductBatchItemResult;
+import vitor.tinelli.dto.ProductQueryResult;
+import vitor.tinelli.dto.ProductSummary;
+import vitor.tinelli.dto.ProductVersions;
 import vitor.tinelli.exception.BadRequestException;
+import vitor.tinelli.pagination.ContinuationToken;
+import vitor.tinelli.pagination.KeysetPage;
 import vitor.tinelli.repository.BrandRepository;
 import vitor.tinelli.repository.ProductGroupRepository;
 import vitor.tinelli.repository.ProductRepository;
 import vitor.tinelli.repository.UnitRepository;
+import vitor.tinelli.requests.ProductFilter;
+import vitor.tinelli.requests.ProductPatchRequestBody;
 import vitor.tinelli.requests.ProductPostRequestBody;
 import vitor.tinelli.requests.ProductPutRequestBody;
+import vitor.tinelli.requests.ProductReassignRequestBody;
 
 
 @Service
@@ -25,16 +50,70 @@ public class ProductService {
   private final ProductGroupRepository productGroupRepository;
   private final BrandRepository brandRepository;
   private final UnitRepository unitRepository;
+  private final ProductGroupService productGroupService;
+  private final BrandService brandService;
+  private final UnitService unitService;
+  private final PaginationProperties paginationProperties;
+  private final EntityManager entityManager;
+  private final ProductSuggestService productSuggestService;
+  private final CatalogChangeService catalogChangeService;
 
   public List<Product> listAll() {
     return productRepository.findAll();
   }
 
+  public KeysetPage<Product> listPage(String continuationToken, Integer size) {
+    int pageSize = paginationProperties.resolvePageSize(size);
+    return KeysetPage.of(productRepository.findByIdGreaterThanOrderByIdAsc(
+            ContinuationToken.decode(continuationToken), PageRequest.of(0, pageSize + 1)),
+        pageSize, Product::getId);
+  }
+
+  public ProductQueryResult query(ProductFilter filter, String continuationToken, Integer size,
+      boolean facets) {
+    int pageSize = paginationProperties.resolvePageSize(size);
+    KeysetPage<Product> page = KeysetPage.of(productRepository.findFiltered(filter,
+        ContinuationToken.decode(continuationToken), pageSize + 1), pageSize, Product::getId);
+    return new ProductQueryResult(page, facets ? productRepository.countFacets(filter) : null);
+  }
+
+  /**
+   * Hands every product to the consumer while the cursor is open, detaching each row once it has
+   * been consumed so the persistence context does not grow with the table.
+   */
+  @Transactional(readOnly = true)
+  public void exportAll(Consumer<Product> consumer) {
+    try (Stream<Product> products = productRepository.streamAll()) {
+      products.forEach(product -> {
+        consumer.accept(product);
+        entityManager.detach(product);
+      });
+    }
+  }
 
   public List<Product> findByName(String name) {
     return productRepository.findByName(name);
   }
 
+  public List<ProductSummary> listSummaries() {
+    return productRepository.findAllSummaries();
+  }
+
+  public List<ProductSummary> findSummariesByName(String name) {
+    return productRepository.findSummariesByName(name);
+  }
+
+  public String entityTag(Long id) {
+    return productRepository.findVersionsById(id)
+        .map(ProductVersions::toETag)
+        .orElseThrow(() -> new BadRequestException("Product not found, please verify the provided ID"));
+  }
+
+  public String listEntityTag() {
+    // Products embed their unit, group and brand, so a change to any of them counts.
+    return catalogChangeService.listEntityTag();
+  }
+
   public Product findByIdOrThrowBadRequestException(Long id) {
     return productRepository.findById(id)
         .orElseThrow(() -> new BadRequestException("Product not found, please verify the provided ID"));
@@ -43,59 +122,224 @@ public class ProductService {
 
   @Transactional
   public Product save(ProductPostRequestBody productPostRequestBody) {
-    ProductGroup productGroup = productGroupRepository.findById(
-            productPostRequestBody.getProductGroup_id())
-        .orElseThrow(() -> new BadRequestException(
-            "ProductGroup not found, check the provided ID"));
-    Brand brand = brandRepository.findById(productPostRequestBody.getBrand_id())
-        .orElseThrow(() -> new BadRequestException(
-            "Brand not found, check the provided ID"));
-    Unit unit = unitRepository.findById(productPostRequestBody.getUnit_id())
-        .orElseThrow(() -> new BadRequestException(
-            "Unit not found, check the provided ID"));
-
-    return productRepository.save(Product.builder()
+    ProductGroup productGroup = productGroupService.findByIdOrThrowBadRequestException(
+        productPostRequestBody.getProductGroup_id());
+    Brand brand = brandService.findByIdOrThrowBadRequestException(
+        productPostRequestBody.getBrand_id());
+    Unit unit = unitService.findByIdOrThrowBadRequestException(
+        productPostRequestBody.getUnit_id());
+
+    // The cached lookups only prove the references exist; the cached instances stay out of the
+    // persistence context.
+    Product product = productRepository.save(Product.builder()
         .name(productPostRequestBody.getName())
+        .brand(entityManager.getReference(Brand.class, brand.getId()))
+        .unit(entityManager.getReference(Unit.class, unit.getId()))
+        .productGroup(entityManager.getReference(ProductGroup.class, productGroup.getId()))
+        .build());
+    catalogChangeService.record(Resource.PRODUCT, Operation.CREATED, product.getId());
+    productSuggestService.saved(product);
+    return Product.builder()
+        .id(product.getId())
+        .name(product.getName())
         .brand(brand)
         .unit(unit)
         .productGroup(productGroup)
-        .build());
+        .version(product.getVersion())
+        .build();
+  }
+
+  /**
+   * Saves one chunk of a bulk import in a single transaction. References are resolved with one
+   * {@code IN (...)} query per type and inserts are flushed as JDBC batches.
+   *
+   * @param itemsByIndex already validated items keyed by their position in the import
+   */
+  @Transactional
+  public List<ProductBatchItemResult> saveBatch(Map<Integer, ProductPostRequestBody> itemsByIndex) {
+    Map<Long, ProductGroup> productGroups = productGroupRepository.findAllById(
+            referencedIds(itemsByIndex, ProductPostRequestBody::getProductGroup_id)).stream()
+        .collect(Collectors.toMap(ProductGroup::getId, Function.identity()));
+    Map<Long, Brand> brands = brandRepository.findAllById(
+            referencedIds(itemsByIndex, ProductPostRequestBody::getBrand_id)).stream()
+        .collect(Collectors.toMap(Brand::getId, Function.identity()));
+    Map<Long, Unit> units = unitRepository.findAllById(
+            referencedIds(itemsByIndex, ProductPostRequestBody::getUnit_id)).stream()
+        .collect(Collectors.toMap(Unit::getId, Function.identity()));
+
+    List<ProductBatchItemResult> results = new ArrayList<>(itemsByIndex.size());
+    List<Integer> indexes = new ArrayList<>(itemsByIndex.size());
+    List<Product> products = new ArrayList<>(itemsByIndex.size());
+
+    itemsByIndex.forEach((index, item) -> {
+      ProductGroup productGroup = productGroups.get(item.getProductGroup_id());
+      Brand brand = brands.get(item.getBrand_id());
+      Unit unit = units.get(item.getUnit_id());
+
+      if (productGroup == null) {
+        results.add(ProductBatchItemResult.failed(index, "ProductGroup not found, check the provided ID"));
+      } else if (brand == null) {
+        results.add(ProductBatchItemResult.failed(index, "Brand not found, check the provided ID"));
+      } else if (unit == null) {
+        results.add(ProductBatchItemResult.failed(index, "Unit not found, check the provided ID"));
+      } else {
+        indexes.add(index);
+        products.add(Product.builder()
+            .name(item.getName())
+            .brand(brand)
+            .unit(unit)
+            .productGroup(productGroup)
+            .build());
+      }
+    });
+
+    List<Product> savedProducts = productRepository.saveAll(products);
+    entityManager.flush();
+    entityManager.clear();
+
+    for (int i = 0; i < savedProducts.size(); i++) {
+      results.add(ProductBatchItemResult.created(indexes.get(i), savedProducts.get(i).getId()));
+      productSuggestService.saved(savedProducts.get(i));
+    }
+    catalogChangeService.record(Resource.PRODUCT, Operation.CREATED, savedProducts.stream()
+        .map(Product::getId)
+        .collect(Collectors.toList()));
+    results.sort(Comparator.comparingInt(ProductBatchItemResult::getIndex));
+    return results;
   }
 
+  private static Set<Long> referencedIds(Map<Integer, ProductPostRequestBody> itemsByIndex,
+      Function<ProductPostRequestBody, Long> idExtractor) {
+    return itemsByIndex.values().stream()
+        .map(idExtractor)
+        .filter(Objects::nonNull)
+        .collect(Collectors.toSet());
+  }
+
+  @Transactional
   public void delete(Long id) {
-    productRepository.delete(findByIdOrThrowBadRequestException(id));
+    Product product = findByIdOrThrowBadRequestException(id);
+    productRepository.delete(product);
+    catalogChangeService.record(Resource.PRODUCT, Operation.DELETED, product.getId());
+    productSuggestService.deleted(product);
   }
 
+  @Transactional
   public void replace(ProductPutRequestBody productPutRequestBody) {
 
     Product savedProduct = productRepository.findById(productPutRequestBody.getId())
         .orElseThrow(() -> new BadRequestException("Product not found"));
+    Long expectedVersion = productPutRequestBody.getVersion();
+    if (expectedVersion != null && expectedVersion != savedProduct.getVersion()) {
+      throw new ObjectOptimisticLockingFailureException(Product.class, savedProduct.getId());
+    }
 
-    if (productPutRequestBody.getBrand_id() != null) {
-      Brand brand = brandRepository.findById(productPutRequestBody.getBrand_id())
-          .orElseThrow(() -> new BadRequestException("Brand not found"));
-      savedProduct.setBrand(brand);
+    Long brandId = productPutRequestBody.getBrand_id();
+    if (brandId != null) {
+      brandService.findByIdOrThrowBadRequestException(brandId);
+      savedProduct.setBrand(entityManager.getReference(Brand.class, brandId));
     }
 
-    if (productPutRequestBody.getProductGroup_id() != null) {
-      ProductGroup productGroup = productGroupRepository.findById(productPutRequestBody.getProductGroup_id())
-          .orElseThrow(() -> new BadRequestException("ProductGroup not found"));
-      savedProduct.setProductGroup(productGroup);
+    Long productGroupId = productPutRequestBody.getProductGroup_id();
+    if (productGroupId != null) {
+      productGroupService.findByIdOrThrowBadRequestException(productGroupId);
+      savedProduct.setProductGroup(entityManager.getReference(ProductGroup.class, productGroupId));
     }
 
-    if (productPutRequestBody.getUnit_id() != null) {
-      Unit unit = unitRepository.findById(productPutRequestBody.getUnit_id())
-          .orElseThrow(() -> new RuntimeException("Unit not found"));
-      savedProduct.setUnit(unit);
+    Long unitId = productPutRequestBody.getUnit_id();
+    if (unitId != null) {
+      unitService.findByIdOrThrowBadRequestException(unitId);
+      savedProduct.setUnit(entityManager.getReference(Unit.class, unitId));
     }
 
+    // Read before the merge below copies the new name onto the managed instance.
+    String oldName = savedProduct.getName();
     productRepository.save(Product.builder()
         .id(savedProduct.getId())
         .name(productPutRequestBody.getName())
         .brand(savedProduct.getBrand())
         .unit(savedProduct.getUnit())
         .productGroup(savedProduct.getProductGroup())
+        .version(savedProduct.getVersion())
         .build());
+    catalogChangeService.record(Resource.PRODUCT, Operation.UPDATED, savedProduct.getId());
+    productSuggestService.replaced(savedProduct.getId(), oldName, productPutRequestBody.getName());
+  }
+
+  /**
+   * Unlike {@link #replace}, reads neither the product nor its references: only the fields set in
+   * {@code patch} are written, by one {@code UPDATE}.
+   */
+  @Transactional
+  public void patch(long id, ProductPatchRequestBody patch) {
+    if (patch.getName() == null && patch.getBrand_id() == null
+        && patch.getProductGroup_id() == null && patch.getUnit_id() == null) {
+      throw new BadRequestException("Nothing to update, provide at least one field");
+    }
+    if (productRepository.patch(id, patch) == 0) {
+      throw new BadRequestException("Product not found, please verify the provided ID");
+    }
+    catalogChangeService.record(Resource.PRODUCT, Operation.UPDATED, id);
+    if (patch.getName() != null) {
+      productSuggestService.renamed(id, patch.getName());
+    }
   }
 
+  /**
+   * Deletes the products in {@code ids} with one statement; unknown ids are skipped.
+   *
+   * @return how many products were deleted
+   */
+  @Transactional
+  public int deleteAll(Collection<Long> ids) {
+    return deleteWhere("product_id = ANY (?)", ids.toArray(new Long[0]));
+  }
+
+  @Transactional
+  public int deleteByBrand(long brandId) {
+    return deleteWhere("brand_id = ?", brandId);
+  }
+
+  @Transactional
+  public int deleteByProductGroup(long productGroupId) {
+    return deleteWhere("product_group_id = ?", productGroupId);
+  }
+
+  /**
+   * Moves every product from one brand, group or unit to another with one statement. A target
+   * that does not exist fails on the foreign key.
+   *
+   * @return how many products were moved
+   */
+  @Transactional
+  public int reassign(ProductReassignRequestBody productReassignRequestBody) {
+    if (productReassignRequestBody.getFrom().equals(productReassignRequestBody.getTo())) {
+      throw new BadRequestException("The current and the new reference must differ");
+    }
+    String column = referenceColumn(productReassignRequestBody.getReference());
+    return catalogChangeService.recordReturning(Resource.PRODUCT, Operation.UPDATED,
+        "UPDATE product SET " + column + " = ?, version = version + 1 WHERE " + column + " = ?"
+            + " RETURNING product_id AS id",
+        productReassignRequestBody.getTo(), productReassignRequestBody.getFrom()).size();
+  }
+
+  private int deleteWhere(String condition, Object argument) {
+    List<Long> ids = catalogChangeService.recordReturning(Resource.PRODUCT, Operation.DELETED,
+        "DELETE FROM product WHERE " + condition + " RETURNING product_id AS id", argument);
+    productSuggestService.deletedAll(ids);
+    return ids.size();
+  }
+
+  private static String referenceColumn(ProductReassignRequestBody.Reference reference) {
+    switch (reference) {
+      case BRAND:
+        return "brand_id";
+      case PRODUCT_GROUP:
+        return "product_group_id";
+      case UNIT:
+        return "unit_id";
+      default:
+        throw new IllegalArgumentException("Unknown reference " + reference);
+    }
+  }
 }
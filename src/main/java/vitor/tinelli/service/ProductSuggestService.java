@@ -0,0 +1,136 @@
+package vitor.tinelli.service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import vitor.tinelli.config.SuggestProperties;
+import vitor.tinelli.domain.Product;
+import vitor.tinelli.dto.ProductSuggestion;
+import vitor.tinelli.exception.BadRequestException;
+import vitor.tinelli.repository.ProductRepository;
+import vitor.tinelli.suggest.ProductNameIndex;
+
+/**
+ * Keeps a {@link ProductNameIndex} of every product in memory for autocomplete. It is loaded once
+ * the application is ready, kept current by {@link ProductService} after each commit, and
+ * reloaded every {@code suggest.rebuild-interval-ms} to pick up changes made elsewhere. Entry count
+ * and estimated heap footprint are published as {@code product.suggest.index.*} gauges.
+ */
+@Slf4j
+@Service
+public class ProductSuggestService {
+
+  private final ProductNameIndex productNameIndex = new ProductNameIndex();
+
+  private final ProductRepository productRepository;
+  private final PlatformTransactionManager transactionManager;
+  private final SuggestProperties suggestProperties;
+
+  public ProductSuggestService(ProductRepository productRepository,
+      PlatformTransactionManager transactionManager, SuggestProperties suggestProperties,
+      MeterRegistry meterRegistry) {
+    this.productRepository = productRepository;
+    this.transactionManager = transactionManager;
+    this.suggestProperties = suggestProperties;
+    Gauge.builder("product.suggest.index.entries", productNameIndex, ProductNameIndex::size)
+        .description("Products in the in-memory suggest index")
+        .register(meterRegistry);
+    Gauge.builder("product.suggest.index.memory", productNameIndex,
+            ProductNameIndex::memoryFootprintBytes)
+        .description("Estimated heap used by the in-memory suggest index")
+        .baseUnit("bytes")
+        .register(meterRegistry);
+  }
+
+  public List<ProductSuggestion> suggest(String prefix, Integer limit) {
+    if (prefix == null || prefix.isBlank()) {
+      throw new BadRequestException("Prefix must not be blank");
+    }
+    return productNameIndex.suggest(prefix.strip(), suggestProperties.resolveLimit(limit));
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  @Scheduled(initialDelayString = "${suggest.rebuild-interval-ms:600000}",
+      fixedDelayString = "${suggest.rebuild-interval-ms:600000}")
+  public void rebuild() {
+    long start = System.nanoTime();
+    TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+    readOnly.setReadOnly(true);
+    readOnly.executeWithoutResult(status -> {
+      try (Stream<ProductSuggestion> products = productRepository.streamSuggestions()) {
+        productNameIndex.rebuild(products);
+      }
+    });
+    log.info("Product suggest index rebuilt: entries={} memory_bytes={} took_ms={}",
+        productNameIndex.size(), productNameIndex.memoryFootprintBytes(),
+        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+  }
+
+  public void saved(Product product) {
+    afterCommit(batch -> batch.put(product.getId(), product.getName()));
+  }
+
+  public void replaced(long id, String oldName, String newName) {
+    afterCommit(batch -> batch.replace(id, oldName, newName));
+  }
+
+  public void renamed(long id, String newName) {
+    afterCommit(batch -> batch.rename(id, newName));
+  }
+
+  public void deleted(Product product) {
+    afterCommit(batch -> batch.remove(product.getId(), product.getName()));
+  }
+
+  public void deletedAll(Collection<Long> ids) {
+    afterCommit(batch -> batch.removeAll(ids));
+  }
+
+  // A rolled back write must not show up in suggestions. Every write of a transaction goes into
+  // one batch, so a bulk import publishes a single new snapshot.
+  private void afterCommit(Consumer<ProductNameIndex.Batch> update) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      ProductNameIndex.Batch batch = new ProductNameIndex.Batch();
+      update.accept(batch);
+      productNameIndex.apply(batch);
+      return;
+    }
+    update.accept(pendingWrites().batch);
+  }
+
+  // Looked up among the current synchronizations, which a suspended transaction takes with it.
+  private PendingWrites pendingWrites() {
+    for (TransactionSynchronization synchronization
+        : TransactionSynchronizationManager.getSynchronizations()) {
+      if (synchronization instanceof PendingWrites) {
+        return (PendingWrites) synchronization;
+      }
+    }
+    PendingWrites pendingWrites = new PendingWrites();
+    TransactionSynchronizationManager.registerSynchronization(pendingWrites);
+    return pendingWrites;
+  }
+
+  private final class PendingWrites implements TransactionSynchronization {
+
+    private final ProductNameIndex.Batch batch = new ProductNameIndex.Batch();
+
+    @Override
+    public void afterCommit() {
+      productNameIndex.apply(batch);
+    }
+  }
+}
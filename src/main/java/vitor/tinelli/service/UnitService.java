@@ -1,10 +1,24 @@
 package vitor.tinelli.service;
 
+import java.util.Collection;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import vitor.tinelli.cache.CacheInvalidationPublisher;
+import vitor.tinelli.config.CacheConfig;
+import vitor.tinelli.config.PaginationProperties;
+import vitor.tinelli.domain.CatalogChange.Operation;
+import vitor.tinelli.domain.CatalogChange.Resource;
 import vitor.tinelli.domain.Unit;
 import vitor.tinelli.exception.BadRequestException;
+import vitor.tinelli.pagination.ContinuationToken;
+import vitor.tinelli.pagination.KeysetPage;
 import vitor.tinelli.repository.UnitRepository;
 import vitor.tinelli.requests.UnitPostRequestBody;
 import vitor.tinelli.requests.UnitPutRequestBody;
@@ -13,36 +27,94 @@ import vitor.tinelli.requests.UnitPutRequestBody;
 @RequiredArgsConstructor
 public class UnitService {
   private final UnitRepository unitRepository;
+  private final PaginationProperties paginationProperties;
+  private final CacheInvalidationPublisher cacheInvalidationPublisher;
+  private final CatalogChangeService catalogChangeService;
 
+  @Cacheable(CacheConfig.UNIT_LIST)
   public List<Unit> listAll(){
     return unitRepository.findAll();
   }
 
+  public KeysetPage<Unit> listPage(String continuationToken, Integer size) {
+    int pageSize = paginationProperties.resolvePageSize(size);
+    return KeysetPage.of(unitRepository.findByIdGreaterThanOrderByIdAsc(
+            ContinuationToken.decode(continuationToken), PageRequest.of(0, pageSize + 1)),
+        pageSize, Unit::getId);
+  }
+
+  @Cacheable(CacheConfig.UNITS_BY_NAME)
   public List<Unit> findByName(String name){
     return unitRepository.findByName(name);
   }
 
+  public String listEntityTag() {
+    return catalogChangeService.listEntityTag(Resource.UNIT);
+  }
+
+  @Cacheable(CacheConfig.UNITS)
   public Unit findByIdOrThrowBadRequestException(long id){
     return unitRepository.findById(id)
+        .map(unit -> unit.toBuilder().build())
         .orElseThrow(() -> new BadRequestException(
             "Unit not found, please verify the provided ID"));
   }
 
+  @CacheEvict(cacheNames = {CacheConfig.UNIT_LIST, CacheConfig.UNITS_BY_NAME}, allEntries = true)
+  @Transactional
   public Unit save(UnitPostRequestBody unitPostRequestBody) {
-    return unitRepository.save(Unit.builder()
+    Unit unit = unitRepository.save(Unit.builder()
         .name(unitPostRequestBody.getName())
         .build());
+    catalogChangeService.record(Resource.UNIT, Operation.CREATED, unit.getId());
+    cacheInvalidationPublisher.publish(CacheConfig.UNIT_CACHES);
+    return unit;
   }
 
+  @Caching(evict = {
+      @CacheEvict(cacheNames = CacheConfig.UNITS, key = "#id"),
+      @CacheEvict(cacheNames = {CacheConfig.UNIT_LIST, CacheConfig.UNITS_BY_NAME}, allEntries = true)
+  })
+  @Transactional
   public void delete(long id) {
     unitRepository.delete(findByIdOrThrowBadRequestException(id));
+    catalogChangeService.record(Resource.UNIT, Operation.DELETED, id);
+    cacheInvalidationPublisher.publish(CacheConfig.UNIT_CACHES);
   }
 
+  @Caching(evict = {
+      @CacheEvict(cacheNames = CacheConfig.UNITS, key = "#unitPutRequestBody.id"),
+      @CacheEvict(cacheNames = {CacheConfig.UNIT_LIST, CacheConfig.UNITS_BY_NAME}, allEntries = true)
+  })
+  @Transactional
   public void replace(UnitPutRequestBody unitPutRequestBody) {
-    Unit savedUnit = findByIdOrThrowBadRequestException(unitPutRequestBody.getId());
+    long id = unitPutRequestBody.getId();
+    Unit savedUnit = unitRepository.findById(id)
+        .orElseThrow(() -> new BadRequestException(
+            "Unit not found, please verify the provided ID"));
+    Long expectedVersion = unitPutRequestBody.getVersion();
+    if (expectedVersion != null && expectedVersion != savedUnit.getVersion()) {
+      throw new ObjectOptimisticLockingFailureException(Unit.class, savedUnit.getId());
+    }
     unitRepository.save(Unit.builder()
             .id(savedUnit.getId())
             .name(unitPutRequestBody.getName())
+            .version(savedUnit.getVersion())
         .build());
+    catalogChangeService.record(Resource.UNIT, Operation.UPDATED, savedUnit.getId());
+    cacheInvalidationPublisher.publish(CacheConfig.UNIT_CACHES);
+  }
+
+  @CacheEvict(cacheNames = {CacheConfig.UNITS, CacheConfig.UNIT_LIST,
+      CacheConfig.UNITS_BY_NAME}, allEntries = true)
+  @Transactional
+  public int deleteAll(Collection<Long> ids) {
+    List<Long> deleted = catalogChangeService.recordReturning(Resource.UNIT, Operation.DELETED,
+        "DELETE FROM unit WHERE unit_id = ANY (?) RETURNING unit_id AS id",
+        (Object) ids.toArray(new Long[0]));
+    if (!deleted.isEmpty()) {
+      cacheInvalidationPublisher.publish(CacheConfig.UNIT_CACHES);
+    }
+    return deleted.size();
   }
 }
@@ -0,0 +1,452 @@
+package vitor.tinelli.suggest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+import vitor.tinelli.dto.ProductSuggestion;
+
+/**
+ * Case-insensitive prefix index over product names for autocomplete.
+ *
+ * <p>The bulk of the index is three parallel arrays sorted by lower-cased name and id: keys, names
+ * and ids, plus a copy of the ids in id order for renames. A lookup is a binary search for the
+ * first key at or after the prefix followed by a scan while keys still start with it. Equal names
+ * share one String, and a name that is already lower case is its own key. Writes do not touch the
+ * arrays. They go to a small sorted overlay plus a set of base ids to hide. Once those grow past
+ * 1/16 of the base, both are merged into fresh arrays.
+ *
+ * <p>Every write publishes a new immutable snapshot, so lookups never lock and always see a
+ * consistent index. A {@link Batch} of writes is published as one snapshot, which copies the
+ * overlay once rather than once per write.
+ */
+public class ProductNameIndex {
+
+  private static final int MIN_COMPACTION_THRESHOLD = 1024;
+  private static final int COMPACTION_DIVISOR = 16;
+
+  // Rough per-object sizes on a 64-bit JVM with compressed oops, used for the footprint estimate.
+  private static final int ARRAY_HEADER_BYTES = 16;
+  private static final int STRING_BYTES = 24;
+  private static final int OVERLAY_ENTRY_BYTES = 24 + 40;
+  private static final int HIDDEN_ID_BYTES = 16 + 32;
+
+  private final Object rebuildLock = new Object();
+
+  private volatile Snapshot snapshot = Snapshot.EMPTY;
+  // Writes made while a rebuild reads the table; replayed on top of its result. Guarded by this.
+  private List<Change> pending;
+
+  /**
+   * Replaces the whole index with {@code products}, keeping any write that happens meanwhile.
+   */
+  public void rebuild(Stream<ProductSuggestion> products) {
+    synchronized (rebuildLock) {
+      synchronized (this) {
+        pending = new ArrayList<>();
+      }
+      Snapshot rebuilt;
+      try {
+        rebuilt = Snapshot.of(products);
+      } catch (RuntimeException e) {
+        synchronized (this) {
+          pending = null;
+        }
+        throw e;
+      }
+      synchronized (this) {
+        rebuilt = rebuilt.apply(pending);
+        pending = null;
+        snapshot = rebuilt;
+      }
+    }
+  }
+
+  public void put(long id, String name) {
+    apply(new Batch().put(id, name));
+  }
+
+  public void replace(long id, String oldName, String newName) {
+    apply(new Batch().replace(id, oldName, newName));
+  }
+
+  public void remove(long id, String name) {
+    apply(new Batch().remove(id, name));
+  }
+
+  /**
+   * Like {@link #replace} for writers that never read the old name, at the cost of a linear scan
+   * of the overlay.
+   */
+  public void rename(long id, String newName) {
+    apply(new Batch().rename(id, newName));
+  }
+
+  /**
+   * Drops every product in {@code ids} with a single compaction, for bulk deletes that do not read
+   * the names.
+   */
+  public void removeAll(Collection<Long> ids) {
+    apply(new Batch().removeAll(ids));
+  }
+
+  /**
+   * Applies every write in {@code batch}, in the order they were added, and publishes the result
+   * as one snapshot.
+   */
+  public synchronized void apply(Batch batch) {
+    if (batch.changes.isEmpty()) {
+      return;
+    }
+    snapshot = snapshot.apply(batch.changes);
+    if (pending != null) {
+      pending.addAll(batch.changes);
+    }
+  }
+
+  /**
+   * @return up to {@code limit} products whose name starts with {@code prefix}, ignoring case,
+   *     ordered by name and then id
+   */
+  public List<ProductSuggestion> suggest(String prefix, int limit) {
+    Snapshot current = snapshot;
+    String key = key(prefix);
+    List<ProductSuggestion> suggestions = new ArrayList<>(Math.min(limit, 16));
+
+    int base = current.lowerBound(key);
+    Iterator<Entry> overlay = current.added.tailSet(new Entry(key, Long.MIN_VALUE, null), true)
+        .iterator();
+    Entry added = nextMatching(overlay, key);
+    while (suggestions.size() < limit) {
+      base = current.skipHidden(base, key);
+      boolean baseMatches = base < current.keys.length && current.keys[base].startsWith(key);
+      if (!baseMatches && added == null) {
+        break;
+      }
+      if (added == null || baseMatches
+          && compare(current.keys[base], current.ids[base], added.key, added.id) < 0) {
+        suggestions.add(new ProductSuggestion(current.ids[base], current.names[base]));
+        base++;
+      } else {
+        suggestions.add(new ProductSuggestion(added.id, added.name));
+        added = nextMatching(overlay, key);
+      }
+    }
+    return suggestions;
+  }
+
+  public int size() {
+    Snapshot current = snapshot;
+    return current.keys.length - current.hidden.size() + current.added.size();
+  }
+
+  /**
+   * @return estimated heap used by the index, names included
+   */
+  public long memoryFootprintBytes() {
+    Snapshot current = snapshot;
+    return current.baseBytes + current.overlayBytes;
+  }
+
+  private static Entry nextMatching(Iterator<Entry> overlay, String key) {
+    if (overlay.hasNext()) {
+      Entry entry = overlay.next();
+      return entry.key.startsWith(key) ? entry : null;
+    }
+    return null;
+  }
+
+  private static String key(String name) {
+    String key = name.toLowerCase(Locale.ROOT);
+    return key.equals(name) ? name : key;
+  }
+
+  private static int compare(String key, long id, String otherKey, long otherId) {
+    int byKey = key.compareTo(otherKey);
+    return byKey != 0 ? byKey : Long.compare(id, otherId);
+  }
+
+  private static long stringBytes(String value) {
+    boolean latin1 = value.chars().allMatch(c -> c <= 0xFF);
+    return STRING_BYTES + align(ARRAY_HEADER_BYTES + (long) value.length() * (latin1 ? 1 : 2));
+  }
+
+  private static long align(long bytes) {
+    return (bytes + 7) & ~7L;
+  }
+
+  /**
+   * Writes collected for {@link #apply(Batch)}; the methods match the single-write ones on the
+   * index.
+   */
+  public static final class Batch {
+
+    private final List<Change> changes = new ArrayList<>();
+
+    public Batch put(long id, String name) {
+      changes.add(new Change(id, null, name));
+      return this;
+    }
+
+    public Batch replace(long id, String oldName, String newName) {
+      changes.add(new Change(id, oldName, newName));
+      return this;
+    }
+
+    public Batch remove(long id, String name) {
+      changes.add(new Change(id, name, null));
+      return this;
+    }
+
+    public Batch rename(long id, String newName) {
+      changes.add(new Change(id, null, newName, true));
+      return this;
+    }
+
+    public Batch removeAll(Collection<Long> ids) {
+      changes.add(new Change(Set.copyOf(ids)));
+      return this;
+    }
+  }
+
+  private static final class Change {
+
+    final long id;
+    final String oldName;
+    final String newName;
+    final boolean oldNameUnknown;
+    final Set<Long> removedIds;
+
+    Change(long id, String oldName, String newName) {
+      this(id, oldName, newName, false);
+    }
+
+    Change(long id, String oldName, String newName, boolean oldNameUnknown) {
+      this.id = id;
+      this.oldName = oldName;
+      this.newName = newName;
+      this.oldNameUnknown = oldNameUnknown;
+      this.removedIds = null;
+    }
+
+    Change(Set<Long> removedIds) {
+      this.id = 0;
+      this.oldName = null;
+      this.newName = null;
+      this.oldNameUnknown = false;
+      this.removedIds = removedIds;
+    }
+  }
+
+  private static final class Entry {
+
+    static final Comparator<Entry> ORDER = (a, b) -> compare(a.key, a.id, b.key, b.id);
+
+    final String key;
+    final long id;
+    final String name;
+
+    Entry(String key, long id, String name) {
+      this.key = key;
+      this.id = id;
+      this.name = name;
+    }
+  }
+
+  private static final class Snapshot {
+
+    static final Snapshot EMPTY = new Snapshot(new String[0], new String[0], new long[0],
+        new long[0], new TreeSet<>(Entry.ORDER), Collections.emptySet());
+
+    final String[] keys;
+    final String[] names;
+    final long[] ids;
+    final long[] sortedIds;
+    final NavigableSet<Entry> added;
+    final Set<Long> hidden;
+    final long baseBytes;
+    final long overlayBytes;
+
+    Snapshot(String[] keys, String[] names, long[] ids, long[] sortedIds,
+        NavigableSet<Entry> added, Set<Long> hidden) {
+      this(keys, names, ids, sortedIds, added, hidden, baseBytes(keys, names));
+    }
+
+    private Snapshot(String[] keys, String[] names, long[] ids, long[] sortedIds,
+        NavigableSet<Entry> added, Set<Long> hidden, long baseBytes) {
+      this.keys = keys;
+      this.names = names;
+      this.ids = ids;
+      this.sortedIds = sortedIds;
+      this.added = added;
+      this.hidden = hidden;
+      this.baseBytes = baseBytes;
+      this.overlayBytes = overlayBytes(added, hidden);
+    }
+
+    static Snapshot of(Stream<ProductSuggestion> products) {
+      Map<String, String> interned = new HashMap<>();
+      List<Entry> entries = new ArrayList<>();
+      products.filter(product -> product.getName() != null).forEach(product -> {
+        String name = interned.computeIfAbsent(product.getName(), n -> n);
+        entries.add(new Entry(interned.computeIfAbsent(key(name), k -> k), product.getId(), name));
+      });
+      return sorted(entries);
+    }
+
+    private static Snapshot sorted(List<Entry> entries) {
+      entries.sort(Entry.ORDER);
+      String[] keys = new String[entries.size()];
+      String[] names = new String[entries.size()];
+      long[] ids = new long[entries.size()];
+      for (int i = 0; i < entries.size(); i++) {
+        Entry entry = entries.get(i);
+        keys[i] = entry.key;
+        names[i] = entry.name;
+        ids[i] = entry.id;
+      }
+      long[] sortedIds = ids.clone();
+      Arrays.sort(sortedIds);
+      return new Snapshot(keys, names, ids, sortedIds, EMPTY.added, Collections.emptySet());
+    }
+
+    // Bulk removals compact on their own; the writes between them share one copy of the overlay.
+    Snapshot apply(List<Change> changes) {
+      Snapshot next = this;
+      int from = 0;
+      for (int i = 0; i < changes.size(); i++) {
+        Set<Long> removedIds = changes.get(i).removedIds;
+        if (removedIds != null) {
+          next = next.applyWrites(changes.subList(from, i)).without(removedIds);
+          from = i + 1;
+        }
+      }
+      return next.applyWrites(changes.subList(from, changes.size()));
+    }
+
+    private Snapshot applyWrites(List<Change> changes) {
+      if (changes.isEmpty()) {
+        return this;
+      }
+      NavigableSet<Entry> added = new TreeSet<>(this.added);
+      Set<Long> hidden = this.hidden;
+      for (Change change : changes) {
+        boolean inBase = change.oldNameUnknown ? containsId(change.id)
+            : contains(change.oldName, change.id) || contains(change.newName, change.id);
+        if (inBase && !hidden.contains(change.id)) {
+          if (hidden == this.hidden) {
+            hidden = new HashSet<>(this.hidden);
+          }
+          hidden.add(change.id);
+        }
+        if (change.oldNameUnknown) {
+          added.removeIf(entry -> entry.id == change.id);
+        } else if (change.oldName != null) {
+          added.remove(new Entry(key(change.oldName), change.id, change.oldName));
+        }
+        if (change.newName != null) {
+          added.add(new Entry(key(change.newName), change.id, change.newName));
+        }
+      }
+      Snapshot next = new Snapshot(keys, names, ids, sortedIds, added, hidden, baseBytes);
+      return added.size() + hidden.size() > Math.max(MIN_COMPACTION_THRESHOLD,
+          keys.length / COMPACTION_DIVISOR) ? next.compact() : next;
+    }
+
+    private Snapshot compact() {
+      return without(Collections.emptySet());
+    }
+
+    private Snapshot without(Set<Long> removedIds) {
+      List<Entry> entries = new ArrayList<>(keys.length + added.size());
+      for (int i = 0; i < keys.length; i++) {
+        if (!hidden.contains(ids[i]) && !removedIds.contains(ids[i])) {
+          entries.add(new Entry(keys[i], ids[i], names[i]));
+        }
+      }
+      for (Entry entry : added) {
+        if (!removedIds.contains(entry.id)) {
+          entries.add(entry);
+        }
+      }
+      return sorted(entries);
+    }
+
+    private boolean contains(String name, long id) {
+      if (name == null) {
+        return false;
+      }
+      String key = key(name);
+      for (int i = lowerBound(key); i < keys.length && keys[i].equals(key); i++) {
+        if (ids[i] == id) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    private boolean containsId(long id) {
+      return Arrays.binarySearch(sortedIds, id) >= 0;
+    }
+
+    int lowerBound(String key) {
+      int low = 0;
+      int high = keys.length;
+      while (low < high) {
+        int mid = (low + high) >>> 1;
+        if (keys[mid].compareTo(key) < 0) {
+          low = mid + 1;
+        } else {
+          high = mid;
+        }
+      }
+      return low;
+    }
+
+    int skipHidden(int index, String key) {
+      if (hidden.isEmpty()) {
+        return index;
+      }
+      while (index < keys.length && keys[index].startsWith(key) && hidden.contains(ids[index])) {
+        index++;
+      }
+      return index;
+    }
+
+    private static long baseBytes(String[] keys, String[] names) {
+      long bytes = 2 * align(ARRAY_HEADER_BYTES + 4L * keys.length)
+          + 2 * align(ARRAY_HEADER_BYTES + 8L * keys.length);
+      Set<String> counted = Collections.newSetFromMap(new IdentityHashMap<>());
+      for (int i = 0; i < keys.length; i++) {
+        if (counted.add(keys[i])) {
+          bytes += stringBytes(keys[i]);
+        }
+        if (counted.add(names[i])) {
+          bytes += stringBytes(names[i]);
+        }
+      }
+      return bytes;
+    }
+
+    private static long overlayBytes(NavigableSet<Entry> added, Set<Long> hidden) {
+      long bytes = (long) hidden.size() * HIDDEN_ID_BYTES;
+      for (Entry entry : added) {
+        bytes += OVERLAY_ENTRY_BYTES + stringBytes(entry.name)
+            + (entry.key == entry.name ? 0 : stringBytes(entry.key));
+      }
+      return bytes;
+    }
+  }
+}
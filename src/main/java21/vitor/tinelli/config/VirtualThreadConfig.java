@@ -0,0 +1,55 @@
+package vitor.tinelli.config;
+
+import java.util.concurrent.Executors;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import vitor.tinelli.concurrency.ConcurrencyLimitFilter;
+
+/**
+ * Only compiled by the {@code -Pjava21} build. Runs every request, and therefore every service and
+ * repository call it makes, on its own virtual thread, and so do async MVC handlers such as the
+ * NDJSON export. A thread blocked on JDBC then costs a few hundred bytes of heap, not a Tomcat
+ * worker. The database stays the real limit, so {@link ConcurrencyLimitFilter} caps in-flight
+ * requests relative to the Hikari pool.
+ */
+@Configuration
+@ConditionalOnProperty(name = "concurrency.virtual-threads", matchIfMissing = true)
+public class VirtualThreadConfig {
+
+  @Bean
+  public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+    return protocolHandler -> protocolHandler.setExecutor(
+        Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("http-vt-", 0).factory()));
+  }
+
+  @Bean(name = TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+  public AsyncTaskExecutor applicationTaskExecutor() {
+    return new TaskExecutorAdapter(
+        Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("task-vt-", 0).factory()));
+  }
+
+  @Bean
+  public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(
+      ConcurrencyProperties concurrencyProperties, Environment environment,
+      MeterRegistry meterRegistry) {
+    ConcurrencyProperties.Limit limit = concurrencyProperties.getLimit();
+    int maxConcurrentRequests = limit.getMaxConcurrentRequests() > 0
+        ? limit.getMaxConcurrentRequests()
+        : 2 * environment.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, 10);
+    FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(
+        new ConcurrencyLimitFilter(maxConcurrentRequests, limit.getAcquireTimeout().toNanos(),
+            limit.getExcludedPaths(), meterRegistry));
+    // After RequestSqlStatsFilter, before security: authentication may need a connection too.
+    registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+    return registration;
+  }
+}
@@ -0,0 +1,12 @@
+-- Writers insert changes without a sequence, and CatalogChangeSequencer numbers them once
+-- committed, so sequence order is commit order. Rows keep a plain id of their own until then.
+
+ALTER TABLE catalog_change ADD COLUMN IF NOT EXISTS id BIGSERIAL;
+ALTER TABLE catalog_change DROP CONSTRAINT IF EXISTS catalog_change_pkey;
+ALTER TABLE catalog_change ADD PRIMARY KEY (id);
+ALTER TABLE catalog_change ALTER COLUMN sequence DROP DEFAULT;
+ALTER TABLE catalog_change ALTER COLUMN sequence DROP NOT NULL;
+
+CREATE UNIQUE INDEX IF NOT EXISTS catalog_change_sequence_idx ON catalog_change (sequence);
+CREATE INDEX IF NOT EXISTS catalog_change_unsequenced_idx ON catalog_change (id)
+    WHERE sequence IS NULL;
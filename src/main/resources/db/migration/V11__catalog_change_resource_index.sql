@@ -0,0 +1,5 @@
+-- List ETags are the newest sequence recorded for a resource, read with one backward probe here
+-- instead of aggregating the resource's table on every list request.
+
+CREATE INDEX IF NOT EXISTS catalog_change_resource_sequence_idx
+    ON catalog_change (resource, sequence);
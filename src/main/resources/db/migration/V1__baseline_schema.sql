@@ -0,0 +1,37 @@
+-- Schema as it was created by hibernate.ddl-auto before migrations existed.
+-- IF NOT EXISTS keeps this a no-op on databases that already have the tables.
+
+CREATE TABLE IF NOT EXISTS brand
+(
+    brand_id   BIGSERIAL PRIMARY KEY,
+    brand_name VARCHAR(255) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS unit
+(
+    unit_id   BIGSERIAL PRIMARY KEY,
+    unit_name VARCHAR(255) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS product_group
+(
+    product_group_id   BIGSERIAL PRIMARY KEY,
+    product_group_name VARCHAR(255) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS product
+(
+    product_id       BIGSERIAL PRIMARY KEY,
+    product_name     VARCHAR(255),
+    unit_id          BIGINT REFERENCES unit (unit_id),
+    product_group_id BIGINT REFERENCES product_group (product_group_id),
+    brand_id         BIGINT REFERENCES brand (brand_id)
+);
+
+CREATE TABLE IF NOT EXISTS onboarding_users
+(
+    id          BIGSERIAL PRIMARY KEY,
+    username    VARCHAR(255),
+    password    VARCHAR(255),
+    authorities VARCHAR(255)
+);
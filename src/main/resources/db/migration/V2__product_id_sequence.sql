@@ -0,0 +1,14 @@
+-- Product ids move from IDENTITY to a pooled sequence so Hibernate can batch inserts.
+-- The increment must match allocationSize on Product; the sequence restarts above
+-- the current max id so existing rows are never reused.
+--
+-- The column default moves to the new sequence too, so rows inserted outside Hibernate cannot
+-- take ids from a range it has already allocated. Such an insert gets the first id of a block
+-- of its own; the rest of that block is simply never used.
+
+CREATE SEQUENCE IF NOT EXISTS product_seq INCREMENT BY 50 OWNED BY product.product_id;
+
+SELECT setval('product_seq', COALESCE((SELECT MAX(product_id) FROM product), 0) + 1, false);
+
+ALTER TABLE product ALTER COLUMN product_id SET DEFAULT nextval('product_seq');
+DROP SEQUENCE IF EXISTS product_product_id_seq;
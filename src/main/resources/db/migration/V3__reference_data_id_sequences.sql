@@ -0,0 +1,22 @@
+-- Same move as V2 for the remaining entities, column defaults included. Increments must match
+-- allocationSize.
+
+CREATE SEQUENCE IF NOT EXISTS brand_seq INCREMENT BY 50 OWNED BY brand.brand_id;
+SELECT setval('brand_seq', COALESCE((SELECT MAX(brand_id) FROM brand), 0) + 1, false);
+ALTER TABLE brand ALTER COLUMN brand_id SET DEFAULT nextval('brand_seq');
+DROP SEQUENCE IF EXISTS brand_brand_id_seq;
+
+CREATE SEQUENCE IF NOT EXISTS unit_seq INCREMENT BY 50 OWNED BY unit.unit_id;
+SELECT setval('unit_seq', COALESCE((SELECT MAX(unit_id) FROM unit), 0) + 1, false);
+ALTER TABLE unit ALTER COLUMN unit_id SET DEFAULT nextval('unit_seq');
+DROP SEQUENCE IF EXISTS unit_unit_id_seq;
+
+CREATE SEQUENCE IF NOT EXISTS product_group_seq INCREMENT BY 50 OWNED BY product_group.product_group_id;
+SELECT setval('product_group_seq', COALESCE((SELECT MAX(product_group_id) FROM product_group), 0) + 1, false);
+ALTER TABLE product_group ALTER COLUMN product_group_id SET DEFAULT nextval('product_group_seq');
+DROP SEQUENCE IF EXISTS product_group_product_group_id_seq;
+
+CREATE SEQUENCE IF NOT EXISTS onboarding_users_seq INCREMENT BY 50 OWNED BY onboarding_users.id;
+SELECT setval('onboarding_users_seq', COALESCE((SELECT MAX(id) FROM onboarding_users), 0) + 1, false);
+ALTER TABLE onboarding_users ALTER COLUMN id SET DEFAULT nextval('onboarding_users_seq');
+DROP SEQUENCE IF EXISTS onboarding_users_id_seq;
@@ -0,0 +1,12 @@
+-- Single-row counter bumped by every reference-data write. Nodes compare it periodically
+-- and drop their caches when it moved, in case a NOTIFY was missed.
+
+CREATE TABLE IF NOT EXISTS cache_epoch
+(
+    id    INT PRIMARY KEY,
+    epoch BIGINT NOT NULL
+);
+
+INSERT INTO cache_epoch (id, epoch)
+VALUES (1, 0)
+ON CONFLICT (id) DO NOTHING;
@@ -0,0 +1,20 @@
+-- Accounts are mostly edited straight in the database, so the cached principals are dropped from
+-- a trigger rather than from application code. The channel must match
+-- CacheInvalidationPublisher.CHANNEL.
+
+CREATE OR REPLACE FUNCTION notify_onboarding_users_change() RETURNS trigger AS
+$$
+BEGIN
+    PERFORM pg_notify('reference_data_invalidation', 'users');
+    UPDATE cache_epoch SET epoch = epoch + 1 WHERE id = 1;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS onboarding_users_invalidation ON onboarding_users;
+
+CREATE TRIGGER onboarding_users_invalidation
+    AFTER UPDATE OR DELETE OR TRUNCATE
+    ON onboarding_users
+    FOR EACH STATEMENT
+EXECUTE PROCEDURE notify_onboarding_users_change();
@@ -0,0 +1,19 @@
+-- Indexes behind GET /products/search and the findByName lookups.
+-- pg_trgm ships with Postgres but creating it needs a role allowed to create extensions.
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- Substring and prefix matches: lower(product_name) LIKE '%term%' / 'term%'.
+CREATE INDEX IF NOT EXISTS product_name_trgm_idx
+    ON product USING gin (lower(product_name) gin_trgm_ops);
+
+-- Word prefix matches with ranking. The expression must stay identical to the one in
+-- ProductRepository.searchIds or the planner will not use the index.
+CREATE INDEX IF NOT EXISTS product_name_tsv_idx
+    ON product USING gin (to_tsvector('simple', coalesce(product_name, '')));
+
+-- Exact findByName lookups.
+CREATE INDEX IF NOT EXISTS product_name_idx ON product (product_name);
+CREATE INDEX IF NOT EXISTS brand_name_idx ON brand (brand_name);
+CREATE INDEX IF NOT EXISTS unit_name_idx ON unit (unit_name);
+CREATE INDEX IF NOT EXISTS product_group_name_idx ON product_group (product_group_name);
@@ -0,0 +1,9 @@
+-- Indexes for GET /products/query. Each one serves a filter on its reference alone in keyset
+-- order on product_id, without a sort. A pair or all three filters read whichever of them the
+-- planner expects to be most selective and check the rest per row; a composite index per pair
+-- would repeat these leading columns and cost every write for little gain. They also index the
+-- foreign keys, so deleting a brand, unit or group no longer scans product.
+
+CREATE INDEX IF NOT EXISTS product_brand_idx ON product (brand_id, product_id);
+CREATE INDEX IF NOT EXISTS product_group_idx ON product (product_group_id, product_id);
+CREATE INDEX IF NOT EXISTS product_unit_idx ON product (unit_id, product_id);
@@ -0,0 +1,13 @@
+-- Outbox of catalog writes, read by GET /changes, inserted by the writing transaction. V10 takes
+-- the numbering out of the writer so that sequence order is commit order.
+
+CREATE TABLE IF NOT EXISTS catalog_change
+(
+    sequence   BIGSERIAL PRIMARY KEY,
+    resource   VARCHAR(32)              NOT NULL,
+    entity_id  BIGINT                   NOT NULL,
+    operation  VARCHAR(16)              NOT NULL,
+    changed_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now()
+);
+
+CREATE INDEX IF NOT EXISTS catalog_change_changed_at_idx ON catalog_change (changed_at);
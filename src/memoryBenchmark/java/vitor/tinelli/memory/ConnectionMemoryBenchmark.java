@@ -0,0 +1,237 @@
+package vitor.tinelli.memory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.flywaydb.core.Flyway;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+/**
+ * Memory held per open connection by the servlet and the reactive stack. Boots one of the two
+ * applications against a seeded Postgres, then for each step opens that many product streams that
+ * read the first kilobyte and stall, which keeps every request in flight with the server blocked
+ * on (servlet) or waiting for demand from (reactive) a slow client. Heap, resident set and live
+ * threads are sampled after a full GC before and while the streams are open.
+ *
+ * <p>The client runs in the same JVM, so its own per-connection buffers are part of the numbers.
+ * They are the same for both stacks, so the difference between two runs is the server's.
+ */
+public final class ConnectionMemoryBenchmark {
+
+  private static final String USERNAME = "memory";
+  private static final String PASSWORD = "memory";
+  private static final int FIRST_READ_BYTES = 1024;
+
+  private ConnectionMemoryBenchmark() {
+  }
+
+  public static void main(String[] args) throws Exception {
+    MemoryBenchmarkSettings settings = new MemoryBenchmarkSettings();
+    PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine")
+        .withCommand("postgres", "-c", "max_connections=500");
+    postgres.start();
+    try {
+      Flyway.configure()
+          .dataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword())
+          .locations("filesystem:src/main/resources/db/migration")
+          .load()
+          .migrate();
+      seed(postgres, settings);
+
+      try (ConfigurableApplicationContext context = new SpringApplicationBuilder(
+          Class.forName(settings.applicationClass()))
+          .properties(properties(settings, postgres))
+          .run(args)) {
+        URI uri = URI.create("http://localhost:"
+            + ((WebServerApplicationContext) context).getWebServer().getPort()
+            + settings.streamPath());
+        HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+        List<Map<String, Object>> steps = new ArrayList<>();
+        for (int connections : settings.connectionSteps) {
+          steps.add(step(settings, httpClient, uri, connections));
+        }
+        write(settings, steps);
+      }
+    } finally {
+      postgres.stop();
+    }
+  }
+
+  private static Map<String, Object> step(MemoryBenchmarkSettings settings, HttpClient httpClient,
+      URI uri, int connections) throws Exception {
+    Sample idle = Sample.take();
+    List<InputStream> streams = open(httpClient, uri, connections);
+    TimeUnit.SECONDS.sleep(settings.settleSeconds);
+    Sample loaded = Sample.take();
+    for (InputStream stream : streams) {
+      stream.close();
+    }
+    TimeUnit.SECONDS.sleep(settings.settleSeconds);
+
+    Map<String, Object> step = new LinkedHashMap<>();
+    step.put("connections", connections);
+    step.put("heapBytesPerConnection", (loaded.heapUsed - idle.heapUsed) / connections);
+    step.put("rssBytesPerConnection", idle.rss < 0 ? null : (loaded.rss - idle.rss) / connections);
+    step.put("threadsAdded", loaded.threads - idle.threads);
+    System.out.printf("%s %5d connections: heap %8.1f KiB/conn, rss %8s KiB/conn, %5d threads added%n",
+        settings.stack, connections, (loaded.heapUsed - idle.heapUsed) / 1024.0 / connections,
+        idle.rss < 0 ? "n/a" : String.format("%.1f", (loaded.rss - idle.rss) / 1024.0 / connections),
+        loaded.threads - idle.threads);
+    return step;
+  }
+
+  private static List<InputStream> open(HttpClient httpClient, URI uri, int connections)
+      throws Exception {
+    HttpRequest request = HttpRequest.newBuilder(uri)
+        .header("Accept", "application/x-ndjson")
+        .header("Authorization", "Basic " + Base64.getEncoder().encodeToString(
+            (USERNAME + ":" + PASSWORD).getBytes(StandardCharsets.UTF_8)))
+        .GET()
+        .build();
+    List<CompletableFuture<HttpResponse<InputStream>>> pending = new ArrayList<>(connections);
+    for (int i = 0; i < connections; i++) {
+      pending.add(httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream()));
+    }
+    // Read on this thread, so the client does not add a thread per stream of its own.
+    List<InputStream> streams = new ArrayList<>(connections);
+    for (CompletableFuture<HttpResponse<InputStream>> response : pending) {
+      streams.add(readFirstBytes(response.get(60, TimeUnit.SECONDS)));
+    }
+    return streams;
+  }
+
+  private static InputStream readFirstBytes(HttpResponse<InputStream> response) {
+    if (response.statusCode() != 200) {
+      throw new IllegalStateException("Stream answered " + response.statusCode());
+    }
+    try {
+      response.body().readNBytes(FIRST_READ_BYTES);
+    } catch (IOException e) {
+      throw new IllegalStateException("Stream failed before its first kilobyte", e);
+    }
+    return response.body();
+  }
+
+  private static String[] properties(MemoryBenchmarkSettings settings,
+      PostgreSQLContainer<?> postgres) {
+    // Both stacks get a database connection per open stream plus headroom for the app itself.
+    int poolSize = settings.maxConnections() + 10;
+    List<String> properties = new ArrayList<>(List.of(
+        "server.port=0",
+        "spring.flyway.enabled=false",
+        "logging.level.root=WARN"));
+    if ("reactive".equals(settings.stack)) {
+      properties.add("spring.r2dbc.url=r2dbc:postgresql://" + postgres.getHost() + ":"
+          + postgres.getMappedPort(PostgreSQLContainer.POSTGRESQL_PORT) + "/"
+          + postgres.getDatabaseName() + "?fetchSize=256");
+      properties.add("spring.r2dbc.username=" + postgres.getUsername());
+      properties.add("spring.r2dbc.password=" + postgres.getPassword());
+      properties.add("spring.r2dbc.pool.max-size=" + poolSize);
+    } else {
+      properties.add("spring.datasource.url=" + postgres.getJdbcUrl());
+      properties.add("spring.datasource.username=" + postgres.getUsername());
+      properties.add("spring.datasource.password=" + postgres.getPassword());
+      properties.add("spring.datasource.hikari.maximum-pool-size=" + poolSize);
+      // StreamingResponseBody runs on the task executor, one thread per open export.
+      properties.add("spring.task.execution.pool.core-size=" + poolSize);
+      properties.add("spring.mvc.async.request-timeout=10m");
+      properties.add("concurrency.limit.max-concurrent-requests=" + poolSize);
+      properties.add("sql.instrumentation.enabled=false");
+    }
+    return properties.toArray(new String[0]);
+  }
+
+  private static void seed(PostgreSQLContainer<?> postgres, MemoryBenchmarkSettings settings)
+      throws SQLException {
+    try (Connection connection = DriverManager.getConnection(postgres.getJdbcUrl(),
+        postgres.getUsername(), postgres.getPassword());
+        Statement statement = connection.createStatement()) {
+      statement.execute("insert into onboarding_users (username, password, authorities)"
+          + " values ('" + USERNAME + "', '" + PASSWORD + "', 'ROLE_USER')");
+      statement.execute("insert into brand (brand_id, brand_name)"
+          + " select g, 'Brand ' || g from generate_series(1, 100) g");
+      statement.execute("insert into unit (unit_id, unit_name)"
+          + " select g, 'Unit ' || g from generate_series(1, 100) g");
+      statement.execute("insert into product_group (product_group_id, product_group_name)"
+          + " select g, 'Group ' || g from generate_series(1, 100) g");
+      statement.execute("insert into product (product_id, product_name, unit_id, product_group_id, brand_id)"
+          + " select g, 'Product ' || g, g % 100 + 1, g % 100 + 1, g % 100 + 1"
+          + " from generate_series(1, " + settings.products + ") g");
+    }
+  }
+
+  private static void write(MemoryBenchmarkSettings settings, List<Map<String, Object>> steps)
+      throws IOException {
+    Map<String, Object> results = new LinkedHashMap<>();
+    results.put("stack", settings.stack);
+    results.put("java", Runtime.version().feature());
+    results.put("steps", steps);
+    Files.createDirectories(settings.resultsFile.toAbsolutePath().getParent());
+    new ObjectMapper().writerWithDefaultPrettyPrinter()
+        .writeValue(settings.resultsFile.toFile(), results);
+    System.out.println("Results written to " + settings.resultsFile.toAbsolutePath());
+  }
+
+  private static final class Sample {
+
+    final long heapUsed;
+    final long rss;
+    final int threads;
+
+    private Sample(long heapUsed, long rss, int threads) {
+      this.heapUsed = heapUsed;
+      this.rss = rss;
+      this.threads = threads;
+    }
+
+    static Sample take() throws InterruptedException {
+      for (int i = 0; i < 3; i++) {
+        System.gc();
+        TimeUnit.MILLISECONDS.sleep(200);
+      }
+      return new Sample(ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed(),
+          residentSetBytes(), ManagementFactory.getThreadMXBean().getThreadCount());
+    }
+
+    /** VmRSS covers thread stacks and direct buffers, which the heap does not. -1 off Linux. */
+    private static long residentSetBytes() {
+      Path status = Path.of("/proc/self/status");
+      if (!Files.isReadable(status)) {
+        return -1;
+      }
+      try {
+        return Files.readAllLines(status).stream()
+            .filter(line -> line.startsWith("VmRSS:"))
+            .map(line -> line.replaceAll("\\D", ""))
+            .mapToLong(kib -> Long.parseLong(kib) * 1024)
+            .findFirst()
+            .orElse(-1);
+      } catch (IOException e) {
+        return -1;
+      }
+    }
+  }
+}
@@ -0,0 +1,46 @@
+package vitor.tinelli.memory;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Knobs of a connection memory run, read from {@code -Pmemory.*} (system properties).
+ */
+final class MemoryBenchmarkSettings {
+
+  /** {@code servlet} boots OnboardingApp, {@code reactive} boots ReactiveReadApp. */
+  final String stack = System.getProperty("memory.stack", "servlet");
+
+  /** Enough rows that one response is far larger than the socket buffers of both ends. */
+  final int products = Integer.getInteger("memory.products", 50_000);
+
+  /**
+   * Open connections per step. Both stacks hold one database connection per open stream, so the
+   * largest step has to stay below the container's max_connections (500).
+   */
+  final int[] connectionSteps = Arrays.stream(System.getProperty("memory.connectionSteps",
+          "50,100,200,400").split(","))
+      .map(String::trim)
+      .filter(step -> !step.isEmpty())
+      .mapToInt(Integer::parseInt)
+      .toArray();
+
+  /** Time the streams are left stalled before sampling, so both stacks reach a steady state. */
+  final int settleSeconds = Integer.getInteger("memory.settleSeconds", 5);
+
+  final Path resultsFile = Path.of(System.getProperty("memory.resultsFile",
+      "build/results/memory/" + stack + ".json"));
+
+  String applicationClass() {
+    return "reactive".equals(stack) ? "vitor.tinelli.reactive.ReactiveReadApp" : "vitor.tinelli.OnboardingApp";
+  }
+
+  /** The servlet stack streams from the export endpoint, the reactive one from its plain list. */
+  String streamPath() {
+    return "reactive".equals(stack) ? "/products" : "/products/export";
+  }
+
+  int maxConnections() {
+    return Arrays.stream(connectionSteps).max().orElse(0);
+  }
+}
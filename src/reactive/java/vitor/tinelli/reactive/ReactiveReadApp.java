@@ -0,0 +1,17 @@
+package vitor.tinelli.reactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+/**
+ * Read-only WebFlux + R2DBC variant of the product and reference-data queries. It is a separate
+ * application (run with {@code ./gradlew bootRunReactive}) because Spring Boot serves either the
+ * servlet or the reactive stack from one context, never both. It reads the schema that the main
+ * application's Flyway migrations create.
+ */
+@SpringBootApplication
+public class ReactiveReadApp {
+  public static void main(String[] args) {
+    SpringApplication.run(ReactiveReadApp.class, args);
+  }
+}
@@ -0,0 +1,52 @@
+package vitor.tinelli.reactive.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.crypto.password.NoOpPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+
+/**
+ * Same accounts and roles as the servlet application. Every endpoint here is a GET, so there is
+ * no CSRF protection to configure.
+ */
+@Configuration
+@EnableWebFluxSecurity
+public class ReactiveSecurityConfig {
+
+  @Bean
+  public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http) {
+    return http
+        .csrf(ServerHttpSecurity.CsrfSpec::disable)
+        .authorizeExchange(exchanges -> exchanges
+            .pathMatchers("/actuator/health/**").permitAll()
+            .anyExchange().hasRole("USER"))
+        .httpBasic(httpBasic -> { })
+        .build();
+  }
+
+  @Bean
+  public ReactiveUserDetailsService reactiveUserDetailsService(DatabaseClient databaseClient) {
+    return username -> databaseClient
+        .sql("select username, password, authorities from onboarding_users where username = :username")
+        .bind("username", username)
+        .map((row, metadata) -> User.withUsername(row.get("username", String.class))
+            .password(row.get("password", String.class))
+            .authorities(AuthorityUtils.commaSeparatedStringToAuthorityList(
+                row.get("authorities", String.class)))
+            .build())
+        .first();
+  }
+
+  // Matches the servlet application, whose onboarding_users passwords are stored as-is.
+  @Bean
+  public PasswordEncoder passwordEncoder() {
+    return NoOpPasswordEncoder.getInstance();
+  }
+}
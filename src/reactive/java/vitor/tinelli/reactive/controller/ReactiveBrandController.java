@@ -0,0 +1,41 @@
+package vitor.tinelli.reactive.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import vitor.tinelli.reactive.domain.BrandView;
+import vitor.tinelli.reactive.repository.ReactiveBrandRepository;
+
+@RestController
+@RequestMapping("brands")
+@RequiredArgsConstructor
+public class ReactiveBrandController {
+
+  private final ReactiveBrandRepository reactiveBrandRepository;
+
+  @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+  public Flux<BrandView> listAll() {
+    return reactiveBrandRepository.findAll();
+  }
+
+  @GetMapping(path = "/find",
+      produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+  public Flux<BrandView> findByName(@RequestParam String name) {
+    return reactiveBrandRepository.findByName(name);
+  }
+
+  @GetMapping(path = "{id}")
+  public Mono<BrandView> findById(@PathVariable Long id) {
+    return reactiveBrandRepository.findById(id)
+        .switchIfEmpty(Mono.error(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST,
+            "Brand not found, please verify the provided ID")));
+  }
+}
@@ -0,0 +1,46 @@
+package vitor.tinelli.reactive.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import vitor.tinelli.reactive.domain.ProductView;
+import vitor.tinelli.reactive.repository.ReactiveProductRepository;
+
+/**
+ * Lists are written as they are read. With {@code Accept: application/x-ndjson} every product is
+ * flushed on its own line, so the client's read rate drives the database cursor.
+ */
+@RestController
+@RequestMapping("products")
+@RequiredArgsConstructor
+public class ReactiveProductController {
+
+  private final ReactiveProductRepository reactiveProductRepository;
+
+  @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+  public Flux<ProductView> listAll() {
+    return reactiveProductRepository.findAll().map(ProductView::of);
+  }
+
+  @GetMapping(path = "/find",
+      produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+  public Flux<ProductView> findByName(@RequestParam String name) {
+    return reactiveProductRepository.findByName(name).map(ProductView::of);
+  }
+
+  @GetMapping(path = "{id}")
+  public Mono<ProductView> findById(@PathVariable Long id) {
+    return reactiveProductRepository.findById(id)
+        .map(ProductView::of)
+        .switchIfEmpty(Mono.error(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST,
+            "Product not found, please verify the provided ID")));
+  }
+}
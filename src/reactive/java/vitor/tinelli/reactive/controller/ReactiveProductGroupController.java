@@ -0,0 +1,41 @@
+package vitor.tinelli.reactive.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import vitor.tinelli.reactive.domain.ProductGroupView;
+import vitor.tinelli.reactive.repository.ReactiveProductGroupRepository;
+
+@RestController
+@RequestMapping("product/groups")
+@RequiredArgsConstructor
+public class ReactiveProductGroupController {
+
+  private final ReactiveProductGroupRepository reactiveProductGroupRepository;
+
+  @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+  public Flux<ProductGroupView> listAll() {
+    return reactiveProductGroupRepository.findAll();
+  }
+
+  @GetMapping(path = "/find",
+      produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+  public Flux<ProductGroupView> findByName(@RequestParam String name) {
+    return reactiveProductGroupRepository.findByName(name);
+  }
+
+  @GetMapping(path = "{id}")
+  public Mono<ProductGroupView> findById(@PathVariable Long id) {
+    return reactiveProductGroupRepository.findById(id)
+        .switchIfEmpty(Mono.error(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST,
+            "Product group not found, please verify the provided ID")));
+  }
+}
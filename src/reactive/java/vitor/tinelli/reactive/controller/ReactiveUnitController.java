@@ -0,0 +1,41 @@
+package vitor.tinelli.reactive.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import vitor.tinelli.reactive.domain.UnitView;
+import vitor.tinelli.reactive.repository.ReactiveUnitRepository;
+
+@RestController
+@RequestMapping("units")
+@RequiredArgsConstructor
+public class ReactiveUnitController {
+
+  private final ReactiveUnitRepository reactiveUnitRepository;
+
+  @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+  public Flux<UnitView> listAll() {
+    return reactiveUnitRepository.findAll();
+  }
+
+  @GetMapping(path = "/find",
+      produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+  public Flux<UnitView> findByName(@RequestParam String name) {
+    return reactiveUnitRepository.findByName(name);
+  }
+
+  @GetMapping(path = "{id}")
+  public Mono<UnitView> findById(@PathVariable Long id) {
+    return reactiveUnitRepository.findById(id)
+        .switchIfEmpty(Mono.error(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST,
+            "Unit not found, please verify the provided ID")));
+  }
+}
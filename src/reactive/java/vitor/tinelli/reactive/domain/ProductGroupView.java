@@ -0,0 +1,22 @@
+package vitor.tinelli.reactive.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Table("product_group")
+public class ProductGroupView {
+
+  @Id
+  @Column("product_group_id")
+  private Long id;
+
+  @Column("product_group_name")
+  private String name;
+}
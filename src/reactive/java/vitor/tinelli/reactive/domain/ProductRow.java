@@ -0,0 +1,24 @@
+package vitor.tinelli.reactive.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One row of the product queries in ReactiveProductRepository, joined columns included; R2DBC has
+ * no associations, so the references come back flat and are nested by {@link ProductView}.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductRow {
+
+  private Long id;
+  private String name;
+  private Long unitId;
+  private String unitName;
+  private Long productGroupId;
+  private String productGroupName;
+  private Long brandId;
+  private String brandName;
+}
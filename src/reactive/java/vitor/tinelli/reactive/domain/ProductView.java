@@ -0,0 +1,22 @@
+package vitor.tinelli.reactive.domain;
+
+import lombok.Value;
+
+// Same JSON shape as the servlet stack's Product, minus the version fields of the entities.
+@Value
+public class ProductView {
+
+  Long id;
+  String name;
+  UnitView unit;
+  ProductGroupView productGroup;
+  BrandView brand;
+
+  public static ProductView of(ProductRow row) {
+    return new ProductView(row.getId(), row.getName(),
+        row.getUnitId() == null ? null : new UnitView(row.getUnitId(), row.getUnitName()),
+        row.getProductGroupId() == null ? null
+            : new ProductGroupView(row.getProductGroupId(), row.getProductGroupName()),
+        row.getBrandId() == null ? null : new BrandView(row.getBrandId(), row.getBrandName()));
+  }
+}
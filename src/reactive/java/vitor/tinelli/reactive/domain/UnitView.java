@@ -0,0 +1,22 @@
+package vitor.tinelli.reactive.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Table("unit")
+public class UnitView {
+
+  @Id
+  @Column("unit_id")
+  private Long id;
+
+  @Column("unit_name")
+  private String name;
+}
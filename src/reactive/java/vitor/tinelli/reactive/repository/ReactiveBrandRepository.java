@@ -0,0 +1,10 @@
+package vitor.tinelli.reactive.repository;
+
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import reactor.core.publisher.Flux;
+import vitor.tinelli.reactive.domain.BrandView;
+
+public interface ReactiveBrandRepository extends ReactiveCrudRepository<BrandView, Long> {
+
+  Flux<BrandView> findByName(String name);
+}
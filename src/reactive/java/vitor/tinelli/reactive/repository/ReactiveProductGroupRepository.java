@@ -0,0 +1,10 @@
+package vitor.tinelli.reactive.repository;
+
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import reactor.core.publisher.Flux;
+import vitor.tinelli.reactive.domain.ProductGroupView;
+
+public interface ReactiveProductGroupRepository extends ReactiveCrudRepository<ProductGroupView, Long> {
+
+  Flux<ProductGroupView> findByName(String name);
+}
@@ -0,0 +1,34 @@
+package vitor.tinelli.reactive.repository;
+
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import vitor.tinelli.reactive.domain.ProductRow;
+
+/**
+ * Read side of ProductRepository. Every query joins the references in the same statement, like
+ * the entity graphs on the JPA side. Rows are pulled from the server {@code fetchSize} at a time
+ * (see spring.r2dbc.url), so a slow subscriber stops the cursor instead of buffering the table.
+ */
+public interface ReactiveProductRepository extends Repository<ProductRow, Long> {
+
+  String SELECT = "select p.product_id as id, p.product_name as name,"
+      + " u.unit_id, u.unit_name,"
+      + " g.product_group_id, g.product_group_name,"
+      + " b.brand_id, b.brand_name"
+      + " from product p"
+      + " left join unit u on u.unit_id = p.unit_id"
+      + " left join product_group g on g.product_group_id = p.product_group_id"
+      + " left join brand b on b.brand_id = p.brand_id";
+
+  @Query(SELECT + " order by p.product_id")
+  Flux<ProductRow> findAll();
+
+  @Query(SELECT + " where p.product_id = :id")
+  Mono<ProductRow> findById(@Param("id") Long id);
+
+  @Query(SELECT + " where p.product_name = :name")
+  Flux<ProductRow> findByName(@Param("name") String name);
+}
@@ -0,0 +1,10 @@
+package vitor.tinelli.reactive.repository;
+
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import reactor.core.publisher.Flux;
+import vitor.tinelli.reactive.domain.UnitView;
+
+public interface ReactiveUnitRepository extends ReactiveCrudRepository<UnitView, Long> {
+
+  Flux<UnitView> findByName(String name);
+}
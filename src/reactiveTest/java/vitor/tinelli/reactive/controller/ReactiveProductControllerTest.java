@@ -0,0 +1,91 @@
+package vitor.tinelli.reactive.controller;
+
+import static org.mockito.Mockito.*;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import vitor.tinelli.reactive.domain.BrandView;
+import vitor.tinelli.reactive.domain.ProductGroupView;
+import vitor.tinelli.reactive.domain.ProductRow;
+import vitor.tinelli.reactive.domain.ProductView;
+import vitor.tinelli.reactive.domain.UnitView;
+import vitor.tinelli.reactive.repository.ReactiveProductRepository;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveProductControllerTest {
+
+  ProductRow productRow;
+
+  @Mock
+  private ReactiveProductRepository reactiveProductRepository;
+
+  @InjectMocks
+  private ReactiveProductController reactiveProductController;
+
+  @BeforeEach
+  void setUp() {
+    productRow = new ProductRow(1L, "Product Test", 2L, "Unit Test", 3L, "Group Test", 4L,
+        "Brand Test");
+  }
+
+  @Test
+  @DisplayName("listAll streams products with their references when successful")
+  void listAll_ReturnAllProducts_WhenSuccessful() {
+    when(reactiveProductRepository.findAll()).thenReturn(Flux.just(productRow));
+
+    StepVerifier.create(reactiveProductController.listAll())
+        .expectNext(new ProductView(1L, "Product Test", new UnitView(2L, "Unit Test"),
+            new ProductGroupView(3L, "Group Test"), new BrandView(4L, "Brand Test")))
+        .verifyComplete();
+  }
+
+  @Test
+  @DisplayName("listAll only requests as many rows as the subscriber asked for")
+  void listAll_PropagatesDemand_WhenSubscriberIsSlow() {
+    AtomicLong requested = new AtomicLong();
+    when(reactiveProductRepository.findAll()).thenReturn(Flux.range(1, 1000)
+        .map(id -> new ProductRow((long) id, "Product " + id, null, null, null, null, null, null))
+        .doOnRequest(requested::addAndGet));
+
+    StepVerifier.create(reactiveProductController.listAll(), 2)
+        .expectNextCount(2)
+        .thenCancel()
+        .verify();
+    Assertions.assertEquals(2, requested.get());
+  }
+
+  @Test
+  @DisplayName("findById leaves missing references null")
+  void findById_ReturnProductWithoutReferences_WhenReferencesAreNull() {
+    when(reactiveProductRepository.findById(1L)).thenReturn(Mono.just(
+        new ProductRow(1L, "Product Test", null, null, null, null, null, null)));
+
+    StepVerifier.create(reactiveProductController.findById(1L))
+        .expectNext(new ProductView(1L, "Product Test", null, null, null))
+        .verifyComplete();
+  }
+
+  @Test
+  @DisplayName("findById fails with bad request when product not exist")
+  void findById_ThrowBadRequest_WhenProductNotExist() {
+    when(reactiveProductRepository.findById(1L)).thenReturn(Mono.empty());
+
+    StepVerifier.create(reactiveProductController.findById(1L))
+        .expectErrorSatisfies(error -> {
+          ResponseStatusException exception = (ResponseStatusException) error;
+          Assertions.assertEquals(HttpStatus.BAD_REQUEST, exception.getStatus());
+        })
+        .verify();
+  }
+}
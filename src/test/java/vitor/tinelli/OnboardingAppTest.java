@@ -0,0 +1,26 @@
+package vitor.tinelli;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.ActiveProfiles;
+import vitor.tinelli.config.CacheConfig;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@ActiveProfiles("test")
+class OnboardingAppTest {
+
+  @Autowired
+  private CacheManager cacheManager;
+
+  @Test
+  @DisplayName("context loads with the users cache registered on the cache manager")
+  void contextLoads_RegisterUsersCache_WhenApplicationStarts() {
+    Assertions.assertNotNull(cacheManager.getCache(CacheConfig.USERS));
+  }
+}
@@ -0,0 +1,92 @@
+package vitor.tinelli.cache;
+
+import static org.mockito.Mockito.*;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.StreamUtils;
+import vitor.tinelli.config.CacheConfig;
+import vitor.tinelli.config.CacheInvalidationProperties;
+
+@ExtendWith(MockitoExtension.class)
+class CacheInvalidationPublisherTest {
+
+  @Mock
+  private JdbcTemplate jdbcTemplate;
+
+  private CacheInvalidationProperties properties;
+  private CacheInvalidationPublisher publisher;
+
+  @BeforeEach
+  void setUp() {
+    properties = new CacheInvalidationProperties();
+    publisher = new CacheInvalidationPublisher(jdbcTemplate, properties);
+  }
+
+  @AfterEach
+  void tearDown() {
+    publisher.stop();
+  }
+
+  @Test
+  @DisplayName("publish bumps the epoch and notifies off the caller's thread once it commits")
+  void publish_SendAfterCommit_WhenCalledInTransaction() {
+    Thread caller = Thread.currentThread();
+    List<Thread> senders = new CopyOnWriteArrayList<>();
+    when(jdbcTemplate.queryForRowSet(startsWith("WITH bumped AS (UPDATE cache_epoch"),
+        eq(CacheInvalidationPublisher.CHANNEL), eq("brands,brandList,brandsByName")))
+        .thenAnswer(invocation -> {
+          senders.add(Thread.currentThread());
+          return null;
+        });
+    TransactionSynchronizationManager.initSynchronization();
+    try {
+      publisher.publish(CacheConfig.BRAND_CACHES);
+      verifyNoInteractions(jdbcTemplate);
+
+      TransactionSynchronizationManager.getSynchronizations()
+          .forEach(TransactionSynchronization::afterCommit);
+    } finally {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    verify(jdbcTemplate, timeout(5000)).queryForRowSet(startsWith("WITH bumped AS"),
+        eq(CacheInvalidationPublisher.CHANNEL), eq("brands,brandList,brandsByName"));
+    Assertions.assertEquals(1, senders.size());
+    Assertions.assertNotSame(caller, senders.get(0));
+  }
+
+  @Test
+  @DisplayName("publish does nothing when invalidation is disabled")
+  void publish_DoNothing_WhenDisabled() {
+    properties.setEnabled(false);
+
+    publisher.publish(List.of(CacheConfig.BRANDS));
+
+    verifyNoInteractions(jdbcTemplate);
+  }
+
+  @Test
+  @DisplayName("the onboarding_users trigger notifies the channel the listeners subscribe to")
+  void channel_MatchTrigger_WhenUsersChange() throws IOException {
+    String migration = StreamUtils.copyToString(new ClassPathResource(
+        "db/migration/V5__onboarding_users_invalidation.sql").getInputStream(),
+        StandardCharsets.UTF_8);
+
+    Assertions.assertTrue(migration.contains(
+        "pg_notify('" + CacheInvalidationPublisher.CHANNEL + "', 'users')"));
+  }
+}
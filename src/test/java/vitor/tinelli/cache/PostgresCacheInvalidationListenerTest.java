@@ -0,0 +1,99 @@
+package vitor.tinelli.cache;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import vitor.tinelli.config.CacheConfig;
+import vitor.tinelli.config.CacheInvalidationProperties;
+
+@Testcontainers(disabledWithoutDocker = true)
+class PostgresCacheInvalidationListenerTest {
+
+  @Container
+  private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:15-alpine");
+
+  private ConcurrentMapCacheManager cacheManager;
+  private CacheInvalidationPublisher publisher;
+  private PostgresCacheInvalidationListener listener;
+
+  @BeforeEach
+  void setUp() {
+    DriverManagerDataSource dataSource = new DriverManagerDataSource(
+        POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+    JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+    jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS cache_epoch (id INT PRIMARY KEY, epoch BIGINT NOT NULL)");
+    jdbcTemplate.execute("INSERT INTO cache_epoch (id, epoch) VALUES (1, 0) ON CONFLICT (id) DO NOTHING");
+
+    DataSourceProperties dataSourceProperties = new DataSourceProperties();
+    dataSourceProperties.setUrl(POSTGRES.getJdbcUrl());
+    dataSourceProperties.setUsername(POSTGRES.getUsername());
+    dataSourceProperties.setPassword(POSTGRES.getPassword());
+
+    CacheInvalidationProperties properties = new CacheInvalidationProperties();
+    cacheManager = new ConcurrentMapCacheManager();
+    publisher = new CacheInvalidationPublisher(jdbcTemplate, properties);
+    listener = new PostgresCacheInvalidationListener(properties, dataSourceProperties,
+        cacheManager, jdbcTemplate);
+  }
+
+  @AfterEach
+  void tearDown() {
+    listener.stop();
+    publisher.stop();
+  }
+
+  @Test
+  @DisplayName("notification evicts only the published caches")
+  void notification_EvictsPublishedCaches_WhenAnotherNodePublishes() throws InterruptedException {
+    Cache brands = cacheManager.getCache(CacheConfig.BRANDS);
+    Cache units = cacheManager.getCache(CacheConfig.UNITS);
+    // the listener clears everything once it is connected, so wait for that before seeding
+    brands.put(0L, "connected?");
+    listener.start();
+    awaitEmpty(brands);
+    brands.put(1L, "Brand Test");
+    units.put(1L, "Unit Test");
+
+    publisher.publish(List.of(CacheConfig.BRANDS));
+
+    awaitEmpty(brands);
+    Assertions.assertNotNull(units.get(1L));
+  }
+
+  @Test
+  @DisplayName("checkEpoch evicts every reference cache when the epoch moved")
+  void checkEpoch_EvictsAllCaches_WhenEpochChanged() {
+    listener.checkEpoch();
+    Cache brands = cacheManager.getCache(CacheConfig.BRANDS);
+    brands.put(1L, "Brand Test");
+
+    new JdbcTemplate(new DriverManagerDataSource(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(),
+        POSTGRES.getPassword())).update("UPDATE cache_epoch SET epoch = epoch + 1 WHERE id = 1");
+    listener.checkEpoch();
+
+    Assertions.assertNull(brands.get(1L));
+  }
+
+  private static void awaitEmpty(Cache cache) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    while (!((Map<?, ?>) cache.getNativeCache()).isEmpty()) {
+      if (System.nanoTime() > deadline) {
+        Assertions.fail("cache " + cache.getName() + " was not evicted");
+      }
+      Thread.sleep(50);
+    }
+  }
+}
@@ -0,0 +1,85 @@
+package vitor.tinelli.concurrency;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+class ConcurrencyLimitFilterTest {
+
+  private SimpleMeterRegistry meterRegistry;
+  private ConcurrencyLimitFilter concurrencyLimitFilter;
+  private ExecutorService executor;
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    concurrencyLimitFilter = new ConcurrencyLimitFilter(1, TimeUnit.MILLISECONDS.toNanos(50),
+        List.of("/products/suggest"), meterRegistry);
+    executor = Executors.newSingleThreadExecutor();
+  }
+
+  @AfterEach
+  void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  @DisplayName("doFilter lets requests through while under the limit")
+  void doFilter_PassRequest_WhenUnderLimit() throws Exception {
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    MockFilterChain chain = new MockFilterChain();
+
+    concurrencyLimitFilter.doFilter(new MockHttpServletRequest("GET", "/products"), response, chain);
+    concurrencyLimitFilter.doFilter(new MockHttpServletRequest("GET", "/products"),
+        new MockHttpServletResponse(), new MockFilterChain());
+
+    Assertions.assertEquals(200, response.getStatus());
+    Assertions.assertNotNull(chain.getRequest());
+  }
+
+  @Test
+  @DisplayName("doFilter answers 503 when the limit stays reached past the acquire timeout")
+  void doFilter_Return503_WhenLimitIsReached() throws Exception {
+    CountDownLatch inside = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    Future<?> blocker = executor.submit(() -> {
+      concurrencyLimitFilter.doFilter(new MockHttpServletRequest("GET", "/products"),
+          new MockHttpServletResponse(), (request, response) -> {
+            inside.countDown();
+            try {
+              release.await();
+            } catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+            }
+          });
+      return null;
+    });
+    Assertions.assertTrue(inside.await(5, TimeUnit.SECONDS));
+
+    MockHttpServletResponse rejected = new MockHttpServletResponse();
+    concurrencyLimitFilter.doFilter(new MockHttpServletRequest("GET", "/products"), rejected,
+        new MockFilterChain());
+    MockHttpServletResponse excluded = new MockHttpServletResponse();
+    concurrencyLimitFilter.doFilter(new MockHttpServletRequest("GET", "/products/suggest"), excluded,
+        new MockFilterChain());
+    release.countDown();
+    blocker.get(5, TimeUnit.SECONDS);
+
+    Assertions.assertEquals(503, rejected.getStatus());
+    Assertions.assertEquals("1", rejected.getHeader("Retry-After"));
+    Assertions.assertEquals(200, excluded.getStatus());
+    Assertions.assertEquals(1.0, meterRegistry.counter("http.server.requests.rejected").count());
+  }
+}
@@ -0,0 +1,39 @@
+package vitor.tinelli.concurrency;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import vitor.tinelli.exception.BadRequestException;
+
+class IfMatchTest {
+
+  @Test
+  @DisplayName("version reads the quoted version and the product part of a product ETag")
+  void version_ReturnEntityVersion_WhenTagIsStrong() {
+    Assertions.assertEquals(3L, IfMatch.version("\"3\"", null));
+    Assertions.assertEquals(7L, IfMatch.version("\"7.1.0.2\"", null));
+  }
+
+  @Test
+  @DisplayName("version falls back to the body version when the header is absent or a wildcard")
+  void version_ReturnBodyVersion_WhenHeaderIsAbsent() {
+    Assertions.assertEquals(4L, IfMatch.version(null, 4L));
+    Assertions.assertEquals(4L, IfMatch.version("*", 4L));
+    Assertions.assertNull(IfMatch.version(null, null));
+  }
+
+  @Test
+  @DisplayName("version throws BadRequestException for weak, listed or foreign tags")
+  void version_ThrowBadRequestException_WhenTagIsNotOurs() {
+    Assertions.assertThrows(BadRequestException.class, () -> IfMatch.version("W/\"3\"", null));
+    Assertions.assertThrows(BadRequestException.class,
+        () -> IfMatch.version("\"3\", \"4\"", null));
+    Assertions.assertThrows(BadRequestException.class, () -> IfMatch.version("\"abc\"", null));
+  }
+
+  @Test
+  @DisplayName("version throws BadRequestException when header and body disagree")
+  void version_ThrowBadRequestException_WhenHeaderAndBodyDiffer() {
+    Assertions.assertThrows(BadRequestException.class, () -> IfMatch.version("\"3\"", 2L));
+  }
+}
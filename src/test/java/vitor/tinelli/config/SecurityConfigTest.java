@@ -0,0 +1,97 @@
+package vitor.tinelli.config;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import java.util.List;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase
+@ActiveProfiles("test")
+class SecurityConfigTest {
+
+  private static final List<String> ADMIN_PATHS = List.of("/brands/admin/1",
+      "/brands/admin/delete", "/units/admin/1", "/units/admin/delete", "/product/groups/admin/1",
+      "/product/groups/admin/delete", "/products/admin/1", "/products/admin/delete",
+      "/products/admin/brand/1", "/products/admin/group/1", "/products/admin/reassign");
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Test
+  @DisplayName("only the admin pattern rooted at a slash matches the admin paths")
+  void adminMatcher_MatchAdminPaths_OnlyWhenRootedAtSlash() {
+    AntPathRequestMatcher previous = new AntPathRequestMatcher("**/admin/**");
+    AntPathRequestMatcher current = new AntPathRequestMatcher("/**/admin/**");
+
+    for (String path : ADMIN_PATHS) {
+      MockHttpServletRequest request = request(path);
+      Assertions.assertFalse(previous.matches(request), path);
+      Assertions.assertTrue(current.matches(request), path);
+    }
+    for (String path : List.of("/brands", "/brands/1", "/products/query", "/changes/stream")) {
+      Assertions.assertFalse(current.matches(request(path)), path);
+    }
+  }
+
+  @Test
+  @WithMockUser
+  @DisplayName("admin endpoints forbid users without ROLE_ADMIN")
+  void admin_ReturnForbidden_WhenUserIsNotAdmin() throws Exception {
+    mockMvc.perform(delete("/brands/admin/{id}", 1L).with(csrf()))
+        .andExpect(status().isForbidden());
+    mockMvc.perform(post("/units/admin/delete").with(csrf())
+            .contentType(MediaType.APPLICATION_JSON).content("[1]"))
+        .andExpect(status().isForbidden());
+    mockMvc.perform(delete("/products/admin/brand/{brandId}", 1L).with(csrf()))
+        .andExpect(status().isForbidden());
+  }
+
+  @Test
+  @WithMockUser(roles = {"USER", "ADMIN"})
+  @DisplayName("admin endpoints let administrators through")
+  void admin_PassAuthorization_WhenUserIsAdmin() throws Exception {
+    int status = mockMvc.perform(delete("/brands/admin/{id}", 1L).with(csrf()))
+        .andReturn().getResponse().getStatus();
+
+    Assertions.assertNotEquals(403, status);
+  }
+
+  @Test
+  @WithMockUser
+  @DisplayName("other endpoints still only need ROLE_USER")
+  void findAll_ReturnOk_WhenUserIsNotAdmin() throws Exception {
+    mockMvc.perform(get("/brands")).andExpect(status().isOk());
+  }
+
+  @Test
+  @WithMockUser(roles = "AUDITOR")
+  @DisplayName("other endpoints only need an authenticated account, whatever its roles")
+  void findAll_ReturnOk_WhenUserHasNoUserRole() throws Exception {
+    mockMvc.perform(get("/brands")).andExpect(status().isOk());
+    mockMvc.perform(delete("/brands/admin/{id}", 1L).with(csrf()))
+        .andExpect(status().isForbidden());
+  }
+
+  private static MockHttpServletRequest request(String path) {
+    MockHttpServletRequest request = new MockHttpServletRequest("DELETE", path);
+    request.setServletPath(path);
+    return request;
+  }
+}
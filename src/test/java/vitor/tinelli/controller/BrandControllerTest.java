@@ -11,8 +11,12 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
 import vitor.tinelli.domain.Brand;
 import vitor.tinelli.exception.BadRequestException;
 import vitor.tinelli.requests.BrandPostRequestBody;
@@ -32,8 +36,12 @@ class BrandControllerTest {
   @InjectMocks
   private BrandController brandController;
 
+  ServletWebRequest webRequest;
+
   @BeforeEach
   void setUp() {
+    webRequest = new ServletWebRequest(new MockHttpServletRequest("GET", "/brands"),
+        new MockHttpServletResponse());
     brandPostRequestBody = new BrandPostRequestBody();
     brandPostRequestBody.setName("Brand POST Test");
 
@@ -48,9 +56,10 @@ class BrandControllerTest {
   @DisplayName("listAll returns list of brands when successful")
   void listAll_ReturnAllBrands_WhenSuccessful() {
     when(brandService.listAll()).thenReturn(List.of(brand));
-    ResponseEntity<List<Brand>> brands = brandController.listAll();
+    ResponseEntity<List<Brand>> brands = brandController.listAll(webRequest);
 
     verify(brandService).listAll();
+    verify(brandService).listEntityTag();
     verifyNoMoreInteractions(brandService);
     Assertions.assertEquals(ResponseEntity.ok(List.of(brand)), brands);
   }
@@ -59,9 +68,10 @@ class BrandControllerTest {
   @DisplayName("listAll returns empty list when any brand exists")
   void listAll_ReturnEmptyList_WhenBrandNotExist() {
     when(brandService.listAll()).thenReturn(Collections.emptyList());
-    ResponseEntity<List<Brand>> brands = brandController.listAll();
+    ResponseEntity<List<Brand>> brands = brandController.listAll(webRequest);
 
     verify(brandService).listAll();
+    verify(brandService).listEntityTag();
     verifyNoMoreInteractions(brandService);
     Assertions.assertEquals(ResponseEntity.ok(Collections.emptyList()), brands);
     Assertions.assertNotEquals(ResponseEntity.ok(List.of(brand)), brands);
@@ -71,7 +81,7 @@ class BrandControllerTest {
   @DisplayName("listByID returns a brand when successful")
   void listByID_ReturnBrand_WhenSuccessful() {
     when(brandService.findByIdOrThrowBadRequestException(100L)).thenReturn(brand);
-    ResponseEntity<Brand> brands = brandController.findById(100L);
+    ResponseEntity<Brand> brands = brandController.findById(100L, webRequest);
 
     verify(brandService).findByIdOrThrowBadRequestException(100L);
     verifyNoMoreInteractions(brandService);
@@ -86,16 +96,17 @@ class BrandControllerTest {
 
     verifyNoMoreInteractions(brandService);
     Assertions.assertThrows(BadRequestException.class,
-        () -> brandController.findById(100L));
+        () -> brandController.findById(100L, webRequest));
   }
 
   @Test
   @DisplayName("listByName returns list of brands when successful")
   void listByName_ReturnAllBrandsWithTheSameName_WhenSuccessful() {
     when(brandService.findByName("Brand Test")).thenReturn(List.of(brand));
-    ResponseEntity<List<Brand>> brands = brandController.findByName("Brand Test");
+    ResponseEntity<List<Brand>> brands = brandController.findByName("Brand Test", webRequest);
 
     verify(brandService).findByName("Brand Test");
+    verify(brandService).listEntityTag();
     verifyNoMoreInteractions(brandService);
     Assertions.assertEquals(ResponseEntity.ok(List.of(brand)), brands);
   }
@@ -104,9 +115,10 @@ class BrandControllerTest {
   @DisplayName("listByName returns empty list when any brand exists")
   void listByName_ReturnEmptyList_WhenBrandNotExist() {
     when(brandService.findByName("Unknown Brand")).thenReturn(Collections.emptyList());
-    ResponseEntity<List<Brand>> brands = brandController.findByName("Unknown Brand");
+    ResponseEntity<List<Brand>> brands = brandController.findByName("Unknown Brand", webRequest);
 
     verify(brandService).findByName("Unknown Brand");
+    verify(brandService).listEntityTag();
     verifyNoMoreInteractions(brandService);
     Assertions.assertEquals(ResponseEntity.ok(Collections.emptyList()), brands);
     Assertions.assertNotEquals(ResponseEntity.ok(List.of(brand)), brands);
@@ -163,13 +175,21 @@ class BrandControllerTest {
   @DisplayName("replace updates brand when successful")
   void replace_ReplaceBrand_WhenSuccessful() {
     doNothing().when(brandService).replace(any(BrandPutRequestBody.class));
-    ResponseEntity<Void> responseEntity = brandController.replace(brandPutRequestBody);
+    ResponseEntity<Void> responseEntity = brandController.replace(brandPutRequestBody, null);
 
     verify(brandService).replace(any(BrandPutRequestBody.class));
     verifyNoMoreInteractions(brandService);
     Assertions.assertEquals(ResponseEntity.noContent().build(), responseEntity);
   }
 
+  @Test
+  @DisplayName("replace passes the If-Match version on to the service")
+  void replace_PassIfMatchVersion_WhenHeaderIsPresent() {
+    brandController.replace(brandPutRequestBody, "\"3\"");
+
+    verify(brandService).replace(argThat(body -> Long.valueOf(3L).equals(body.getVersion())));
+  }
+
   @Test
   @DisplayName("replace throws BadRequestException when brand name is null, empty or blank")
   void replace_ThrowBadRequestException_WhenBrandNameIsBlank() {
@@ -205,4 +225,34 @@ class BrandControllerTest {
     Assertions.assertThrows(BadRequestException.class,
         () -> brandService.replace(brandPutRequestBody));
   }
+
+  @Test
+  @DisplayName("listAll returns not modified without loading anything when the ETag matches")
+  void listAll_ReturnNotModified_WhenETagMatches() {
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/brands");
+    request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"42\"");
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    when(brandService.listEntityTag()).thenReturn("\"42\"");
+
+    Assertions.assertNull(brandController.listAll(new ServletWebRequest(request, response)));
+
+    verify(brandService).listEntityTag();
+    verifyNoMoreInteractions(brandService);
+    Assertions.assertEquals(HttpStatus.NOT_MODIFIED.value(), response.getStatus());
+    Assertions.assertEquals("\"42\"", response.getHeader(HttpHeaders.ETAG));
+  }
+
+  @Test
+  @DisplayName("listByID returns not modified when the ETag matches the returned version")
+  void listByID_ReturnNotModified_WhenETagMatchesVersion() {
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/brands/100");
+    request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"0\"");
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    when(brandService.findByIdOrThrowBadRequestException(100L)).thenReturn(brand);
+
+    Assertions.assertNull(brandController.findById(100L, new ServletWebRequest(request, response)));
+
+    Assertions.assertEquals(HttpStatus.NOT_MODIFIED.value(), response.getStatus());
+    Assertions.assertEquals("\"0\"", response.getHeader(HttpHeaders.ETAG));
+  }
 }
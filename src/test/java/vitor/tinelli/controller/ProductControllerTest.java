@@ -11,16 +11,29 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
 import vitor.tinelli.domain.Brand;
 import vitor.tinelli.domain.Product;
 import vitor.tinelli.domain.ProductGroup;
 import vitor.tinelli.domain.Unit;
+import vitor.tinelli.dto.BulkResult;
+import vitor.tinelli.dto.ProductQueryResult;
+import vitor.tinelli.dto.ProductSuggestion;
 import vitor.tinelli.exception.BadRequestException;
+import vitor.tinelli.pagination.KeysetPage;
+import vitor.tinelli.requests.ProductFilter;
+import vitor.tinelli.requests.ProductPatchRequestBody;
 import vitor.tinelli.requests.ProductPostRequestBody;
 import vitor.tinelli.requests.ProductPutRequestBody;
+import vitor.tinelli.requests.ProductReassignRequestBody;
+import vitor.tinelli.service.ProductSearchService;
 import vitor.tinelli.service.ProductService;
+import vitor.tinelli.service.ProductSuggestService;
 
 @ExtendWith(MockitoExtension.class)
 class ProductControllerTest {
@@ -37,12 +50,20 @@ class ProductControllerTest {
 
   @Mock
   private ProductService productService;
+  @Mock
+  private ProductSearchService productSearchService;
+  @Mock
+  private ProductSuggestService productSuggestService;
 
   @InjectMocks
   private ProductController productController;
 
+  ServletWebRequest webRequest;
+
   @BeforeEach
   void setUp() {
+    webRequest = new ServletWebRequest(new MockHttpServletRequest("GET", "/products"),
+        new MockHttpServletResponse());
     productPostRequestBody = new ProductPostRequestBody();
     productPostRequestBody.setName("product POST Test");
 
@@ -61,9 +82,10 @@ class ProductControllerTest {
   @DisplayName("listAll returns list of products when successful")
   void listAll_ReturnAllProducts_WhenSuccessful() {
     when(productService.listAll()).thenReturn(List.of(product));
-    ResponseEntity<List<Product>> products = productController.listAll();
+    ResponseEntity<List<Product>> products = productController.listAll(webRequest);
 
     verify(productService).listAll();
+    verify(productService).listEntityTag();
     verifyNoMoreInteractions(productService);
     Assertions.assertEquals(ResponseEntity.ok(List.of(product)), products);
   }
@@ -72,21 +94,36 @@ class ProductControllerTest {
   @DisplayName("listAll returns empty list when any product exists")
   void listAll_ReturnEmptyList_WhenProductNotExist() {
     when(productService.listAll()).thenReturn(Collections.emptyList());
-    ResponseEntity<List<Product>> products = productController.listAll();
+    ResponseEntity<List<Product>> products = productController.listAll(webRequest);
 
     verify(productService).listAll();
+    verify(productService).listEntityTag();
     verifyNoMoreInteractions(productService);
     Assertions.assertEquals(ResponseEntity.ok(Collections.emptyList()), products);
     Assertions.assertNotEquals(ResponseEntity.ok(List.of(product)), products);
   }
 
+  @Test
+  @DisplayName("listPage returns a page of products when successful")
+  void listPage_ReturnPageOfProducts_WhenSuccessful() {
+    KeysetPage<Product> page = KeysetPage.of(List.of(product), 10, Product::getId);
+    when(productService.listPage(null, 10)).thenReturn(page);
+    ResponseEntity<KeysetPage<Product>> products = productController.listPage(null, 10, webRequest);
+
+    verify(productService).listPage(null, 10);
+    verify(productService).listEntityTag();
+    verifyNoMoreInteractions(productService);
+    Assertions.assertEquals(ResponseEntity.ok(page), products);
+  }
+
   @Test
   @DisplayName("listByID returns a product when successful")
   void listByID_ReturnProduct_WhenSuccessful() {
     when(productService.findByIdOrThrowBadRequestException(100L)).thenReturn(product);
-    ResponseEntity<Product> products = productController.findById(100L);
+    ResponseEntity<Product> products = productController.findById(100L, webRequest);
 
     verify(productService).findByIdOrThrowBadRequestException(100L);
+    verify(productService).entityTag(100L);
     verifyNoMoreInteractions(productService);
     Assertions.assertEquals(ResponseEntity.ok(product), products);
   }
@@ -94,12 +131,12 @@ class ProductControllerTest {
   @Test
   @DisplayName("listByID throws BadRequestException when product not exist")
   void listByID_ThrowBadRequestException_WhenProductNotExist() {
-    when(productService.findByIdOrThrowBadRequestException(100L))
+    when(productService.entityTag(100L))
         .thenThrow(new BadRequestException("product not found"));
 
     verifyNoMoreInteractions(productService);
     Assertions.assertThrows(BadRequestException.class,
-        () -> productController.findById(100L));
+        () -> productController.findById(100L, webRequest));
   }
 
   @Test
@@ -107,9 +144,10 @@ class ProductControllerTest {
   void listByName_ReturnAllProductsWithTheSameName_WhenSuccessful() {
     when(productService.findByName("product Test")).thenReturn(List.of(product));
     ResponseEntity<List<Product>> products = productController.findByName(
-        "product Test");
+        "product Test", webRequest);
 
     verify(productService).findByName("product Test");
+    verify(productService).listEntityTag();
     verifyNoMoreInteractions(productService);
     Assertions.assertEquals(ResponseEntity.ok(List.of(product)), products);
   }
@@ -120,9 +158,10 @@ class ProductControllerTest {
     when(productService.findByName("Unknown product")).thenReturn(
         Collections.emptyList());
     ResponseEntity<List<Product>> products = productController.findByName(
-        "Unknown product");
+        "Unknown product", webRequest);
 
     verify(productService).findByName("Unknown product");
+    verify(productService).listEntityTag();
     verifyNoMoreInteractions(productService);
     Assertions.assertEquals(ResponseEntity.ok(Collections.emptyList()), products);
     Assertions.assertNotEquals(ResponseEntity.ok(List.of(product)), products);
@@ -183,13 +222,52 @@ class ProductControllerTest {
   void replace_ReplaceProduct_WhenSuccessful() {
     doNothing().when(productService).replace(any(ProductPutRequestBody.class));
     ResponseEntity<Void> responseEntity = productController.replace(
-        productPutRequestBody);
+        productPutRequestBody, null);
 
     verify(productService).replace(any(ProductPutRequestBody.class));
     verifyNoMoreInteractions(productService);
     Assertions.assertEquals(ResponseEntity.noContent().build(), responseEntity);
   }
 
+  @Test
+  @DisplayName("deleteByBrand reports how many products were deleted")
+  void deleteByBrand_ReturnAffectedCount_WhenSuccessful() {
+    when(productService.deleteByBrand(1L)).thenReturn(3);
+
+    ResponseEntity<BulkResult> responseEntity = productController.deleteByBrand(1L);
+
+    Assertions.assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+    Assertions.assertEquals(new BulkResult(3), responseEntity.getBody());
+  }
+
+  @Test
+  @DisplayName("reassign reports how many products were moved")
+  void reassign_ReturnAffectedCount_WhenSuccessful() {
+    ProductReassignRequestBody productReassignRequestBody = new ProductReassignRequestBody();
+    productReassignRequestBody.setReference(ProductReassignRequestBody.Reference.UNIT);
+    productReassignRequestBody.setFrom(1L);
+    productReassignRequestBody.setTo(2L);
+    when(productService.reassign(productReassignRequestBody)).thenReturn(5);
+
+    ResponseEntity<BulkResult> responseEntity = productController.reassign(
+        productReassignRequestBody);
+
+    Assertions.assertEquals(new BulkResult(5), responseEntity.getBody());
+  }
+
+  @Test
+  @DisplayName("patch updates product when successful")
+  void patch_UpdateProduct_WhenSuccessful() {
+    ProductPatchRequestBody productPatchRequestBody = new ProductPatchRequestBody();
+    productPatchRequestBody.setName("Product PATCH Test");
+
+    ResponseEntity<Void> responseEntity = productController.patch(1L, productPatchRequestBody);
+
+    verify(productService).patch(1L, productPatchRequestBody);
+    verifyNoMoreInteractions(productService);
+    Assertions.assertEquals(ResponseEntity.noContent().build(), responseEntity);
+  }
+
   @Test
   @DisplayName("replace throws BadRequestException when product name is null, empty or blank")
   void replace_ThrowBadRequestException_WhenProductNameIsBlank() {
@@ -225,4 +303,74 @@ class ProductControllerTest {
     Assertions.assertThrows(BadRequestException.class,
         () -> productService.replace(productPutRequestBody));
   }
+
+  @Test
+  @DisplayName("search returns the ranked products when successful")
+  void search_ReturnProducts_WhenSuccessful() {
+    when(productSearchService.search("prod", 10)).thenReturn(List.of(product));
+    ResponseEntity<List<Product>> products = productController.search("prod", 10);
+
+    verify(productSearchService).search("prod", 10);
+    verifyNoMoreInteractions(productSearchService);
+    Assertions.assertEquals(ResponseEntity.ok(List.of(product)), products);
+  }
+
+  @Test
+  @DisplayName("suggest returns the products starting with the prefix when successful")
+  void suggest_ReturnSuggestions_WhenSuccessful() {
+    List<ProductSuggestion> suggestions = List.of(new ProductSuggestion(100L, "product Test"));
+    when(productSuggestService.suggest("prod", null)).thenReturn(suggestions);
+
+    Assertions.assertEquals(ResponseEntity.ok(suggestions), productController.suggest("prod", null));
+    verify(productSuggestService).suggest("prod", null);
+    verifyNoMoreInteractions(productSuggestService);
+  }
+
+  @Test
+  @DisplayName("query returns the filtered page when successful")
+  void query_ReturnFilteredPage_WhenSuccessful() {
+    ProductFilter filter = new ProductFilter(1L, null, 1L);
+    ProductQueryResult result = new ProductQueryResult(
+        new KeysetPage<>(List.of(product), 100, null), null);
+    when(productService.query(filter, null, null, false)).thenReturn(result);
+
+    Assertions.assertEquals(ResponseEntity.ok(result),
+        productController.query(filter, null, null, false));
+    verify(productService).query(filter, null, null, false);
+    verifyNoMoreInteractions(productService);
+  }
+
+  @Test
+  @DisplayName("findById returns not modified without loading anything when the ETag matches")
+  void findById_ReturnNotModified_WhenETagMatches() {
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/products/100");
+    request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"0.0.0.0\"");
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    when(productService.entityTag(100L)).thenReturn("\"0.0.0.0\"");
+
+    Assertions.assertNull(
+        productController.findById(100L, new ServletWebRequest(request, response)));
+
+    verify(productService).entityTag(100L);
+    verifyNoMoreInteractions(productService);
+    Assertions.assertEquals(HttpStatus.NOT_MODIFIED.value(), response.getStatus());
+    Assertions.assertEquals("\"0.0.0.0\"", response.getHeader(HttpHeaders.ETAG));
+  }
+
+  @Test
+  @DisplayName("findById sends the current ETag with the product when the client copy is stale")
+  void findById_ReturnProductWithETag_WhenETagDiffers() {
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/products/100");
+    request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"0.0.0.0\"");
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    when(productService.entityTag(100L)).thenReturn("\"1.0.0.0\"");
+    when(productService.findByIdOrThrowBadRequestException(100L)).thenReturn(product);
+
+    ResponseEntity<Product> found = productController.findById(100L,
+        new ServletWebRequest(request, response));
+
+    Assertions.assertEquals(ResponseEntity.ok(product), found);
+    Assertions.assertEquals(HttpStatus.OK.value(), response.getStatus());
+    Assertions.assertEquals("\"1.0.0.0\"", response.getHeader(HttpHeaders.ETAG));
+  }
 }
@@ -11,8 +11,12 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
 import vitor.tinelli.domain.ProductGroup;
 import vitor.tinelli.exception.BadRequestException;
 import vitor.tinelli.requests.ProductGroupPostRequestBody;
@@ -32,8 +36,12 @@ class ProductGroupControllerTest {
   @InjectMocks
   private ProductGroupController productGroupController;
 
+  ServletWebRequest webRequest;
+
   @BeforeEach
   void setUp() {
+    webRequest = new ServletWebRequest(new MockHttpServletRequest("GET", "/product/groups"),
+        new MockHttpServletResponse());
     productGroupPostRequestBody = new ProductGroupPostRequestBody();
     productGroupPostRequestBody.setName("productGroup POST Test");
 
@@ -48,9 +56,10 @@ class ProductGroupControllerTest {
   @DisplayName("listAll returns list of productGroups when successful")
   void listAll_ReturnAllProductGroups_WhenSuccessful() {
     when(productGroupService.listAll()).thenReturn(List.of(productGroup));
-    ResponseEntity<List<ProductGroup>> productGroups = productGroupController.listAll();
+    ResponseEntity<List<ProductGroup>> productGroups = productGroupController.listAll(webRequest);
 
     verify(productGroupService).listAll();
+    verify(productGroupService).listEntityTag();
     verifyNoMoreInteractions(productGroupService);
     Assertions.assertEquals(ResponseEntity.ok(List.of(productGroup)), productGroups);
   }
@@ -59,9 +68,10 @@ class ProductGroupControllerTest {
   @DisplayName("listAll returns empty list when any productGroup exists")
   void listAll_ReturnEmptyList_WhenProductGroupNotExist() {
     when(productGroupService.listAll()).thenReturn(Collections.emptyList());
-    ResponseEntity<List<ProductGroup>> productGroups = productGroupController.listAll();
+    ResponseEntity<List<ProductGroup>> productGroups = productGroupController.listAll(webRequest);
 
     verify(productGroupService).listAll();
+    verify(productGroupService).listEntityTag();
     verifyNoMoreInteractions(productGroupService);
     Assertions.assertEquals(ResponseEntity.ok(Collections.emptyList()), productGroups);
     Assertions.assertNotEquals(ResponseEntity.ok(List.of(productGroup)), productGroups);
@@ -71,7 +81,7 @@ class ProductGroupControllerTest {
   @DisplayName("listByID returns a productGroup when successful")
   void listByID_ReturnProductGroup_WhenSuccessful() {
     when(productGroupService.findByIdOrThrowBadRequestException(100L)).thenReturn(productGroup);
-    ResponseEntity<ProductGroup> productGroups = productGroupController.findById(100L);
+    ResponseEntity<ProductGroup> productGroups = productGroupController.findById(100L, webRequest);
 
     verify(productGroupService).findByIdOrThrowBadRequestException(100L);
     verifyNoMoreInteractions(productGroupService);
@@ -86,7 +96,7 @@ class ProductGroupControllerTest {
 
     verifyNoMoreInteractions(productGroupService);
     Assertions.assertThrows(BadRequestException.class,
-        () -> productGroupController.findById(100L));
+        () -> productGroupController.findById(100L, webRequest));
   }
 
   @Test
@@ -94,9 +104,10 @@ class ProductGroupControllerTest {
   void listByName_ReturnAllProductGroupsWithTheSameName_WhenSuccessful() {
     when(productGroupService.findByName("productGroup Test")).thenReturn(List.of(productGroup));
     ResponseEntity<List<ProductGroup>> productGroups = productGroupController.findByName(
-        "productGroup Test");
+        "productGroup Test", webRequest);
 
     verify(productGroupService).findByName("productGroup Test");
+    verify(productGroupService).listEntityTag();
     verifyNoMoreInteractions(productGroupService);
     Assertions.assertEquals(ResponseEntity.ok(List.of(productGroup)), productGroups);
   }
@@ -107,9 +118,10 @@ class ProductGroupControllerTest {
     when(productGroupService.findByName("Unknown productGroup")).thenReturn(
         Collections.emptyList());
     ResponseEntity<List<ProductGroup>> productGroups = productGroupController.findByName(
-        "Unknown productGroup");
+        "Unknown productGroup", webRequest);
 
     verify(productGroupService).findByName("Unknown productGroup");
+    verify(productGroupService).listEntityTag();
     verifyNoMoreInteractions(productGroupService);
     Assertions.assertEquals(ResponseEntity.ok(Collections.emptyList()), productGroups);
     Assertions.assertNotEquals(ResponseEntity.ok(List.of(productGroup)), productGroups);
@@ -170,7 +182,7 @@ class ProductGroupControllerTest {
   void replace_ReplaceProductGroup_WhenSuccessful() {
     doNothing().when(productGroupService).replace(any(ProductGroupPutRequestBody.class));
     ResponseEntity<Void> responseEntity = productGroupController.replace(
-        productGroupPutRequestBody);
+        productGroupPutRequestBody, null);
 
     verify(productGroupService).replace(any(ProductGroupPutRequestBody.class));
     verifyNoMoreInteractions(productGroupService);
@@ -212,4 +224,35 @@ class ProductGroupControllerTest {
     Assertions.assertThrows(BadRequestException.class,
         () -> productGroupService.replace(productGroupPutRequestBody));
   }
+
+  @Test
+  @DisplayName("listAll returns not modified without loading anything when the ETag matches")
+  void listAll_ReturnNotModified_WhenETagMatches() {
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/product/groups");
+    request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"42\"");
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    when(productGroupService.listEntityTag()).thenReturn("\"42\"");
+
+    Assertions.assertNull(productGroupController.listAll(new ServletWebRequest(request, response)));
+
+    verify(productGroupService).listEntityTag();
+    verifyNoMoreInteractions(productGroupService);
+    Assertions.assertEquals(HttpStatus.NOT_MODIFIED.value(), response.getStatus());
+    Assertions.assertEquals("\"42\"", response.getHeader(HttpHeaders.ETAG));
+  }
+
+  @Test
+  @DisplayName("listByID returns not modified when the ETag matches the returned version")
+  void listByID_ReturnNotModified_WhenETagMatchesVersion() {
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/product/groups/100");
+    request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"0\"");
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    when(productGroupService.findByIdOrThrowBadRequestException(100L)).thenReturn(productGroup);
+
+    Assertions.assertNull(
+        productGroupController.findById(100L, new ServletWebRequest(request, response)));
+
+    Assertions.assertEquals(HttpStatus.NOT_MODIFIED.value(), response.getStatus());
+    Assertions.assertEquals("\"0\"", response.getHeader(HttpHeaders.ETAG));
+  }
 }
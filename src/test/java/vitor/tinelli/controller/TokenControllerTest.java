@@ -0,0 +1,53 @@
+package vitor.tinelli.controller;
+
+import static org.mockito.Mockito.*;
+import java.time.Instant;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.web.authentication.preauth.PreAuthenticatedAuthenticationToken;
+import vitor.tinelli.dto.TokenResponse;
+import vitor.tinelli.exception.BadRequestException;
+import vitor.tinelli.security.TokenService;
+
+@ExtendWith(MockitoExtension.class)
+class TokenControllerTest {
+
+  @InjectMocks
+  private TokenController tokenController;
+  @Mock
+  private TokenService tokenService;
+
+  @Test
+  @DisplayName("issue returns a token when authenticated with username and password")
+  void issue_ReturnToken_WhenAuthenticatedWithPassword() {
+    Authentication authentication = new UsernamePasswordAuthenticationToken("user", "password",
+        AuthorityUtils.createAuthorityList("ROLE_USER"));
+    TokenResponse tokenResponse = new TokenResponse("token", Instant.EPOCH);
+    when(tokenService.issue(authentication)).thenReturn(tokenResponse);
+
+    ResponseEntity<TokenResponse> response = tokenController.issue(authentication);
+
+    Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
+    Assertions.assertEquals(tokenResponse, response.getBody());
+  }
+
+  @Test
+  @DisplayName("issue throws BadRequestException when authenticated with a token")
+  void issue_ThrowBadRequestException_WhenAuthenticatedWithToken() {
+    Authentication authentication = new PreAuthenticatedAuthenticationToken("user", "token",
+        AuthorityUtils.createAuthorityList("ROLE_USER"));
+
+    Assertions.assertThrows(BadRequestException.class, () -> tokenController.issue(authentication));
+    verifyNoInteractions(tokenService);
+  }
+}
@@ -12,6 +12,11 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
 import vitor.tinelli.domain.Unit;
 import vitor.tinelli.exception.BadRequestException;
 import vitor.tinelli.requests.UnitPostRequestBody;
@@ -31,8 +36,12 @@ class UnitControllerTest {
   @InjectMocks
   private UnitController unitController;
 
+  ServletWebRequest webRequest;
+
   @BeforeEach
   void setUp() {
+    webRequest = new ServletWebRequest(new MockHttpServletRequest("GET", "/units"),
+        new MockHttpServletResponse());
     unitPostRequestBody = new UnitPostRequestBody();
     unitPostRequestBody.setName("Unit POST Test");
 
@@ -47,9 +56,10 @@ class UnitControllerTest {
   @DisplayName("listAll returns list of units when successful")
   void listAll_ReturnAllUnits_WhenSuccessful() {
     when(unitService.listAll()).thenReturn(List.of(unit));
-    List<Unit> units = unitController.listAll();
+    List<Unit> units = unitController.listAll(webRequest);
 
     verify(unitService).listAll();
+    verify(unitService).listEntityTag();
     verifyNoMoreInteractions(unitService);
     Assertions.assertEquals(List.of(unit), units);
   }
@@ -58,9 +68,10 @@ class UnitControllerTest {
   @DisplayName("listAll returns empty list when any unit exists")
   void listAll_ReturnEmptyList_WhenUnitNotExist() {
     when(unitService.listAll()).thenReturn(Collections.emptyList());
-    List<Unit> units = unitController.listAll();
+    List<Unit> units = unitController.listAll(webRequest);
 
     verify(unitService).listAll();
+    verify(unitService).listEntityTag();
     verifyNoMoreInteractions(unitService);
     Assertions.assertEquals(Collections.emptyList(), units);
     Assertions.assertNotEquals(List.of(unit), units);
@@ -70,7 +81,7 @@ class UnitControllerTest {
   @DisplayName("listByID returns a unit when successful")
   void listByID_ReturnUnit_WhenSuccessful() {
     when(unitService.findByIdOrThrowBadRequestException(100L)).thenReturn(unit);
-    Unit units = unitController.findById(100L);
+    Unit units = unitController.findById(100L, webRequest);
 
     verify(unitService).findByIdOrThrowBadRequestException(100L);
     verifyNoMoreInteractions(unitService);
@@ -85,16 +96,17 @@ class UnitControllerTest {
 
     verifyNoMoreInteractions(unitService);
     Assertions.assertThrows(BadRequestException.class,
-        () -> unitService.findByIdOrThrowBadRequestException(100L));
+        () -> unitController.findById(100L, webRequest));
   }
 
   @Test
   @DisplayName("listByName returns list of units when successful")
   void listByName_ReturnAllUnitsWithTheSameName_WhenSuccessful() {
     when(unitService.findByName("unit Test")).thenReturn(List.of(unit));
-    List<Unit> units = unitController.findByName("unit Test");
+    List<Unit> units = unitController.findByName("unit Test", webRequest);
 
     verify(unitService).findByName("unit Test");
+    verify(unitService).listEntityTag();
     verifyNoMoreInteractions(unitService);
     Assertions.assertEquals(List.of(unit), units);
   }
@@ -103,9 +115,10 @@ class UnitControllerTest {
   @DisplayName("listByName returns empty list when any unit exists")
   void listByName_ReturnEmptyList_WhenUnitNotExist() {
     when(unitService.findByName("Unknown unit")).thenReturn(Collections.emptyList());
-    List<Unit> units = unitController.findByName("Unknown unit");
+    List<Unit> units = unitController.findByName("Unknown unit", webRequest);
 
     verify(unitService).findByName("Unknown unit");
+    verify(unitService).listEntityTag();
     verifyNoMoreInteractions(unitService);
     Assertions.assertEquals(Collections.emptyList(), units);
     Assertions.assertNotEquals(List.of(unit), units);
@@ -160,7 +173,7 @@ class UnitControllerTest {
   void replace_ReplaceUnit_WhenSuccessful() {
     doNothing().when(unitService).replace(any(UnitPutRequestBody.class));
 
-    unitController.replace(unitPutRequestBody);
+    unitController.replace(unitPutRequestBody, null);
 
     ArgumentCaptor<UnitPutRequestBody> argumentCaptor = ArgumentCaptor.forClass(
         UnitPutRequestBody.class);
@@ -206,4 +219,34 @@ class UnitControllerTest {
     Assertions.assertThrows(BadRequestException.class,
         () -> unitService.replace(unitPutRequestBody));
   }
+
+  @Test
+  @DisplayName("listAll returns not modified without loading anything when the ETag matches")
+  void listAll_ReturnNotModified_WhenETagMatches() {
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/units");
+    request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"42\"");
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    when(unitService.listEntityTag()).thenReturn("\"42\"");
+
+    Assertions.assertNull(unitController.listAll(new ServletWebRequest(request, response)));
+
+    verify(unitService).listEntityTag();
+    verifyNoMoreInteractions(unitService);
+    Assertions.assertEquals(HttpStatus.NOT_MODIFIED.value(), response.getStatus());
+    Assertions.assertEquals("\"42\"", response.getHeader(HttpHeaders.ETAG));
+  }
+
+  @Test
+  @DisplayName("listByID returns not modified when the ETag matches the returned version")
+  void listByID_ReturnNotModified_WhenETagMatchesVersion() {
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/units/100");
+    request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"0\"");
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    when(unitService.findByIdOrThrowBadRequestException(100L)).thenReturn(unit);
+
+    Assertions.assertNull(unitController.findById(100L, new ServletWebRequest(request, response)));
+
+    Assertions.assertEquals(HttpStatus.NOT_MODIFIED.value(), response.getStatus());
+    Assertions.assertEquals("\"0\"", response.getHeader(HttpHeaders.ETAG));
+  }
 }
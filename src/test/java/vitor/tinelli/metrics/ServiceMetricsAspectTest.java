@@ -0,0 +1,76 @@
+package vitor.tinelli.metrics;
+
+import static org.mockito.Mockito.*;
+import java.util.List;
+import java.util.Optional;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import vitor.tinelli.cache.CacheInvalidationPublisher;
+import vitor.tinelli.config.PaginationProperties;
+import vitor.tinelli.domain.Brand;
+import vitor.tinelli.exception.BadRequestException;
+import vitor.tinelli.repository.BrandRepository;
+import vitor.tinelli.service.BrandService;
+import vitor.tinelli.service.CatalogChangeService;
+
+@ExtendWith(MockitoExtension.class)
+class ServiceMetricsAspectTest {
+
+  SimpleMeterRegistry meterRegistry;
+  BrandService brandService;
+
+  @Mock
+  private BrandRepository brandRepository;
+  @Mock
+  private CacheInvalidationPublisher cacheInvalidationPublisher;
+  @Mock
+  private CatalogChangeService catalogChangeService;
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    AspectJProxyFactory proxyFactory = new AspectJProxyFactory(
+        new BrandService(brandRepository, new PaginationProperties(), cacheInvalidationPublisher,
+            catalogChangeService));
+    proxyFactory.setProxyTargetClass(true);
+    proxyFactory.addAspect(new ServiceMetricsAspect(meterRegistry));
+    brandService = proxyFactory.getProxy();
+  }
+
+  @Test
+  @DisplayName("time records a successful call tagged with service and method")
+  void time_RecordSuccess_WhenCallSucceeds() {
+    when(brandRepository.findAll()).thenReturn(List.of(new Brand(1L, "Brand Test")));
+
+    brandService.listAll();
+
+    Assertions.assertEquals(1, meterRegistry.get(ServiceMetricsAspect.METRIC_NAME)
+        .tag("service", "BrandService")
+        .tag("method", "listAll")
+        .tag("endpoint", "none")
+        .tag("outcome", "success")
+        .timer().count());
+  }
+
+  @Test
+  @DisplayName("time records a bad_request outcome when the service throws BadRequestException")
+  void time_RecordBadRequest_WhenServiceThrowsBadRequestException() {
+    when(brandRepository.findById(1L)).thenReturn(Optional.empty());
+
+    Assertions.assertThrows(BadRequestException.class,
+        () -> brandService.findByIdOrThrowBadRequestException(1L));
+
+    Assertions.assertEquals(1, meterRegistry.get(ServiceMetricsAspect.METRIC_NAME)
+        .tag("method", "findByIdOrThrowBadRequestException")
+        .tag("outcome", "bad_request")
+        .tag("exception", "BadRequestException")
+        .timer().count());
+  }
+}
@@ -0,0 +1,92 @@
+package vitor.tinelli.metrics;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import vitor.tinelli.domain.Brand;
+import vitor.tinelli.domain.Product;
+import vitor.tinelli.domain.ProductGroup;
+import vitor.tinelli.domain.Unit;
+import vitor.tinelli.repository.BrandRepository;
+import vitor.tinelli.repository.ProductGroupRepository;
+import vitor.tinelli.repository.ProductRepository;
+import vitor.tinelli.repository.UnitRepository;
+
+// The test profile enforces budgets, so a handler going over its @SqlBudget fails the request.
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase
+@ActiveProfiles("test")
+class SqlBudgetIntegrationTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+  @Autowired
+  private MeterRegistry meterRegistry;
+  @Autowired
+  private ProductRepository productRepository;
+  @Autowired
+  private BrandRepository brandRepository;
+  @Autowired
+  private UnitRepository unitRepository;
+  @Autowired
+  private ProductGroupRepository productGroupRepository;
+
+  @Test
+  @WithMockUser
+  @DisplayName("findById reads the ETag and loads a product with its references in two statements")
+  void findById_StaysWithinSqlBudget_WhenProductExists() throws Exception {
+    Product product = saveProduct();
+
+    mockMvc.perform(get("/products/{id}", product.getId())).andExpect(status().isOk());
+
+    Assertions.assertEquals(2.0, maxStatements("GET", "/products/{id}"));
+  }
+
+  @Test
+  @WithMockUser
+  @DisplayName("patch runs the UPDATE and the change feed insert, and nothing after the commit")
+  void patch_StaysWithinSqlBudget_WhenProductExists() throws Exception {
+    Product product = saveProduct();
+
+    mockMvc.perform(patch("/products/{id}", product.getId()).with(csrf())
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"name\":\"Product Patch Test\"}"))
+        .andExpect(status().isNoContent());
+
+    Assertions.assertEquals(2.0, maxStatements("PATCH", "/products/{id}"));
+  }
+
+  private Product saveProduct() {
+    return productRepository.save(Product.builder()
+        .name("Product Test")
+        .brand(brandRepository.save(Brand.builder().name("Brand Test").build()))
+        .unit(unitRepository.save(Unit.builder().name("Unit Test").build()))
+        .productGroup(productGroupRepository.save(
+            ProductGroup.builder().name("ProductGroup Test").build()))
+        .build());
+  }
+
+  private double maxStatements(String method, String uri) {
+    DistributionSummary statements = meterRegistry.find(RequestSqlStatsFilter.STATEMENTS_METRIC)
+        .tag("method", method)
+        .tag("uri", uri)
+        .summary();
+    Assertions.assertNotNull(statements);
+    return statements.max();
+  }
+}
@@ -0,0 +1,48 @@
+package vitor.tinelli.pagination;
+
+import java.util.List;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import vitor.tinelli.exception.BadRequestException;
+
+class ContinuationTokenTest {
+
+  @Test
+  @DisplayName("decode returns the id that was encoded")
+  void decode_ReturnEncodedId_WhenTokenIsValid() {
+    Assertions.assertEquals(42L, ContinuationToken.decode(ContinuationToken.encode(42L)));
+  }
+
+  @Test
+  @DisplayName("decode returns the first page when token is null or blank")
+  void decode_ReturnFirstPage_WhenTokenIsBlank() {
+    Assertions.assertEquals(ContinuationToken.FIRST_PAGE, ContinuationToken.decode(null));
+    Assertions.assertEquals(ContinuationToken.FIRST_PAGE, ContinuationToken.decode(" "));
+  }
+
+  @Test
+  @DisplayName("decode throws BadRequestException when token was not issued by the API")
+  void decode_ThrowBadRequestException_WhenTokenIsInvalid() {
+    Assertions.assertThrows(BadRequestException.class, () -> ContinuationToken.decode("42"));
+    Assertions.assertThrows(BadRequestException.class, () -> ContinuationToken.decode("%%%"));
+  }
+
+  @Test
+  @DisplayName("KeysetPage drops the lookahead row and points next to the last returned id")
+  void keysetPage_ReturnNextToken_WhenMoreRowsExist() {
+    KeysetPage<Long> page = KeysetPage.of(List.of(1L, 2L, 3L), 2, Long::longValue);
+
+    Assertions.assertEquals(List.of(1L, 2L), page.getContent());
+    Assertions.assertEquals(2L, ContinuationToken.decode(page.getNext()));
+  }
+
+  @Test
+  @DisplayName("KeysetPage has no next token on the last page")
+  void keysetPage_ReturnNullNext_WhenLastPage() {
+    KeysetPage<Long> page = KeysetPage.of(List.of(1L, 2L), 2, Long::longValue);
+
+    Assertions.assertEquals(List.of(1L, 2L), page.getContent());
+    Assertions.assertNull(page.getNext());
+  }
+}
@@ -0,0 +1,67 @@
+package vitor.tinelli.repository;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+import vitor.tinelli.domain.CatalogChange;
+import vitor.tinelli.domain.CatalogChange.Operation;
+import vitor.tinelli.domain.CatalogChange.Resource;
+
+@DataJpaTest
+@ActiveProfiles("test")
+class CatalogChangeRepositoryTest {
+
+  @Autowired
+  private TestEntityManager testEntityManager;
+  @Autowired
+  private CatalogChangeRepository catalogChangeRepository;
+
+  @BeforeEach
+  void setUp() {
+    Instant old = Instant.now().minus(30, ChronoUnit.DAYS);
+    persist(1L, Resource.BRAND, old);
+    persist(2L, Resource.PRODUCT, old);
+    persist(3L, Resource.BRAND, old);
+    persist(4L, Resource.PRODUCT, old);
+    testEntityManager.flush();
+    testEntityManager.clear();
+  }
+
+  @Test
+  @DisplayName("maxSequence returns the newest sequence of one resource, or 0 without changes")
+  void maxSequence_ReturnNewestOfResource_WhenChangesExist() {
+    Assertions.assertEquals(3L, catalogChangeRepository.maxSequence(Resource.BRAND));
+    Assertions.assertEquals(4L, catalogChangeRepository.maxSequence(Resource.PRODUCT));
+    Assertions.assertEquals(0L, catalogChangeRepository.maxSequence(Resource.UNIT));
+    Assertions.assertEquals(4L, catalogChangeRepository.maxSequence());
+  }
+
+  @Test
+  @DisplayName("deleteChangedBefore keeps the newest change of every resource")
+  void deleteChangedBefore_KeepNewestOfEachResource_WhenAllAreExpired() {
+    int deleted = catalogChangeRepository.deleteChangedBefore(Instant.now());
+
+    Assertions.assertEquals(2, deleted);
+    Assertions.assertEquals(List.of(3L, 4L), catalogChangeRepository.findAll().stream()
+        .map(CatalogChange::getSequence).sorted().collect(Collectors.toList()));
+  }
+
+  private void persist(long sequence, Resource resource, Instant changedAt) {
+    testEntityManager.persist(CatalogChange.builder()
+        .sequence(sequence)
+        .resource(resource)
+        .entityId(sequence)
+        .operation(Operation.UPDATED)
+        .changedAt(changedAt)
+        .build());
+  }
+}
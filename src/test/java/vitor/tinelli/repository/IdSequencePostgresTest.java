@@ -0,0 +1,58 @@
+package vitor.tinelli.repository;
+
+import java.util.Map;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+// Column defaults and sequences only exist in the Flyway schema, which H2 does not run.
+@Testcontainers(disabledWithoutDocker = true)
+class IdSequencePostgresTest {
+
+  @Container
+  private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:15-alpine");
+
+  private static final Map<String, String> ID_COLUMNS = Map.of("brand", "brand_id",
+      "unit", "unit_id", "product_group", "product_group_id", "product", "product_id",
+      "onboarding_users", "id");
+
+  private static JdbcTemplate jdbcTemplate;
+
+  @BeforeAll
+  static void setUp() {
+    DriverManagerDataSource dataSource = new DriverManagerDataSource(
+        POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+    Flyway.configure().dataSource(dataSource).load().migrate();
+    jdbcTemplate = new JdbcTemplate(dataSource);
+  }
+
+  @Test
+  @DisplayName("id columns default to the pooled sequences and the serial sequences are gone")
+  void idColumns_DefaultToPooledSequence_WhenMigrated() {
+    ID_COLUMNS.forEach((table, column) -> {
+      Assertions.assertEquals("nextval('" + table + "_seq'::regclass)",
+          jdbcTemplate.queryForObject("SELECT column_default FROM information_schema.columns"
+              + " WHERE table_name = ? AND column_name = ?", String.class, table, column), table);
+      Assertions.assertNull(jdbcTemplate.queryForObject("SELECT to_regclass(?)::text",
+          String.class, table + "_" + column + "_seq"), table);
+    });
+  }
+
+  @Test
+  @DisplayName("a row inserted outside Hibernate takes an id from a block of its own")
+  void insert_SkipAllocatedBlock_WhenInsertedWithDefault() {
+    long allocated = jdbcTemplate.queryForObject("SELECT nextval('brand_seq')", Long.class);
+
+    long inserted = jdbcTemplate.queryForObject(
+        "INSERT INTO brand (brand_name) VALUES ('Brand Test') RETURNING brand_id", Long.class);
+
+    Assertions.assertEquals(allocated + 50, inserted);
+  }
+}
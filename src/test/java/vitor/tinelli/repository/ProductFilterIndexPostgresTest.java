@@ -0,0 +1,93 @@
+package vitor.tinelli.repository;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+// Plans depend on the Postgres planner and the Flyway indexes, neither of which H2 has.
+@Testcontainers(disabledWithoutDocker = true)
+class ProductFilterIndexPostgresTest {
+
+  @Container
+  private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:15-alpine");
+
+  private static JdbcTemplate jdbcTemplate;
+
+  @BeforeAll
+  static void setUp() {
+    DriverManagerDataSource dataSource = new DriverManagerDataSource(
+        POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+    Flyway.configure().dataSource(dataSource).load().migrate();
+    jdbcTemplate = new JdbcTemplate(dataSource);
+
+    jdbcTemplate.update("INSERT INTO brand (brand_name)"
+        + " SELECT 'Brand ' || i FROM generate_series(1, 100) i");
+    jdbcTemplate.update("INSERT INTO unit (unit_name)"
+        + " SELECT 'Unit ' || i FROM generate_series(1, 100) i");
+    jdbcTemplate.update("INSERT INTO product_group (product_group_name)"
+        + " SELECT 'ProductGroup ' || i FROM generate_series(1, 100) i");
+    jdbcTemplate.update("INSERT INTO product (product_id, product_name, unit_id, product_group_id,"
+        + " brand_id) SELECT nextval('product_seq'), 'Product ' || i, u.unit_id,"
+        + " g.product_group_id, b.brand_id FROM generate_series(0, 19999) i"
+        + " JOIN (SELECT brand_id, row_number() OVER (ORDER BY brand_id) - 1 AS n FROM brand) b"
+        + " ON b.n = i % 100"
+        + " JOIN (SELECT unit_id, row_number() OVER (ORDER BY unit_id) - 1 AS n FROM unit) u"
+        + " ON u.n = i / 100 % 100"
+        + " JOIN (SELECT product_group_id, row_number() OVER (ORDER BY product_group_id) - 1 AS n"
+        + " FROM product_group) g ON g.n = i / 7 % 100");
+    jdbcTemplate.execute("ANALYZE product");
+  }
+
+  @Test
+  @DisplayName("a brand filter reads product_brand_idx in keyset order, without a sort")
+  void findFiltered_UseBrandIndex_WhenOnlyBrandIsSet() {
+    assertKeysetPlan("brand_id", "brand", "product_brand_idx");
+  }
+
+  @Test
+  @DisplayName("a group filter reads product_group_idx in keyset order, without a sort")
+  void findFiltered_UseGroupIndex_WhenOnlyGroupIsSet() {
+    assertKeysetPlan("product_group_id", "product_group", "product_group_idx");
+  }
+
+  @Test
+  @DisplayName("a unit filter reads product_unit_idx in keyset order, without a sort")
+  void findFiltered_UseUnitIndex_WhenOnlyUnitIsSet() {
+    assertKeysetPlan("unit_id", "unit", "product_unit_idx");
+  }
+
+  @Test
+  @DisplayName("a pair of filters reads one of its single filter indexes instead of the table")
+  void findFiltered_UseSingleFilterIndex_WhenTwoFiltersAreSet() {
+    long brandId = jdbcTemplate.queryForObject("SELECT min(brand_id) FROM brand", Long.class);
+    long unitId = jdbcTemplate.queryForObject("SELECT min(unit_id) FROM unit", Long.class);
+
+    String plan = explain("p.brand_id = " + brandId + " AND p.unit_id = " + unitId);
+
+    Assertions.assertTrue(plan.contains("product_brand_idx") || plan.contains("product_unit_idx"),
+        plan);
+    Assertions.assertFalse(plan.contains("Seq Scan"), plan);
+  }
+
+  private void assertKeysetPlan(String column, String table, String index) {
+    long id = jdbcTemplate.queryForObject("SELECT min(" + column + ") FROM " + table, Long.class);
+
+    String plan = explain("p." + column + " = " + id);
+
+    Assertions.assertTrue(plan.contains(index), plan);
+    Assertions.assertFalse(plan.contains("Sort"), plan);
+  }
+
+  private String explain(String filters) {
+    return String.join("\n", jdbcTemplate.queryForList("EXPLAIN SELECT * FROM product p"
+        + " WHERE p.product_id > 0 AND " + filters + " ORDER BY p.product_id LIMIT 20",
+        String.class));
+  }
+}
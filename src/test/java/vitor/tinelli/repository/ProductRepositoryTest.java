@@ -0,0 +1,197 @@
+package vitor.tinelli.repository;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.ActiveProfiles;
+import vitor.tinelli.domain.Brand;
+import vitor.tinelli.domain.Product;
+import vitor.tinelli.domain.ProductGroup;
+import vitor.tinelli.domain.Unit;
+import vitor.tinelli.dto.FacetCount;
+import vitor.tinelli.dto.ProductFacets;
+import vitor.tinelli.dto.ProductSummary;
+import vitor.tinelli.dto.ProductVersions;
+import vitor.tinelli.requests.ProductFilter;
+import vitor.tinelli.requests.ProductPatchRequestBody;
+
+@DataJpaTest
+@ActiveProfiles("test")
+class ProductRepositoryTest {
+
+  @Autowired
+  private TestEntityManager testEntityManager;
+  @Autowired
+  private ProductRepository productRepository;
+
+  private Statistics statistics;
+
+  @BeforeEach
+  void setUp() {
+    for (int i = 0; i < 3; i++) {
+      Unit unit = testEntityManager.persist(Unit.builder().name("unit Test " + i).build());
+      ProductGroup productGroup = testEntityManager.persist(
+          ProductGroup.builder().name("productGroup Test " + i).build());
+      Brand brand = testEntityManager.persist(Brand.builder().name("brand Test " + i).build());
+
+      testEntityManager.persist(Product.builder()
+          .name("product Test")
+          .unit(unit)
+          .productGroup(productGroup)
+          .brand(brand)
+          .build());
+    }
+    testEntityManager.flush();
+    testEntityManager.clear();
+
+    statistics = testEntityManager.getEntityManager().getEntityManagerFactory()
+        .unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+  }
+
+  @Test
+  @DisplayName("findAll loads products and their references in a single statement")
+  void findAll_LoadReferencesInOneStatement_WhenReferencesAreDistinct() {
+    List<Product> products = productRepository.findAll();
+
+    Assertions.assertEquals(3, products.size());
+    products.forEach(product -> {
+      Assertions.assertNotNull(product.getUnit().getName());
+      Assertions.assertNotNull(product.getProductGroup().getName());
+      Assertions.assertNotNull(product.getBrand().getName());
+    });
+    Assertions.assertEquals(1, statistics.getPrepareStatementCount());
+  }
+
+  @Test
+  @DisplayName("findByName loads products and their references in a single statement")
+  void findByName_LoadReferencesInOneStatement_WhenReferencesAreDistinct() {
+    List<Product> products = productRepository.findByName("product Test");
+
+    Assertions.assertEquals(3, products.size());
+    Assertions.assertEquals(1, statistics.getPrepareStatementCount());
+  }
+
+  @Test
+  @DisplayName("findAllSummaries returns flat rows in a single statement")
+  void findAllSummaries_ReturnFlatRowsInOneStatement_WhenSuccessful() {
+    List<ProductSummary> summaries = productRepository.findAllSummaries();
+
+    Assertions.assertEquals(3, summaries.size());
+    Assertions.assertEquals("unit Test 0", summaries.get(0).getUnitName());
+    Assertions.assertEquals("brand Test 0", summaries.get(0).getBrandName());
+    Assertions.assertEquals("productGroup Test 0", summaries.get(0).getGroupName());
+    Assertions.assertEquals(1, statistics.getPrepareStatementCount());
+  }
+
+  @Test
+  @DisplayName("findFiltered returns only matching products with references in a single statement")
+  void findFiltered_ReturnMatchingProductsInOneStatement_WhenFilterIsSet() {
+    Product first = productRepository.findAllSummaries().stream().findFirst()
+        .map(summary -> testEntityManager.find(Product.class, summary.getId()))
+        .orElseThrow();
+    testEntityManager.clear();
+    statistics.clear();
+
+    List<Product> products = productRepository.findFiltered(new ProductFilter(
+        first.getBrand().getId(), null, first.getProductGroup().getId()), 0L, 10);
+
+    Assertions.assertEquals(1, products.size());
+    Assertions.assertEquals(first.getId(), products.get(0).getId());
+    Assertions.assertEquals("brand Test 0", products.get(0).getBrand().getName());
+    Assertions.assertEquals(1, statistics.getPrepareStatementCount());
+  }
+
+  @Test
+  @DisplayName("findFiltered pages by id when no filter is set")
+  void findFiltered_ReturnProductsAfterId_WhenFilterIsEmpty() {
+    List<Product> firstPage = productRepository.findFiltered(new ProductFilter(), 0L, 2);
+    List<Product> secondPage = productRepository.findFiltered(new ProductFilter(),
+        firstPage.get(1).getId(), 2);
+
+    Assertions.assertEquals(2, firstPage.size());
+    Assertions.assertEquals(1, secondPage.size());
+    Assertions.assertTrue(secondPage.get(0).getId() > firstPage.get(1).getId());
+  }
+
+  @Test
+  @DisplayName("countFacets counts products per brand and group in a single statement")
+  void countFacets_CountPerBrandAndGroupInOneStatement_WhenSuccessful() {
+    ProductFacets facets = productRepository.countFacets(new ProductFilter());
+
+    Assertions.assertEquals(3, facets.getBrands().size());
+    Assertions.assertEquals(3, facets.getProductGroups().size());
+    facets.getBrands().forEach(brand -> Assertions.assertEquals(1, brand.getCount()));
+    Assertions.assertEquals(1, statistics.getPrepareStatementCount());
+
+    Long brandId = facets.getBrands().get(0).getId();
+    ProductFacets filtered = productRepository.countFacets(new ProductFilter(brandId, null, null));
+    Assertions.assertEquals(List.of(brandId), filtered.getBrands().stream()
+        .map(FacetCount::getId).collect(Collectors.toList()));
+    Assertions.assertEquals(1, filtered.getProductGroups().size());
+  }
+
+  @Test
+  @DisplayName("findVersionsById returns the versions of the product and its references")
+  void findVersionsById_ReturnVersions_WhenProductExists() {
+    Product product = productRepository.findAll().get(0);
+    statistics.clear();
+
+    ProductVersions versions = productRepository.findVersionsById(product.getId()).orElseThrow();
+
+    Assertions.assertEquals(new ProductVersions(0L, 0L, 0L, 0L), versions);
+    Assertions.assertEquals(1, statistics.getPrepareStatementCount());
+  }
+
+  @Test
+  @DisplayName("patch writes only the given fields and bumps the version in a single statement")
+  void patch_UpdateGivenFieldsInOneStatement_WhenProductExists() {
+    List<Product> products = productRepository.findAll();
+    Product product = products.get(0);
+    Brand otherBrand = products.get(1).getBrand();
+    testEntityManager.clear();
+    statistics.clear();
+
+    ProductPatchRequestBody patch = new ProductPatchRequestBody();
+    patch.setName("product Test patched");
+    patch.setBrand_id(otherBrand.getId());
+
+    Assertions.assertEquals(1, productRepository.patch(product.getId(), patch));
+    Assertions.assertEquals(1, statistics.getPrepareStatementCount());
+
+    Product patched = testEntityManager.find(Product.class, product.getId());
+    Assertions.assertEquals("product Test patched", patched.getName());
+    Assertions.assertEquals(otherBrand.getId(), patched.getBrand().getId());
+    Assertions.assertEquals(product.getUnit().getId(), patched.getUnit().getId());
+    Assertions.assertEquals(product.getVersion() + 1, patched.getVersion());
+  }
+
+  @Test
+  @DisplayName("patch updates nothing when the product does not exist")
+  void patch_ReturnZero_WhenProductNotExist() {
+    ProductPatchRequestBody patch = new ProductPatchRequestBody();
+    patch.setName("product Test patched");
+
+    Assertions.assertEquals(0, productRepository.patch(-1L, patch));
+  }
+
+  @Test
+  @DisplayName("patch fails on the foreign key when the brand does not exist")
+  void patch_ThrowDataIntegrityViolationException_WhenBrandNotExist() {
+    Product product = productRepository.findAll().get(0);
+    ProductPatchRequestBody patch = new ProductPatchRequestBody();
+    patch.setBrand_id(-1L);
+
+    Assertions.assertThrows(DataIntegrityViolationException.class,
+        () -> productRepository.patch(product.getId(), patch));
+  }
+}
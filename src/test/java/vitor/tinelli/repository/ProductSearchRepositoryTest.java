@@ -0,0 +1,76 @@
+package vitor.tinelli.repository;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import vitor.tinelli.domain.Product;
+
+// searchIds is native Postgres SQL (pg_trgm, tsvector), so it runs against the Flyway schema.
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+class ProductSearchRepositoryTest {
+
+  @Container
+  private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:15-alpine");
+
+  @Autowired
+  private TestEntityManager testEntityManager;
+  @Autowired
+  private ProductRepository productRepository;
+
+  @DynamicPropertySource
+  static void datasource(DynamicPropertyRegistry registry) {
+    registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+    registry.add("spring.datasource.username", POSTGRES::getUsername);
+    registry.add("spring.datasource.password", POSTGRES::getPassword);
+  }
+
+  @Test
+  @DisplayName("searchIds ranks exact, word prefix and substring matches in that order")
+  void searchIds_RankMatches_WhenNamesMatchDifferently() {
+    long chocolate = persist("Chocolate");
+    long cocaCola = persist("Coca-Cola Zero");
+    long cola = persist("Cola");
+    persist("Pepsi");
+    testEntityManager.flush();
+
+    List<Long> ids = productRepository.searchIds("cola", "cola%", "%cola%", "cola:*", 10).stream()
+        .map(Number::longValue)
+        .collect(Collectors.toList());
+
+    Assertions.assertEquals(List.of(cola, cocaCola, chocolate), ids);
+  }
+
+  @Test
+  @DisplayName("searchIds matches every term as a word prefix and honours the limit")
+  void searchIds_MatchAllTermsAndLimit_WhenQueryHasSeveralWords() {
+    long cocaCola = persist("Coca-Cola Zero");
+    long cocaColaLemon = persist("Coca-Cola Zero Lemon");
+    persist("Cola Light");
+    testEntityManager.flush();
+
+    List<Long> ids = productRepository.searchIds("cola ze", "cola ze%", "%cola ze%",
+            "cola:* & ze:*", 1).stream()
+        .map(Number::longValue)
+        .collect(Collectors.toList());
+
+    Assertions.assertEquals(1, ids.size());
+    Assertions.assertTrue(List.of(cocaCola, cocaColaLemon).contains(ids.get(0)));
+  }
+
+  private long persist(String name) {
+    return testEntityManager.persist(Product.builder().name(name).build()).getId();
+  }
+}
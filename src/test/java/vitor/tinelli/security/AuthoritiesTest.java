@@ -0,0 +1,35 @@
+package vitor.tinelli.security;
+
+import java.util.List;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.AuthorityUtils;
+import vitor.tinelli.domain.OnboardingUsers;
+
+class AuthoritiesTest {
+
+  @Test
+  @DisplayName("of trims blanks and duplicates from the authorities column")
+  void of_ReturnNormalizedAuthorities_WhenColumnHasBlanksAndDuplicates() {
+    Assertions.assertEquals(AuthorityUtils.createAuthorityList("ROLE_USER", "ROLE_ADMIN"),
+        Authorities.of(" ROLE_USER,,ROLE_ADMIN , ROLE_USER"));
+  }
+
+  @Test
+  @DisplayName("of returns the same immutable list for users sharing a role combination")
+  void of_ReturnSameList_WhenCalledForEqualColumns() {
+    OnboardingUsers first = new OnboardingUsers(1L, "first", "password", "ROLE_USER");
+    OnboardingUsers second = new OnboardingUsers(2L, "second", "password", new String("ROLE_USER"));
+
+    Assertions.assertSame(first.getAuthorities(), second.getAuthorities());
+    Assertions.assertThrows(UnsupportedOperationException.class,
+        () -> Authorities.of("ROLE_USER").clear());
+  }
+
+  @Test
+  @DisplayName("of returns an empty list when the column is null")
+  void of_ReturnEmptyList_WhenColumnIsNull() {
+    Assertions.assertEquals(List.of(), Authorities.of(null));
+  }
+}
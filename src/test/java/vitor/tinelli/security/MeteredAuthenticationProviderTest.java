@@ -0,0 +1,87 @@
+package vitor.tinelli.security;
+
+import static org.mockito.Mockito.*;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.userdetails.cache.SpringCacheBasedUserCache;
+import org.springframework.security.crypto.password.NoOpPasswordEncoder;
+import vitor.tinelli.domain.OnboardingUsers;
+import vitor.tinelli.repository.OnboardingUsersRepository;
+import vitor.tinelli.service.OnboardingUsersDetailService;
+
+@ExtendWith(MockitoExtension.class)
+class MeteredAuthenticationProviderTest {
+
+  OnboardingUsers user;
+  SimpleMeterRegistry meterRegistry;
+  SpringCacheBasedUserCache userCache;
+  MeteredAuthenticationProvider authenticationProvider;
+
+  @Mock
+  private OnboardingUsersRepository onboardingUsersRepository;
+
+  @BeforeEach
+  void setUp() {
+    user = new OnboardingUsers(1L, "user", "password", "ROLE_USER");
+    meterRegistry = new SimpleMeterRegistry();
+    userCache = new SpringCacheBasedUserCache(new ConcurrentMapCache("users"));
+
+    DaoAuthenticationProvider daoAuthenticationProvider = new DaoAuthenticationProvider();
+    daoAuthenticationProvider.setUserDetailsService(
+        new OnboardingUsersDetailService(onboardingUsersRepository));
+    daoAuthenticationProvider.setPasswordEncoder(NoOpPasswordEncoder.getInstance());
+    daoAuthenticationProvider.setUserCache(userCache);
+    authenticationProvider = new MeteredAuthenticationProvider(daoAuthenticationProvider, meterRegistry);
+  }
+
+  @Test
+  @DisplayName("authenticate loads the user once and serves repeated requests from the cache")
+  void authenticate_HitsRepositoryOnce_WhenCalledRepeatedly() {
+    when(onboardingUsersRepository.findByUsername("user")).thenReturn(user);
+
+    for (int i = 0; i < 3; i++) {
+      Assertions.assertTrue(authenticationProvider.authenticate(
+          new UsernamePasswordAuthenticationToken("user", "password")).isAuthenticated());
+    }
+
+    verify(onboardingUsersRepository).findByUsername("user");
+    verifyNoMoreInteractions(onboardingUsersRepository);
+    Assertions.assertEquals(3, meterRegistry.timer(MeteredAuthenticationProvider.TIMER_NAME,
+        "result", "success").count());
+  }
+
+  @Test
+  @DisplayName("authenticate reloads the user when the password no longer matches the cached copy")
+  void authenticate_ReloadsUser_WhenCachedPasswordIsStale() {
+    userCache.putUserInCache(new OnboardingUsers(1L, "user", "old", "ROLE_USER"));
+    when(onboardingUsersRepository.findByUsername("user")).thenReturn(user);
+
+    Assertions.assertTrue(authenticationProvider.authenticate(
+        new UsernamePasswordAuthenticationToken("user", "password")).isAuthenticated());
+
+    verify(onboardingUsersRepository).findByUsername("user");
+    Assertions.assertEquals("password", userCache.getUserFromCache("user").getPassword());
+  }
+
+  @Test
+  @DisplayName("authenticate records a failure when the password is wrong")
+  void authenticate_RecordsFailure_WhenPasswordIsWrong() {
+    when(onboardingUsersRepository.findByUsername("user")).thenReturn(user);
+
+    Assertions.assertThrows(BadCredentialsException.class, () -> authenticationProvider.authenticate(
+        new UsernamePasswordAuthenticationToken("user", "wrong")));
+
+    Assertions.assertEquals(1, meterRegistry.timer(MeteredAuthenticationProvider.TIMER_NAME,
+        "result", "failure").count());
+  }
+}
@@ -0,0 +1,43 @@
+package vitor.tinelli.security;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+class RoleAuthorizationManagerTest {
+
+  private final RoleAuthorizationManager<Object> adminOnly = RoleAuthorizationManager.hasRole("ADMIN");
+
+  @Test
+  @DisplayName("check grants access when the user has the role")
+  void check_Grant_WhenUserHasRole() {
+    Authentication authentication = new UsernamePasswordAuthenticationToken("admin", null,
+        AuthorityUtils.createAuthorityList("ROLE_USER", "ROLE_ADMIN"));
+
+    Assertions.assertTrue(adminOnly.check(() -> authentication, new Object()).isGranted());
+  }
+
+  @Test
+  @DisplayName("check denies access when the user lacks the role")
+  void check_Deny_WhenUserLacksRole() {
+    Authentication authentication = new UsernamePasswordAuthenticationToken("user", null,
+        AuthorityUtils.createAuthorityList("ROLE_USER"));
+
+    Assertions.assertFalse(adminOnly.check(() -> authentication, new Object()).isGranted());
+  }
+
+  @Test
+  @DisplayName("check denies access to anonymous and unauthenticated requests")
+  void check_Deny_WhenNotAuthenticated() {
+    Authentication anonymous = new AnonymousAuthenticationToken("key", "anonymousUser",
+        AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS"));
+    Authentication unauthenticated = new UsernamePasswordAuthenticationToken("admin", "password");
+
+    Assertions.assertFalse(adminOnly.check(() -> anonymous, new Object()).isGranted());
+    Assertions.assertFalse(adminOnly.check(() -> unauthenticated, new Object()).isGranted());
+  }
+}
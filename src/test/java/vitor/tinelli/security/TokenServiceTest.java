@@ -0,0 +1,100 @@
+package vitor.tinelli.security;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import vitor.tinelli.config.TokenProperties;
+import vitor.tinelli.dto.TokenResponse;
+
+class TokenServiceTest {
+
+  private static final Instant NOW = Instant.parse("2024-01-01T10:00:00Z");
+
+  TokenProperties tokenProperties;
+  Authentication authentication;
+
+  @BeforeEach
+  void setUp() {
+    tokenProperties = new TokenProperties();
+    tokenProperties.setSecret("0123456789abcdef0123456789abcdef");
+    tokenProperties.setTtl(Duration.ofMinutes(15));
+    authentication = new UsernamePasswordAuthenticationToken("user", "password",
+        AuthorityUtils.createAuthorityList("ROLE_USER", "ROLE_ADMIN"));
+  }
+
+  private TokenService tokenServiceAt(Instant instant) {
+    return new TokenService(tokenProperties, Clock.fixed(instant, ZoneOffset.UTC));
+  }
+
+  @Test
+  @DisplayName("authenticate returns the user and roles the token was issued for")
+  void authenticate_ReturnAuthentication_WhenTokenIsValid() {
+    TokenResponse tokenResponse = tokenServiceAt(NOW).issue(authentication);
+
+    Optional<Authentication> result = tokenServiceAt(NOW.plusSeconds(60))
+        .authenticate(tokenResponse.getToken());
+
+    Assertions.assertTrue(result.isPresent());
+    Assertions.assertEquals("user", result.get().getName());
+    Assertions.assertEquals(Set.of("ROLE_USER", "ROLE_ADMIN"),
+        AuthorityUtils.authorityListToSet(result.get().getAuthorities()));
+    Assertions.assertEquals(NOW.plus(Duration.ofMinutes(15)), tokenResponse.getExpiresAt());
+  }
+
+  @Test
+  @DisplayName("authenticate returns empty when the token has expired")
+  void authenticate_ReturnEmpty_WhenTokenExpired() {
+    String token = tokenServiceAt(NOW).issue(authentication).getToken();
+
+    Assertions.assertTrue(tokenServiceAt(NOW.plus(Duration.ofMinutes(15)))
+        .authenticate(token).isEmpty());
+  }
+
+  @Test
+  @DisplayName("authenticate returns empty when the payload was tampered with")
+  void authenticate_ReturnEmpty_WhenPayloadTampered() {
+    String token = tokenServiceAt(NOW).issue(authentication).getToken();
+    String forged = "YWRtaW4" + token.substring(token.indexOf('.'));
+
+    Assertions.assertTrue(tokenServiceAt(NOW).authenticate(forged).isEmpty());
+  }
+
+  @Test
+  @DisplayName("authenticate returns empty when the token is malformed")
+  void authenticate_ReturnEmpty_WhenTokenMalformed() {
+    TokenService tokenService = tokenServiceAt(NOW);
+
+    Assertions.assertTrue(tokenService.authenticate("not-a-token").isEmpty());
+    Assertions.assertTrue(tokenService.authenticate("a.b.c.!!").isEmpty());
+    Assertions.assertTrue(tokenService.authenticate("a.b.notanumber.c2ln").isEmpty());
+  }
+
+  @Test
+  @DisplayName("authenticate accepts tokens signed concurrently by one service")
+  void authenticate_ReturnAuthentication_WhenTokensAreSignedConcurrently() {
+    TokenService tokenService = tokenServiceAt(NOW);
+
+    Assertions.assertTrue(IntStream.range(0, 1000).parallel()
+        .mapToObj(i -> tokenService.issue(authentication).getToken())
+        .allMatch(token -> tokenService.authenticate(token).isPresent()));
+  }
+
+  @Test
+  @DisplayName("constructor rejects a secret shorter than 32 bytes")
+  void constructor_ThrowIllegalStateException_WhenSecretTooShort() {
+    tokenProperties.setSecret("short");
+
+    Assertions.assertThrows(IllegalStateException.class, () -> tokenServiceAt(NOW));
+  }
+}
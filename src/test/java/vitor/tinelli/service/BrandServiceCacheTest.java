@@ -0,0 +1,115 @@
+package vitor.tinelli.service;
+
+import static org.mockito.Mockito.*;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import vitor.tinelli.cache.CacheInvalidationPublisher;
+import vitor.tinelli.config.CacheConfig;
+import vitor.tinelli.config.PaginationProperties;
+import vitor.tinelli.config.UserCacheProperties;
+import vitor.tinelli.domain.Brand;
+import vitor.tinelli.repository.BrandRepository;
+import vitor.tinelli.requests.BrandPostRequestBody;
+import vitor.tinelli.requests.BrandPutRequestBody;
+
+@SpringJUnitConfig({CacheConfig.class, UserCacheProperties.class, BrandService.class,
+    PaginationProperties.class, BrandServiceCacheTest.CacheManagerConfig.class})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class BrandServiceCacheTest {
+
+  @TestConfiguration
+  static class CacheManagerConfig {
+
+    @Bean
+    CacheManager cacheManager() {
+      return new ConcurrentMapCacheManager();
+    }
+  }
+
+  @Autowired
+  private BrandService brandService;
+  @MockBean
+  private BrandRepository brandRepository;
+  @MockBean
+  private CacheInvalidationPublisher cacheInvalidationPublisher;
+  @MockBean
+  private CatalogChangeService catalogChangeService;
+
+  @Test
+  @DisplayName("findById hits the repository once when called repeatedly")
+  void findById_HitRepositoryOnce_WhenCalledRepeatedly() {
+    Brand brand = new Brand(100L, "Brand Test");
+    when(brandRepository.findById(100L)).thenReturn(Optional.of(brand));
+
+    Assertions.assertEquals(brand, brandService.findByIdOrThrowBadRequestException(100L));
+    Assertions.assertEquals(brand, brandService.findByIdOrThrowBadRequestException(100L));
+
+    verify(brandRepository, times(1)).findById(100L);
+  }
+
+  @Test
+  @DisplayName("listAll reloads from the repository after a brand is saved")
+  void listAll_ReloadFromRepository_WhenBrandIsSaved() {
+    Brand brand = new Brand(100L, "Brand Test");
+    when(brandRepository.findAll()).thenReturn(List.of(brand));
+    when(brandRepository.save(any(Brand.class))).thenReturn(brand);
+    BrandPostRequestBody brandPostRequestBody = new BrandPostRequestBody();
+    brandPostRequestBody.setName("Brand POST Test");
+
+    brandService.listAll();
+    brandService.listAll();
+    brandService.save(brandPostRequestBody);
+    brandService.listAll();
+
+    verify(brandRepository, times(2)).findAll();
+  }
+
+  @Test
+  @DisplayName("findById reloads from the repository after the brand is replaced")
+  void findById_ReloadFromRepository_WhenBrandIsReplaced() {
+    Brand brand = new Brand(100L, "Brand Test");
+    when(brandRepository.findById(100L)).thenReturn(Optional.of(brand));
+    when(brandRepository.save(any(Brand.class))).thenReturn(brand);
+    BrandPutRequestBody brandPutRequestBody = new BrandPutRequestBody();
+    brandPutRequestBody.setId(100L);
+    brandPutRequestBody.setName("Brand PUT Test");
+
+    brandService.findByIdOrThrowBadRequestException(100L);
+    brandService.replace(brandPutRequestBody);
+    brandService.findByIdOrThrowBadRequestException(100L);
+
+    // once for the first lookup, once inside replace (self-call skips the cache), once after
+    // eviction
+    verify(brandRepository, times(3)).findById(100L);
+  }
+
+  @Test
+  @DisplayName("replace compares the version with the stored brand, not the cached one")
+  void replace_ThrowConflict_WhenCachedVersionIsBehind() {
+    when(brandRepository.findById(100L))
+        .thenReturn(Optional.of(Brand.builder().id(100L).name("Brand Test").version(0L).build()))
+        .thenReturn(Optional.of(Brand.builder().id(100L).name("Brand Test").version(1L).build()));
+    BrandPutRequestBody brandPutRequestBody = new BrandPutRequestBody();
+    brandPutRequestBody.setId(100L);
+    brandPutRequestBody.setName("Brand PUT Test");
+    brandPutRequestBody.setVersion(0L);
+
+    brandService.findByIdOrThrowBadRequestException(100L);
+
+    Assertions.assertThrows(ObjectOptimisticLockingFailureException.class,
+        () -> brandService.replace(brandPutRequestBody));
+    verify(brandRepository, never()).save(any(Brand.class));
+  }
+}
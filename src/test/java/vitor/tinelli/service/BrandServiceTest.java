@@ -11,9 +11,19 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import vitor.tinelli.cache.CacheInvalidationPublisher;
+import vitor.tinelli.config.CacheConfig;
+import vitor.tinelli.config.PaginationProperties;
 import vitor.tinelli.domain.Brand;
+import vitor.tinelli.domain.CatalogChange.Operation;
+import vitor.tinelli.domain.CatalogChange.Resource;
 import vitor.tinelli.exception.BadRequestException;
+import vitor.tinelli.pagination.ContinuationToken;
+import vitor.tinelli.pagination.KeysetPage;
 import vitor.tinelli.repository.BrandRepository;
 import vitor.tinelli.requests.BrandPostRequestBody;
 import vitor.tinelli.requests.BrandPutRequestBody;
@@ -29,6 +39,12 @@ class BrandServiceTest {
   private BrandService brandService;
   @Mock
   private BrandRepository brandRepository;
+  @Mock
+  private CacheInvalidationPublisher cacheInvalidationPublisher;
+  @Mock
+  private CatalogChangeService catalogChangeService;
+  @Spy
+  private PaginationProperties paginationProperties = new PaginationProperties();
 
   @BeforeEach
   void setUp() {
@@ -54,6 +70,28 @@ class BrandServiceTest {
     Assertions.assertEquals(List.of(brand), brands);
   }
 
+  @Test
+  @DisplayName("listPage returns brands after the continuation token with the next token")
+  void listPage_ReturnBrandsAfterToken_WhenSuccessful() {
+    Brand nextBrand = new Brand(101L, "Brand Test 2");
+    when(brandRepository.findByIdGreaterThanOrderByIdAsc(99L, PageRequest.of(0, 2)))
+        .thenReturn(List.of(brand, nextBrand));
+
+    KeysetPage<Brand> page = brandService.listPage(ContinuationToken.encode(99L), 1);
+
+    verify(brandRepository).findByIdGreaterThanOrderByIdAsc(99L, PageRequest.of(0, 2));
+    verifyNoMoreInteractions(brandRepository);
+    Assertions.assertEquals(List.of(brand), page.getContent());
+    Assertions.assertEquals(100L, ContinuationToken.decode(page.getNext()));
+  }
+
+  @Test
+  @DisplayName("listPage throws BadRequestException when page size is not positive")
+  void listPage_ThrowBadRequestException_WhenSizeIsNotPositive() {
+    Assertions.assertThrows(BadRequestException.class, () -> brandService.listPage(null, 0));
+    verifyNoInteractions(brandRepository);
+  }
+
   @Test
   @DisplayName("listByName Return All Brands With The Same Name wen successful")
   void listByName_ReturnAllBrandsWithTheSameName_WhenSuccessful() {
@@ -108,6 +146,8 @@ class BrandServiceTest {
     Brand savedBrand = brandService.save(brandPostRequestBody);
 
     verify(brandRepository).save(any(Brand.class));
+    verify(catalogChangeService).record(Resource.BRAND, Operation.CREATED, brand.getId());
+    verify(cacheInvalidationPublisher).publish(CacheConfig.BRAND_CACHES);
     verifyNoMoreInteractions(brandRepository);
     Assertions.assertEquals(brand, savedBrand);
   }
@@ -125,6 +165,17 @@ class BrandServiceTest {
     verifyNoMoreInteractions(brandRepository);
   }
 
+  @Test
+  @DisplayName("findById returns a copy of the brand the repository loaded")
+  void findById_ReturnCopy_WhenBrandExists() {
+    when(brandRepository.findById(100L)).thenReturn(Optional.of(brand));
+
+    Brand found = brandService.findByIdOrThrowBadRequestException(100L);
+
+    Assertions.assertEquals(brand, found);
+    Assertions.assertNotSame(brand, found);
+  }
+
   @Test
   @DisplayName("delete deletes brand when successful")
   void delete_DeletesBrand_WhenSuccessful() {
@@ -160,6 +211,30 @@ class BrandServiceTest {
     verify(brandRepository).save(any(Brand.class));
   }
 
+  @Test
+  @DisplayName("put throws ObjectOptimisticLockingFailureException when the version is stale")
+  void put_ThrowConflict_WhenVersionIsStale() {
+    brandPutRequestBody.setVersion(1L);
+    when(brandRepository.findById(100L)).thenReturn(Optional.of(brand));
+
+    Assertions.assertThrows(ObjectOptimisticLockingFailureException.class,
+        () -> brandService.replace(brandPutRequestBody));
+    verify(brandRepository, never()).save(any(Brand.class));
+    verifyNoInteractions(catalogChangeService, cacheInvalidationPublisher);
+  }
+
+  @Test
+  @DisplayName("put replace brand when the version matches")
+  void put_ReplaceBrand_WhenVersionMatches() {
+    brandPutRequestBody.setVersion(brand.getVersion());
+    when(brandRepository.findById(100L)).thenReturn(Optional.of(brand));
+
+    brandService.replace(brandPutRequestBody);
+
+    verify(brandRepository).save(argThat(saved -> saved.getVersion() == brand.getVersion()));
+    verify(catalogChangeService).record(Resource.BRAND, Operation.UPDATED, 100L);
+  }
+
   @Test
   @DisplayName("put throws BadRequestException when brand not exist")
   void put_ThrowException_WhenBrandNotExist() {
@@ -173,6 +248,7 @@ class BrandServiceTest {
     verify(brandRepository, never()).save(any(Brand.class));
     verify(brandRepository, never()).delete(any(Brand.class));
     verify(brandRepository).findAll();
+    verifyNoInteractions(cacheInvalidationPublisher);
   }
 
   @Test
@@ -203,4 +279,33 @@ class BrandServiceTest {
     verify(brandRepository, never()).delete(any(Brand.class));
   }
 
+  @Test
+  @DisplayName("deleteAll records the deleted brands and invalidates the brand caches")
+  void deleteAll_PublishInvalidation_WhenBrandsAreDeleted() {
+    when(catalogChangeService.recordReturning(eq(Resource.BRAND), eq(Operation.DELETED),
+        startsWith("DELETE FROM brand"), any())).thenReturn(List.of(100L));
+
+    Assertions.assertEquals(1, brandService.deleteAll(List.of(100L, 101L)));
+    verify(cacheInvalidationPublisher).publish(CacheConfig.BRAND_CACHES);
+    verifyNoInteractions(brandRepository);
+  }
+
+  @Test
+  @DisplayName("deleteAll leaves the caches alone when no brand matched")
+  void deleteAll_SkipInvalidation_WhenNoBrandIsDeleted() {
+    when(catalogChangeService.recordReturning(eq(Resource.BRAND), eq(Operation.DELETED),
+        startsWith("DELETE FROM brand"), any())).thenReturn(List.of());
+
+    Assertions.assertEquals(0, brandService.deleteAll(List.of(101L)));
+    verifyNoInteractions(cacheInvalidationPublisher);
+  }
+
+  @Test
+  @DisplayName("listEntityTag is the newest brand change in the feed")
+  void listEntityTag_ReturnBrandChangeTag_WhenSuccessful() {
+    when(catalogChangeService.listEntityTag(Resource.BRAND)).thenReturn("\"42\"");
+
+    Assertions.assertEquals("\"42\"", brandService.listEntityTag());
+  }
+
 }
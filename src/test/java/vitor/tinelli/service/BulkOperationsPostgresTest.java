@@ -0,0 +1,150 @@
+package vitor.tinelli.service;
+
+import static org.mockito.Mockito.*;
+import javax.persistence.EntityManager;
+import java.util.List;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import vitor.tinelli.cache.CacheInvalidationPublisher;
+import vitor.tinelli.config.CacheConfig;
+import vitor.tinelli.config.ChangeFeedProperties;
+import vitor.tinelli.config.PaginationProperties;
+import vitor.tinelli.repository.BrandRepository;
+import vitor.tinelli.repository.ProductGroupRepository;
+import vitor.tinelli.repository.ProductRepository;
+import vitor.tinelli.repository.UnitRepository;
+import vitor.tinelli.requests.ProductReassignRequestBody;
+
+// The bulk statements use a data-modifying WITH, which H2 cannot run.
+@Testcontainers(disabledWithoutDocker = true)
+class BulkOperationsPostgresTest {
+
+  @Container
+  private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:15-alpine");
+
+  private JdbcTemplate jdbcTemplate;
+  private TransactionTemplate transactionTemplate;
+  private CatalogChangeStream catalogChangeStream;
+  private CatalogChangeSequencer catalogChangeSequencer;
+  private CatalogChangeSequencer requestedRuns;
+  private CacheInvalidationPublisher cacheInvalidationPublisher;
+  private ProductSuggestService productSuggestService;
+  private ProductService productService;
+  private BrandService brandService;
+
+  private long brandId;
+  private long otherBrandId;
+
+  @BeforeEach
+  void setUp() {
+    DriverManagerDataSource dataSource = new DriverManagerDataSource(
+        POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+    Flyway.configure().dataSource(dataSource).load().migrate();
+    jdbcTemplate = new JdbcTemplate(dataSource);
+    jdbcTemplate.execute("TRUNCATE product, brand, unit, product_group, catalog_change");
+
+    catalogChangeStream = mock(CatalogChangeStream.class);
+    cacheInvalidationPublisher = mock(CacheInvalidationPublisher.class);
+    productSuggestService = mock(ProductSuggestService.class);
+    DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+    catalogChangeSequencer = new CatalogChangeSequencer(jdbcTemplate, new ChangeFeedProperties(),
+        transactionManager, catalogChangeStream);
+    requestedRuns = mock(CatalogChangeSequencer.class);
+    CatalogChangeService catalogChangeService = new CatalogChangeService(null, jdbcTemplate,
+        new ChangeFeedProperties(), new PaginationProperties(), requestedRuns);
+    productService = new ProductService(mock(ProductRepository.class),
+        mock(ProductGroupRepository.class), mock(BrandRepository.class),
+        mock(UnitRepository.class), mock(ProductGroupService.class), mock(BrandService.class),
+        mock(UnitService.class), new PaginationProperties(), mock(EntityManager.class),
+        productSuggestService, catalogChangeService);
+    brandService = new BrandService(mock(BrandRepository.class), new PaginationProperties(),
+        cacheInvalidationPublisher, catalogChangeService);
+
+    brandId = insert("INSERT INTO brand (brand_name) VALUES ('Brand Test') RETURNING brand_id");
+    otherBrandId = insert(
+        "INSERT INTO brand (brand_name) VALUES ('Brand Test 2') RETURNING brand_id");
+    long unitId = insert("INSERT INTO unit (unit_name) VALUES ('Unit Test') RETURNING unit_id");
+    long productGroupId = insert("INSERT INTO product_group (product_group_name)"
+        + " VALUES ('ProductGroup Test') RETURNING product_group_id");
+    jdbcTemplate.update("INSERT INTO product (product_id, product_name, unit_id, product_group_id,"
+            + " brand_id) SELECT nextval('product_seq'), 'Product ' || i, ?, ?,"
+            + " CASE WHEN i <= 3 THEN ? ELSE ? END FROM generate_series(1, 5) i",
+        unitId, productGroupId, brandId, otherBrandId);
+  }
+
+  @Test
+  @DisplayName("deleteByBrand deletes the brand's products and records each of them")
+  void deleteByBrand_DeleteAndRecordProducts_WhenBrandHasProducts() {
+    int deleted = transactionTemplate.execute(status -> productService.deleteByBrand(brandId));
+
+    Assertions.assertEquals(3, deleted);
+    Assertions.assertEquals(2, count("SELECT count(*) FROM product"));
+    Assertions.assertEquals(3, count("SELECT count(*) FROM catalog_change"
+        + " WHERE resource = 'PRODUCT' AND operation = 'DELETED'"));
+    verify(requestedRuns).requestRun();
+    Assertions.assertEquals(3, catalogChangeSequencer.sequencePending());
+    Assertions.assertEquals(3, count("SELECT max(sequence) FROM catalog_change"));
+    verify(productSuggestService).deletedAll(argThat(ids -> ids.size() == 3));
+  }
+
+  @Test
+  @DisplayName("reassign moves products to the other brand and bumps their versions")
+  void reassign_MoveProductsAndBumpVersions_WhenTargetExists() {
+    ProductReassignRequestBody body = new ProductReassignRequestBody();
+    body.setReference(ProductReassignRequestBody.Reference.BRAND);
+    body.setFrom(brandId);
+    body.setTo(otherBrandId);
+
+    int moved = transactionTemplate.execute(status -> productService.reassign(body));
+
+    Assertions.assertEquals(3, moved);
+    Assertions.assertEquals(5, count("SELECT count(*) FROM product WHERE brand_id = "
+        + otherBrandId));
+    Assertions.assertEquals(3, count("SELECT count(*) FROM product WHERE version = 1"));
+    Assertions.assertEquals(3, count("SELECT count(*) FROM catalog_change"
+        + " WHERE operation = 'UPDATED'"));
+  }
+
+  @Test
+  @DisplayName("deleteAll deletes unreferenced brands and skips unknown ids")
+  void deleteAll_DeleteBrandsAndInvalidateCaches_WhenBrandsAreUnreferenced() {
+    transactionTemplate.execute(status -> productService.deleteByBrand(brandId));
+
+    int deleted = transactionTemplate.execute(
+        status -> brandService.deleteAll(List.of(brandId, -1L)));
+
+    Assertions.assertEquals(1, deleted);
+    Assertions.assertEquals(1, count("SELECT count(*) FROM catalog_change"
+        + " WHERE resource = 'BRAND' AND entity_id = " + brandId));
+    verify(cacheInvalidationPublisher).publish(CacheConfig.BRAND_CACHES);
+  }
+
+  @Test
+  @DisplayName("deleteAll fails as a whole while a brand still has products")
+  void deleteAll_ThrowDataIntegrityViolationException_WhenBrandIsReferenced() {
+    Assertions.assertThrows(DataIntegrityViolationException.class,
+        () -> transactionTemplate.execute(status -> brandService.deleteAll(List.of(brandId))));
+
+    Assertions.assertEquals(2, count("SELECT count(*) FROM brand"));
+    Assertions.assertEquals(0, count("SELECT count(*) FROM catalog_change"));
+  }
+
+  private long insert(String sql) {
+    return jdbcTemplate.queryForObject(sql, Long.class);
+  }
+
+  private long count(String sql) {
+    return jdbcTemplate.queryForObject(sql, Long.class);
+  }
+}
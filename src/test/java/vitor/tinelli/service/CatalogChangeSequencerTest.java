@@ -0,0 +1,98 @@
+package vitor.tinelli.service;
+
+import static org.mockito.Mockito.*;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import vitor.tinelli.config.ChangeFeedProperties;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogChangeSequencerTest {
+
+  @Mock
+  private JdbcTemplate jdbcTemplate;
+  @Mock
+  private PlatformTransactionManager transactionManager;
+  @Mock
+  private CatalogChangeStream catalogChangeStream;
+
+  private ChangeFeedProperties changeFeedProperties;
+  private CatalogChangeSequencer catalogChangeSequencer;
+
+  @BeforeEach
+  void setUp() {
+    changeFeedProperties = new ChangeFeedProperties();
+    catalogChangeSequencer = new CatalogChangeSequencer(jdbcTemplate, changeFeedProperties,
+        transactionManager, catalogChangeStream);
+  }
+
+  @AfterEach
+  void tearDown() {
+    catalogChangeSequencer.stop();
+  }
+
+  @Test
+  @DisplayName("sequencePending numbers pending changes after the highest sequence, under the lock")
+  @SuppressWarnings("unchecked")
+  void sequencePending_NumberInRecordedOrder_WhenChangesArePending() {
+    when(jdbcTemplate.queryForList(startsWith("SELECT id FROM catalog_change"), eq(Long.class),
+        anyInt())).thenReturn(List.of(7L, 9L));
+    when(jdbcTemplate.queryForObject(startsWith("SELECT coalesce(max(sequence)"), eq(Long.class)))
+        .thenReturn(41L);
+
+    Assertions.assertEquals(2, catalogChangeSequencer.sequencePending());
+
+    ArgumentCaptor<List<Object[]>> arguments = ArgumentCaptor.forClass(List.class);
+    var inOrder = inOrder(jdbcTemplate);
+    inOrder.verify(jdbcTemplate).queryForRowSet(eq("SELECT pg_advisory_xact_lock(?)"), anyLong());
+    inOrder.verify(jdbcTemplate).batchUpdate(startsWith("UPDATE catalog_change"),
+        arguments.capture());
+    Assertions.assertArrayEquals(new Object[]{42L, 7L}, arguments.getValue().get(0));
+    Assertions.assertArrayEquals(new Object[]{43L, 9L}, arguments.getValue().get(1));
+  }
+
+  @Test
+  @DisplayName("sequencePending writes nothing when every change already has a sequence")
+  void sequencePending_WriteNothing_WhenNothingIsPending() {
+    changeFeedProperties.setSequencerLockEnabled(false);
+    when(jdbcTemplate.queryForList(startsWith("SELECT id FROM catalog_change"), eq(Long.class),
+        anyInt())).thenReturn(List.of());
+
+    Assertions.assertEquals(0, catalogChangeSequencer.sequencePending());
+    verify(jdbcTemplate, never()).queryForRowSet(anyString(), any(Object[].class));
+    verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+  }
+
+  @Test
+  @DisplayName("requestRun numbers pending changes on the sequencer thread and wakes the stream")
+  void requestRun_SequenceAndWakeStream_WhenChangesArePending() {
+    changeFeedProperties.setSequencerLockEnabled(false);
+    when(jdbcTemplate.queryForList(startsWith("SELECT id FROM catalog_change"), eq(Long.class),
+        anyInt())).thenReturn(List.of(7L));
+    when(jdbcTemplate.queryForObject(startsWith("SELECT coalesce(max(sequence)"), eq(Long.class)))
+        .thenReturn(41L);
+    Thread caller = Thread.currentThread();
+    List<Thread> updaters = new CopyOnWriteArrayList<>();
+    when(jdbcTemplate.batchUpdate(startsWith("UPDATE catalog_change"), anyList()))
+        .thenAnswer(invocation -> {
+          updaters.add(Thread.currentThread());
+          return new int[]{1};
+        });
+
+    catalogChangeSequencer.requestRun();
+
+    verify(catalogChangeStream, timeout(5000)).committed();
+    Assertions.assertEquals(1, updaters.size());
+    Assertions.assertNotSame(caller, updaters.get(0));
+  }
+}
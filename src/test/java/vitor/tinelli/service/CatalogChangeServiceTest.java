@@ -0,0 +1,140 @@
+package vitor.tinelli.service;
+
+import static org.mockito.Mockito.*;
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import vitor.tinelli.config.ChangeFeedProperties;
+import vitor.tinelli.config.PaginationProperties;
+import vitor.tinelli.domain.CatalogChange;
+import vitor.tinelli.domain.CatalogChange.Operation;
+import vitor.tinelli.domain.CatalogChange.Resource;
+import vitor.tinelli.dto.ChangeFeedPage;
+import vitor.tinelli.exception.BadRequestException;
+import vitor.tinelli.repository.CatalogChangeRepository;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogChangeServiceTest {
+
+  @InjectMocks
+  private CatalogChangeService catalogChangeService;
+  @Mock
+  private CatalogChangeRepository catalogChangeRepository;
+  @Mock
+  private JdbcTemplate jdbcTemplate;
+  @Mock
+  private CatalogChangeSequencer catalogChangeSequencer;
+  @Spy
+  private ChangeFeedProperties changeFeedProperties = new ChangeFeedProperties();
+  @Spy
+  private PaginationProperties paginationProperties = new PaginationProperties();
+
+  @Test
+  @DisplayName("record inserts the changes without taking any lock")
+  void record_InsertWithoutLock_WhenIdsArePresent() {
+    catalogChangeService.record(Resource.PRODUCT, Operation.CREATED, List.of(1L, 2L));
+
+    verify(jdbcTemplate).batchUpdate(startsWith("INSERT INTO catalog_change"), anyList());
+    verifyNoMoreInteractions(jdbcTemplate);
+  }
+
+  @Test
+  @DisplayName("record asks the sequencer for a run once the transaction commits")
+  void record_RequestSequencerRun_WhenTransactionCommits() {
+    TransactionSynchronizationManager.initSynchronization();
+    try {
+      catalogChangeService.record(Resource.BRAND, Operation.DELETED, 1L);
+      verifyNoInteractions(catalogChangeSequencer);
+
+      TransactionSynchronizationManager.getSynchronizations()
+          .forEach(TransactionSynchronization::afterCommit);
+    } finally {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    verify(catalogChangeSequencer).requestRun();
+    verifyNoMoreInteractions(catalogChangeSequencer);
+  }
+
+  @Test
+  @DisplayName("record does nothing when there are no ids")
+  void record_DoNothing_WhenIdsAreEmpty() {
+    catalogChangeService.record(Resource.PRODUCT, Operation.CREATED, List.of());
+
+    verifyNoInteractions(jdbcTemplate);
+  }
+
+  @Test
+  @DisplayName("recordReturning binds the statement's arguments before resource and operation")
+  void recordReturning_ReturnChangedIds_WhenStatementChangesRows() {
+    String sql = "DELETE FROM product WHERE brand_id = ? RETURNING product_id AS id";
+    when(jdbcTemplate.queryForList(startsWith("WITH changed AS (" + sql + ")"), eq(Long.class),
+        eq(7L), eq("PRODUCT"), eq("DELETED"))).thenReturn(List.of(1L, 2L));
+
+    List<Long> ids = catalogChangeService.recordReturning(Resource.PRODUCT, Operation.DELETED,
+        sql, 7L);
+
+    Assertions.assertEquals(List.of(1L, 2L), ids);
+    verifyNoMoreInteractions(jdbcTemplate);
+  }
+
+  @Test
+  @DisplayName("changesSince returns a full page with the last sequence and more set")
+  void changesSince_ReturnPageWithMore_WhenMoreChangesExist() {
+    when(catalogChangeRepository.findBySequenceGreaterThanOrderBySequenceAsc(10L,
+        PageRequest.of(0, 3))).thenReturn(List.of(change(11L), change(12L), change(13L)));
+
+    ChangeFeedPage page = catalogChangeService.changesSince(10L, 2);
+
+    Assertions.assertEquals(List.of(change(11L), change(12L)), page.getChanges());
+    Assertions.assertEquals(12L, page.getNext());
+    Assertions.assertTrue(page.isMore());
+  }
+
+  @Test
+  @DisplayName("changesSince keeps since as next when nothing new was committed")
+  void changesSince_KeepSince_WhenNoChanges() {
+    when(catalogChangeRepository.findBySequenceGreaterThanOrderBySequenceAsc(10L,
+        PageRequest.of(0, 101))).thenReturn(List.of());
+
+    ChangeFeedPage page = catalogChangeService.changesSince(10L, null);
+
+    Assertions.assertTrue(page.getChanges().isEmpty());
+    Assertions.assertEquals(10L, page.getNext());
+    Assertions.assertFalse(page.isMore());
+  }
+
+  @Test
+  @DisplayName("changesSince throws BadRequestException when since is negative")
+  void changesSince_ThrowBadRequestException_WhenSinceIsNegative() {
+    Assertions.assertThrows(BadRequestException.class,
+        () -> catalogChangeService.changesSince(-1L, null));
+    verifyNoInteractions(catalogChangeRepository);
+  }
+
+  @Test
+  @DisplayName("listEntityTag quotes the newest sequence of the resource, or of every resource")
+  void listEntityTag_ReturnNewestSequence_WhenChangesExist() {
+    when(catalogChangeRepository.maxSequence(Resource.BRAND)).thenReturn(7L);
+    when(catalogChangeRepository.maxSequence()).thenReturn(9L);
+
+    Assertions.assertEquals("\"7\"", catalogChangeService.listEntityTag(Resource.BRAND));
+    Assertions.assertEquals("\"9\"", catalogChangeService.listEntityTag());
+  }
+
+  private static CatalogChange change(long sequence) {
+    return new CatalogChange(sequence, sequence, Resource.PRODUCT, sequence, Operation.UPDATED,
+        Instant.EPOCH);
+  }
+}
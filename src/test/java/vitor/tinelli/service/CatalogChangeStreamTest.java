@@ -0,0 +1,133 @@
+package vitor.tinelli.service;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+import vitor.tinelli.domain.Brand;
+import vitor.tinelli.repository.CatalogChangeRepository;
+import vitor.tinelli.requests.BrandPostRequestBody;
+
+// One slot per subscriber, so a commit of several changes overflows it.
+@SpringBootTest(properties = "changes.stream.buffer-size=1")
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase
+@ActiveProfiles("test")
+class CatalogChangeStreamTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+  @Autowired
+  private BrandService brandService;
+  @Autowired
+  private CatalogChangeRepository catalogChangeRepository;
+  @Autowired
+  private TransactionTemplate transactionTemplate;
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @Test
+  @WithMockUser
+  @DisplayName("stream pushes a change once the transaction that recorded it commits")
+  void stream_PushChange_WhenWriteCommits() throws Exception {
+    MockHttpServletResponse response = mockMvc.perform(get("/changes/stream"))
+        .andExpect(request().asyncStarted())
+        .andReturn().getResponse();
+
+    Brand brand = brandService.save(brandPostRequestBody("Brand Stream Test"));
+
+    awaitContent(response, "\"entityId\":" + brand.getId());
+    Assertions.assertTrue(response.getContentAsString()
+        .contains("id:" + catalogChangeRepository.maxSequence()));
+  }
+
+  @Test
+  @WithMockUser
+  @DisplayName("stream replays changes after Last-Event-ID before live ones")
+  void stream_ReplayMissedChanges_WhenResumingWithLastEventId() throws Exception {
+    Brand brand = brandService.save(brandPostRequestBody("Brand Resume Test"));
+    long sequence = catalogChangeRepository.maxSequence();
+
+    MockHttpServletResponse response = mockMvc.perform(get("/changes/stream")
+            .header("Last-Event-ID", sequence - 1))
+        .andExpect(request().asyncStarted())
+        .andReturn().getResponse();
+
+    awaitContent(response, "\"entityId\":" + brand.getId());
+    Assertions.assertTrue(response.getContentAsString().contains("id:" + sequence));
+  }
+
+  @Test
+  @WithMockUser
+  @DisplayName("stream catches up from the outbox instead of disconnecting when its buffer is full")
+  void stream_ReplayFromOutbox_WhenBurstOverflowsBuffer() throws Exception {
+    MockHttpServletResponse response = mockMvc.perform(get("/changes/stream"))
+        .andExpect(request().asyncStarted())
+        .andReturn().getResponse();
+
+    List<Brand> brands = transactionTemplate.execute(status -> IntStream.range(0, 5)
+        .mapToObj(i -> brandService.save(brandPostRequestBody("Brand Burst Test " + i)))
+        .collect(Collectors.toList()));
+
+    for (Brand brand : brands) {
+      awaitContent(response, "\"entityId\":" + brand.getId());
+    }
+    Assertions.assertEquals(0.0,
+        meterRegistry.get("changes.stream.disconnected").counter().count());
+  }
+
+  @Test
+  @DisplayName("a pool adds spare threads for stalled sends only up to the configured maximum")
+  void addSpare_StopGrowing_WhenMaxSpareThreadsReached() {
+    ThreadPoolExecutor pool = new ThreadPoolExecutor(2, 2, 0L, TimeUnit.MILLISECONDS,
+        new LinkedBlockingQueue<>());
+    try {
+      Assertions.assertTrue(CatalogChangeStream.addSpare(pool, 2, 2));
+      Assertions.assertTrue(CatalogChangeStream.addSpare(pool, 2, 2));
+      Assertions.assertFalse(CatalogChangeStream.addSpare(pool, 2, 2));
+      Assertions.assertEquals(4, pool.getCorePoolSize());
+      Assertions.assertEquals(4, pool.getMaximumPoolSize());
+
+      CatalogChangeStream.removeSpare(pool);
+
+      Assertions.assertEquals(3, pool.getCorePoolSize());
+      Assertions.assertTrue(CatalogChangeStream.addSpare(pool, 2, 2));
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  private static BrandPostRequestBody brandPostRequestBody(String name) {
+    BrandPostRequestBody brandPostRequestBody = new BrandPostRequestBody();
+    brandPostRequestBody.setName(name);
+    return brandPostRequestBody;
+  }
+
+  private static void awaitContent(MockHttpServletResponse response, String expected)
+      throws Exception {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    while (!response.getContentAsString().contains(expected)) {
+      if (System.nanoTime() > deadline) {
+        Assertions.fail("stream did not send " + expected + ": " + response.getContentAsString());
+      }
+      Thread.sleep(50);
+    }
+  }
+}
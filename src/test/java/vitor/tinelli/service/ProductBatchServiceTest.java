@@ -0,0 +1,121 @@
+package vitor.tinelli.service;
+
+import static org.mockito.Mockito.*;
+import javax.validation.Validation;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import vitor.tinelli.config.IngestionProperties;
+import vitor.tinelli.dto.ProductBatchItemResult;
+import vitor.tinelli.dto.ProductBatchResult;
+import vitor.tinelli.requests.ProductPostRequestBody;
+
+@ExtendWith(MockitoExtension.class)
+class ProductBatchServiceTest {
+
+  private static final String VALID_ITEM =
+      "{\"name\":\"product Test\",\"brand_id\":1,\"productGroup_id\":1,\"unit_id\":1}";
+  private static final String BLANK_NAME_ITEM =
+      "{\"name\":\" \",\"brand_id\":1,\"productGroup_id\":1,\"unit_id\":1}";
+
+  @Mock
+  private ProductService productService;
+
+  private ProductBatchService productBatchService;
+
+  @BeforeEach
+  void setUp() {
+    IngestionProperties ingestionProperties = new IngestionProperties();
+    ingestionProperties.setChunkSize(2);
+
+    productBatchService = new ProductBatchService(productService, new ObjectMapper(),
+        Validation.buildDefaultValidatorFactory().getValidator(), ingestionProperties);
+  }
+
+  @Test
+  @DisplayName("ingest saves valid NDJSON items and reports invalid ones when successful")
+  void ingest_SaveValidItemsAndReportInvalidOnes_WhenNdjson() throws IOException {
+    when(productService.saveBatch(anyMap())).thenAnswer(invocation -> created(invocation.getArgument(0)));
+
+    ProductBatchResult result = productBatchService.ingest(
+        stream(VALID_ITEM + "\n" + BLANK_NAME_ITEM + "\n" + VALID_ITEM + "\n"));
+
+    verify(productService).saveBatch(argThat(chunk -> chunk.keySet().equals(Set.of(0, 2))));
+    verifyNoMoreInteractions(productService);
+    Assertions.assertEquals(2, result.getCreated());
+    Assertions.assertEquals(1, result.getFailed());
+    Assertions.assertEquals(List.of(0, 1, 2), result.getItems().stream()
+        .map(ProductBatchItemResult::getIndex).collect(Collectors.toList()));
+    Assertions.assertEquals("The product name can't be empty", result.getItems().get(1).getError());
+  }
+
+  @Test
+  @DisplayName("ingest commits one chunk per chunk size when items arrive as a JSON array")
+  void ingest_SaveOneChunkPerChunkSize_WhenJsonArray() throws IOException {
+    when(productService.saveBatch(anyMap())).thenAnswer(invocation -> created(invocation.getArgument(0)));
+
+    ProductBatchResult result = productBatchService.ingest(
+        stream("[" + VALID_ITEM + "," + VALID_ITEM + "," + VALID_ITEM + "]"));
+
+    verify(productService, times(2)).saveBatch(anyMap());
+    Assertions.assertEquals(3, result.getCreated());
+    Assertions.assertEquals(0, result.getFailed());
+  }
+
+  @Test
+  @DisplayName("ingest reports malformed input and keeps items read before it")
+  void ingest_ReportMalformedItem_WhenInputIsNotJson() throws IOException {
+    when(productService.saveBatch(anyMap())).thenAnswer(invocation -> created(invocation.getArgument(0)));
+
+    ProductBatchResult result = productBatchService.ingest(stream(VALID_ITEM + "\n{\"name\":"));
+
+    Assertions.assertEquals(1, result.getCreated());
+    Assertions.assertEquals(1, result.getFailed());
+    Assertions.assertEquals(ProductBatchItemResult.Status.FAILED, result.getItems().get(1).getStatus());
+  }
+
+  @Test
+  @DisplayName("ingest reports a failed chunk's items and carries on with the next chunk")
+  void ingest_ReportChunkItemsAndContinue_WhenChunkFails() throws IOException {
+    when(productService.saveBatch(anyMap()))
+        .thenThrow(new DataIntegrityViolationException("fk_product_brand"))
+        .thenAnswer(invocation -> created(invocation.getArgument(0)));
+
+    ProductBatchResult result = productBatchService.ingest(
+        stream(VALID_ITEM + "\n" + VALID_ITEM + "\n" + VALID_ITEM + "\n"));
+
+    verify(productService, times(2)).saveBatch(anyMap());
+    Assertions.assertEquals(1, result.getCreated());
+    Assertions.assertEquals(2, result.getFailed());
+    Assertions.assertEquals(List.of(ProductBatchItemResult.Status.FAILED,
+        ProductBatchItemResult.Status.FAILED, ProductBatchItemResult.Status.CREATED),
+        result.getItems().stream().map(ProductBatchItemResult::getStatus)
+            .collect(Collectors.toList()));
+    Assertions.assertEquals("Not saved, its chunk was rolled back: a referenced ID does not exist",
+        result.getItems().get(0).getError());
+  }
+
+  private static List<ProductBatchItemResult> created(Map<Integer, ProductPostRequestBody> chunk) {
+    return chunk.keySet().stream()
+        .map(index -> ProductBatchItemResult.created(index, 100L + index))
+        .collect(Collectors.toList());
+  }
+
+  private static InputStream stream(String content) {
+    return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+  }
+}
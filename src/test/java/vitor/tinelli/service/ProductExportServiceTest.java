@@ -0,0 +1,82 @@
+package vitor.tinelli.service;
+
+import static org.mockito.Mockito.*;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import vitor.tinelli.domain.Brand;
+import vitor.tinelli.domain.Product;
+import vitor.tinelli.domain.ProductGroup;
+import vitor.tinelli.domain.Unit;
+
+@ExtendWith(MockitoExtension.class)
+class ProductExportServiceTest {
+
+  Product first;
+  Product second;
+
+  @Mock
+  private ProductService productService;
+  @Spy
+  private ObjectMapper objectMapper = new ObjectMapper();
+  @InjectMocks
+  private ProductExportService productExportService;
+
+  @BeforeEach
+  void setUp() {
+    Unit unit = new Unit(1L, "unit Test");
+    ProductGroup productGroup = new ProductGroup(1L, "productGroup Test");
+    Brand brand = new Brand(1L, "brand Test");
+
+    first = new Product(1L, "product Test", unit, productGroup, brand);
+    second = new Product(2L, "product Test 2", unit, productGroup, brand);
+
+    doAnswer(invocation -> {
+      Consumer<Product> consumer = invocation.getArgument(0);
+      consumer.accept(first);
+      consumer.accept(second);
+      return null;
+    }).when(productService).exportAll(any());
+  }
+
+  @Test
+  @DisplayName("writeNdjson writes one JSON document per line when successful")
+  void writeNdjson_WriteOneProductPerLine_WhenSuccessful() throws IOException {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+    productExportService.writeNdjson(outputStream, false);
+
+    String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\n");
+    Assertions.assertEquals(2, lines.length);
+    Assertions.assertEquals(first, objectMapper.readValue(lines[0], Product.class));
+    Assertions.assertEquals(second, objectMapper.readValue(lines[1], Product.class));
+  }
+
+  @Test
+  @DisplayName("writeNdjson writes a complete gzip stream when gzip is requested")
+  void writeNdjson_WriteGzipStream_WhenGzipRequested() throws IOException {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+    productExportService.writeNdjson(outputStream, true);
+
+    try (GZIPInputStream inputStream = new GZIPInputStream(
+        new ByteArrayInputStream(outputStream.toByteArray()))) {
+      String content = new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+      Assertions.assertTrue(content.endsWith("\n"));
+      Assertions.assertEquals(2, content.split("\n").length);
+    }
+  }
+}
@@ -12,6 +12,10 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import vitor.tinelli.cache.CacheInvalidationPublisher;
+import vitor.tinelli.domain.CatalogChange.Operation;
+import vitor.tinelli.domain.CatalogChange.Resource;
 import vitor.tinelli.domain.ProductGroup;
 import vitor.tinelli.exception.BadRequestException;
 import vitor.tinelli.repository.ProductGroupRepository;
@@ -29,6 +33,10 @@ class ProductGroupServiceTest {
   private ProductGroupService productGroupService;
   @Mock
   private ProductGroupRepository productGroupRepository;
+  @Mock
+  private CacheInvalidationPublisher cacheInvalidationPublisher;
+  @Mock
+  private CatalogChangeService catalogChangeService;
 
   @BeforeEach
   void setUp() {
@@ -110,6 +118,8 @@ class ProductGroupServiceTest {
     ProductGroup savedproductGroup = productGroupService.save(productGroupPostRequestBody);
 
     verify(productGroupRepository).save(any(ProductGroup.class));
+    verify(catalogChangeService).record(Resource.PRODUCT_GROUP, Operation.CREATED,
+        productGroup.getId());
     verifyNoMoreInteractions(productGroupRepository);
     Assertions.assertEquals(productGroup, savedproductGroup);
   }
@@ -163,6 +173,31 @@ class ProductGroupServiceTest {
     verify(productGroupRepository).save(any(ProductGroup.class));
   }
 
+  @Test
+  @DisplayName("put throws ObjectOptimisticLockingFailureException when the version is stale")
+  void put_ThrowConflict_WhenVersionIsStale() {
+    productGroupPutRequestBody.setVersion(1L);
+    when(productGroupRepository.findById(100L)).thenReturn(Optional.of(productGroup));
+
+    Assertions.assertThrows(ObjectOptimisticLockingFailureException.class,
+        () -> productGroupService.replace(productGroupPutRequestBody));
+    verify(productGroupRepository, never()).save(any(ProductGroup.class));
+    verifyNoInteractions(catalogChangeService, cacheInvalidationPublisher);
+  }
+
+  @Test
+  @DisplayName("put replace productGroup when the version matches")
+  void put_ReplaceProductGroup_WhenVersionMatches() {
+    productGroupPutRequestBody.setVersion(productGroup.getVersion());
+    when(productGroupRepository.findById(100L)).thenReturn(Optional.of(productGroup));
+
+    productGroupService.replace(productGroupPutRequestBody);
+
+    verify(productGroupRepository).save(
+        argThat(saved -> saved.getVersion() == productGroup.getVersion()));
+    verify(catalogChangeService).record(Resource.PRODUCT_GROUP, Operation.UPDATED, 100L);
+  }
+
   @Test
   @DisplayName("put throws BadRequestException when productGroup not exist")
   void put_ThrowException_WhenProductGroupNotExist() {
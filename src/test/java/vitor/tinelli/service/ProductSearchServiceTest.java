@@ -0,0 +1,87 @@
+package vitor.tinelli.service;
+
+import static org.mockito.Mockito.*;
+import java.math.BigInteger;
+import java.util.List;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import vitor.tinelli.config.SearchProperties;
+import vitor.tinelli.domain.Product;
+import vitor.tinelli.exception.BadRequestException;
+import vitor.tinelli.repository.ProductRepository;
+
+@ExtendWith(MockitoExtension.class)
+class ProductSearchServiceTest {
+
+  Product first;
+  Product second;
+
+  @InjectMocks
+  private ProductSearchService productSearchService;
+  @Mock
+  private ProductRepository productRepository;
+  @Spy
+  private SearchProperties searchProperties = new SearchProperties();
+
+  @BeforeEach
+  void setUp() {
+    first = Product.builder().id(1L).name("Coca-Cola Zero").build();
+    second = Product.builder().id(2L).name("Cola Light").build();
+  }
+
+  @Test
+  @DisplayName("search returns products in the order ranked by the database")
+  void search_ReturnProductsInRankOrder_WhenSuccessful() {
+    when(productRepository.searchIds("cola ze", "cola ze%", "%cola ze%", "cola:* & ze:*", 20))
+        .thenReturn(List.of(BigInteger.valueOf(2L), BigInteger.valueOf(1L)));
+    when(productRepository.findByIdIn(List.of(2L, 1L))).thenReturn(List.of(first, second));
+
+    List<Product> products = productSearchService.search("  Cola ZE ", null);
+
+    Assertions.assertEquals(List.of(second, first), products);
+  }
+
+  @Test
+  @DisplayName("search does not load products when nothing matches")
+  void search_ReturnEmptyList_WhenNothingMatches() {
+    when(productRepository.searchIds(anyString(), anyString(), anyString(), anyString(), anyInt()))
+        .thenReturn(List.of());
+
+    Assertions.assertTrue(productSearchService.search("unknown", 5).isEmpty());
+    verify(productRepository, never()).findByIdIn(anyCollection());
+  }
+
+  @Test
+  @DisplayName("search escapes LIKE wildcards and drops tsquery operators")
+  void search_EscapeUserInput_WhenQueryHasOperators() {
+    when(productRepository.searchIds(anyString(), anyString(), anyString(), anyString(), anyInt()))
+        .thenReturn(List.of());
+
+    productSearchService.search("50%_off & !x", 500);
+
+    verify(productRepository).searchIds("50%_off & !x", "50\\%\\_off & !x%", "%50\\%\\_off & !x%",
+        "50:* & off:* & x:*", 100);
+  }
+
+  @Test
+  @DisplayName("search throws BadRequestException when query is too short")
+  void search_ThrowBadRequestException_WhenQueryIsTooShort() {
+    Assertions.assertThrows(BadRequestException.class, () -> productSearchService.search(" a ", null));
+    Assertions.assertThrows(BadRequestException.class, () -> productSearchService.search(null, null));
+    verifyNoInteractions(productRepository);
+  }
+
+  @Test
+  @DisplayName("search throws BadRequestException when query has no letters or digits")
+  void search_ThrowBadRequestException_WhenQueryHasNoWords() {
+    Assertions.assertThrows(BadRequestException.class, () -> productSearchService.search("&&", null));
+    verifyNoInteractions(productRepository);
+  }
+}
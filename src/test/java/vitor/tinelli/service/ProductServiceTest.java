@@ -0,0 +1,122 @@
+package vitor.tinelli.service;
+
+import static org.mockito.Mockito.*;
+import javax.persistence.EntityManager;
+import java.util.Optional;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import vitor.tinelli.domain.Brand;
+import vitor.tinelli.domain.CatalogChange.Operation;
+import vitor.tinelli.domain.CatalogChange.Resource;
+import vitor.tinelli.domain.Product;
+import vitor.tinelli.domain.ProductGroup;
+import vitor.tinelli.domain.Unit;
+import vitor.tinelli.exception.BadRequestException;
+import vitor.tinelli.repository.ProductRepository;
+import vitor.tinelli.requests.ProductPostRequestBody;
+import vitor.tinelli.requests.ProductPutRequestBody;
+
+@ExtendWith(MockitoExtension.class)
+class ProductServiceTest {
+
+  Product product;
+  ProductPutRequestBody productPutRequestBody;
+
+  @InjectMocks
+  private ProductService productService;
+  @Mock
+  private ProductRepository productRepository;
+  @Mock
+  private ProductSuggestService productSuggestService;
+  @Mock
+  private CatalogChangeService catalogChangeService;
+  @Mock
+  private BrandService brandService;
+  @Mock
+  private UnitService unitService;
+  @Mock
+  private ProductGroupService productGroupService;
+  @Mock
+  private EntityManager entityManager;
+
+  @BeforeEach
+  void setUp() {
+    productPutRequestBody = new ProductPutRequestBody();
+    productPutRequestBody.setId(100L);
+    productPutRequestBody.setName("product PUT Test");
+
+    product = Product.builder().id(100L).name("product Test").version(2L).build();
+  }
+
+  @Test
+  @DisplayName("save points the new product at references, not at the cached instances")
+  void save_AttachReferences_WhenReferencesExist() {
+    Brand brand = new Brand(1L, "brand Test");
+    Unit unit = new Unit(2L, "unit Test");
+    ProductGroup productGroup = new ProductGroup(3L, "productGroup Test");
+    Brand brandReference = new Brand(1L);
+    when(brandService.findByIdOrThrowBadRequestException(1L)).thenReturn(brand);
+    when(unitService.findByIdOrThrowBadRequestException(2L)).thenReturn(unit);
+    when(productGroupService.findByIdOrThrowBadRequestException(3L)).thenReturn(productGroup);
+    when(entityManager.getReference(Brand.class, 1L)).thenReturn(brandReference);
+    when(productRepository.save(any(Product.class))).thenAnswer(invocation -> {
+      Product saved = invocation.getArgument(0);
+      saved.setId(100L);
+      return saved;
+    });
+    ProductPostRequestBody productPostRequestBody = new ProductPostRequestBody();
+    productPostRequestBody.setName("product POST Test");
+    productPostRequestBody.setBrand_id(1L);
+    productPostRequestBody.setUnit_id(2L);
+    productPostRequestBody.setProductGroup_id(3L);
+
+    Product product = productService.save(productPostRequestBody);
+
+    verify(productRepository).save(argThat(saved -> saved.getBrand() == brandReference));
+    Assertions.assertEquals(100L, product.getId());
+    Assertions.assertSame(brand, product.getBrand());
+  }
+
+  @Test
+  @DisplayName("put throws ObjectOptimisticLockingFailureException when the version is stale")
+  void put_ThrowConflict_WhenVersionIsStale() {
+    productPutRequestBody.setVersion(1L);
+    when(productRepository.findById(100L)).thenReturn(Optional.of(product));
+
+    Assertions.assertThrows(ObjectOptimisticLockingFailureException.class,
+        () -> productService.replace(productPutRequestBody));
+    verify(productRepository, never()).save(any(Product.class));
+    verifyNoInteractions(catalogChangeService, productSuggestService);
+  }
+
+  @Test
+  @DisplayName("put replace product when the version matches")
+  void put_ReplaceProduct_WhenVersionMatches() {
+    productPutRequestBody.setVersion(2L);
+    when(productRepository.findById(100L)).thenReturn(Optional.of(product));
+
+    productService.replace(productPutRequestBody);
+
+    verify(productRepository).save(argThat(saved -> saved.getVersion() == 2L
+        && saved.getName().equals("product PUT Test")));
+    verify(catalogChangeService).record(Resource.PRODUCT, Operation.UPDATED, 100L);
+    verify(productSuggestService).replaced(100L, "product Test", "product PUT Test");
+  }
+
+  @Test
+  @DisplayName("put throws BadRequestException when product not exist")
+  void put_ThrowException_WhenProductNotExist() {
+    when(productRepository.findById(100L)).thenReturn(Optional.empty());
+
+    Assertions.assertThrows(BadRequestException.class,
+        () -> productService.replace(productPutRequestBody));
+    verify(productRepository, never()).save(any(Product.class));
+  }
+}
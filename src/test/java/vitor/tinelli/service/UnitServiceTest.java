@@ -12,6 +12,10 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import vitor.tinelli.cache.CacheInvalidationPublisher;
+import vitor.tinelli.domain.CatalogChange.Operation;
+import vitor.tinelli.domain.CatalogChange.Resource;
 import vitor.tinelli.domain.Unit;
 import vitor.tinelli.exception.BadRequestException;
 import vitor.tinelli.repository.UnitRepository;
@@ -29,6 +33,10 @@ class UnitServiceTest {
   private UnitService unitService;
   @Mock
   private UnitRepository unitRepository;
+  @Mock
+  private CacheInvalidationPublisher cacheInvalidationPublisher;
+  @Mock
+  private CatalogChangeService catalogChangeService;
 
   @BeforeEach
   void setUp() {
@@ -108,6 +116,7 @@ class UnitServiceTest {
     Unit savedunit = unitService.save(unitPostRequestBody);
 
     verify(unitRepository).save(any(Unit.class));
+    verify(catalogChangeService).record(Resource.UNIT, Operation.CREATED, unit.getId());
     verifyNoMoreInteractions(unitRepository);
     Assertions.assertEquals(unit, savedunit);
   }
@@ -160,6 +169,30 @@ class UnitServiceTest {
     verify(unitRepository).save(any(Unit.class));
   }
 
+  @Test
+  @DisplayName("put throws ObjectOptimisticLockingFailureException when the version is stale")
+  void put_ThrowConflict_WhenVersionIsStale() {
+    unitPutRequestBody.setVersion(1L);
+    when(unitRepository.findById(100L)).thenReturn(Optional.of(unit));
+
+    Assertions.assertThrows(ObjectOptimisticLockingFailureException.class,
+        () -> unitService.replace(unitPutRequestBody));
+    verify(unitRepository, never()).save(any(Unit.class));
+    verifyNoInteractions(catalogChangeService, cacheInvalidationPublisher);
+  }
+
+  @Test
+  @DisplayName("put replace unit when the version matches")
+  void put_ReplaceUnit_WhenVersionMatches() {
+    unitPutRequestBody.setVersion(unit.getVersion());
+    when(unitRepository.findById(100L)).thenReturn(Optional.of(unit));
+
+    unitService.replace(unitPutRequestBody);
+
+    verify(unitRepository).save(argThat(saved -> saved.getVersion() == unit.getVersion()));
+    verify(catalogChangeService).record(Resource.UNIT, Operation.UPDATED, 100L);
+  }
+
   @Test
   @DisplayName("put throws BadRequestException when unit not exist")
   void put_ThrowException_WhenUnitNotExist() {
@@ -0,0 +1,135 @@
+package vitor.tinelli.suggest;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import vitor.tinelli.dto.ProductSuggestion;
+
+class ProductNameIndexTest {
+
+  private ProductNameIndex productNameIndex;
+
+  @BeforeEach
+  void setUp() {
+    productNameIndex = new ProductNameIndex();
+    productNameIndex.rebuild(Stream.of(
+        new ProductSuggestion(3L, "Coca-Cola Zero"),
+        new ProductSuggestion(1L, "coca-cola"),
+        new ProductSuggestion(2L, "Cocoa Powder"),
+        new ProductSuggestion(4L, "Pepsi"),
+        new ProductSuggestion(5L, null)));
+  }
+
+  @Test
+  @DisplayName("suggest returns names starting with the prefix ignoring case, in name order")
+  void suggest_ReturnMatchesInOrder_WhenPrefixMatches() {
+    Assertions.assertEquals(List.of(1L, 3L, 2L), ids(productNameIndex.suggest("COC", 10)));
+    Assertions.assertEquals(List.of(1L, 3L), ids(productNameIndex.suggest("coca-", 10)));
+    Assertions.assertEquals(List.of(1L), ids(productNameIndex.suggest("c", 1)));
+    Assertions.assertTrue(productNameIndex.suggest("x", 10).isEmpty());
+    Assertions.assertEquals(4, productNameIndex.size());
+  }
+
+  @Test
+  @DisplayName("put, replace and remove are visible to the next lookup")
+  void suggest_ReflectChanges_WhenIndexIsUpdated() {
+    productNameIndex.put(6L, "Coconut Water");
+    productNameIndex.replace(1L, "coca-cola", "Pepsi Max");
+    productNameIndex.remove(2L, "Cocoa Powder");
+
+    Assertions.assertEquals(List.of(3L, 6L), ids(productNameIndex.suggest("co", 10)));
+    Assertions.assertEquals(List.of(4L, 1L), ids(productNameIndex.suggest("pep", 10)));
+    Assertions.assertEquals("Pepsi Max", productNameIndex.suggest("pepsi m", 10).get(0).getName());
+    Assertions.assertEquals(4, productNameIndex.size());
+  }
+
+  @Test
+  @DisplayName("rename replaces the current name without being told what it was")
+  void suggest_ReflectRename_WhenOldNameIsUnknown() {
+    productNameIndex.put(6L, "Coconut Water");
+    productNameIndex.rename(6L, "Pepsi Twist");
+    productNameIndex.rename(1L, "Pepsi Max");
+
+    Assertions.assertEquals(List.of(3L, 2L), ids(productNameIndex.suggest("co", 10)));
+    Assertions.assertEquals(List.of(4L, 1L, 6L), ids(productNameIndex.suggest("pep", 10)));
+    Assertions.assertEquals(5, productNameIndex.size());
+  }
+
+  @Test
+  @DisplayName("rename finds base products whose ids are not in name order")
+  void suggest_ReflectRename_WhenBaseIdsAreUnordered() {
+    productNameIndex.rebuild(IntStream.range(0, 100)
+        .mapToObj(i -> new ProductSuggestion(100L - i, String.format("Item %03d", i))));
+
+    productNameIndex.rename(37L, "Renamed");
+
+    Assertions.assertTrue(productNameIndex.suggest("item 063", 10).isEmpty());
+    Assertions.assertEquals(List.of(37L), ids(productNameIndex.suggest("renamed", 10)));
+    Assertions.assertEquals(100, productNameIndex.size());
+  }
+
+  @Test
+  @DisplayName("removeAll drops products from both the base arrays and the overlay")
+  void suggest_SkipRemovedProducts_WhenRemovedInBulk() {
+    productNameIndex.put(6L, "Coconut Water");
+
+    productNameIndex.removeAll(List.of(1L, 6L, 99L));
+
+    Assertions.assertEquals(List.of(3L, 2L), ids(productNameIndex.suggest("co", 10)));
+    Assertions.assertEquals(3, productNameIndex.size());
+  }
+
+  @Test
+  @DisplayName("apply publishes a batch of writes in order, bulk removals included")
+  void suggest_ReflectBatch_WhenBatchIsApplied() {
+    productNameIndex.apply(new ProductNameIndex.Batch()
+        .put(6L, "Coconut Water")
+        .replace(1L, "coca-cola", "Pepsi Max")
+        .removeAll(List.of(2L, 6L))
+        .put(7L, "Cocoa Nibs")
+        .rename(7L, "Coconut Milk"));
+
+    Assertions.assertEquals(List.of(3L, 7L), ids(productNameIndex.suggest("co", 10)));
+    Assertions.assertEquals(List.of(4L, 1L), ids(productNameIndex.suggest("pep", 10)));
+    Assertions.assertEquals(4, productNameIndex.size());
+  }
+
+  @Test
+  @DisplayName("updates keep working after the overlay is compacted into the base arrays")
+  void suggest_ReflectChanges_WhenOverlayIsCompacted() {
+    IntStream.range(0, 3000).forEach(i -> productNameIndex.put(1000L + i, "Bulk " + i));
+    productNameIndex.remove(1000L, "Bulk 0");
+
+    Assertions.assertEquals(3003, productNameIndex.size());
+    Assertions.assertEquals(List.of(1001L, 1010L), ids(productNameIndex.suggest("bulk 1", 2)));
+    Assertions.assertEquals(List.of(1L, 3L, 2L), ids(productNameIndex.suggest("coc", 10)));
+  }
+
+  @Test
+  @DisplayName("rebuild keeps writes that happen while the products are being read")
+  void rebuild_KeepConcurrentWrites_WhenWritesHappenDuringRebuild() {
+    productNameIndex.rebuild(Stream.of(new ProductSuggestion(1L, "Cola"))
+        .peek(product -> productNameIndex.put(7L, "Cola Light")));
+
+    Assertions.assertEquals(List.of(1L, 7L), ids(productNameIndex.suggest("cola", 10)));
+  }
+
+  @Test
+  @DisplayName("memoryFootprintBytes grows with the number of names")
+  void memoryFootprintBytes_Grow_WhenProductsAreAdded() {
+    long before = productNameIndex.memoryFootprintBytes();
+    productNameIndex.put(6L, "Coconut Water");
+
+    Assertions.assertTrue(before > 0);
+    Assertions.assertTrue(productNameIndex.memoryFootprintBytes() > before);
+  }
+
+  private static List<Long> ids(List<ProductSuggestion> suggestions) {
+    return suggestions.stream().map(ProductSuggestion::getId).collect(Collectors.toList());
+  }
+}